@@ -0,0 +1,71 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.steamgifts.data.Comment;
+import net.mabako.steamgifts.data.DiscussionExtras;
+import net.mabako.steamgifts.data.ICommentHolder;
+import net.mabako.steamgifts.tasks.Utils;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Walks a discussion page with 25 root comments and 500 replies, nested up to 14 levels deep.
+ * <p>{@link #recursive()} is how comments were loaded before, and only remains here to compare against.</p>
+ */
+@State(Scope.Benchmark)
+public class CommentTreeBenchmark {
+    private String html;
+
+    /**
+     * Comments are modified while loading them, so each invocation needs a new document. Parsing it takes far longer
+     * than loading the comments, and isn't measured.
+     */
+    private Element comments;
+
+    @Setup
+    public void setUp() throws IOException {
+        html = Fixtures.load(Fixtures.DEEP_DISCUSSION);
+    }
+
+    @Setup(Level.Invocation)
+    public void parse() {
+        comments = Fixtures.parse(html).select(".comments").first();
+    }
+
+    @Benchmark
+    public DiscussionExtras iterative() {
+        DiscussionExtras extras = new DiscussionExtras();
+        Utils.loadComments(comments, extras, 0, false, false, Comment.Type.COMMENT);
+        return extras;
+    }
+
+    @Benchmark
+    public DiscussionExtras recursive() {
+        DiscussionExtras extras = new DiscussionExtras();
+        loadCommentsRecursively(comments, extras, 0);
+        return extras;
+    }
+
+    private static void loadCommentsRecursively(Element commentNode, ICommentHolder parent, int depth) {
+        if (commentNode == null)
+            return;
+
+        for (Element c : commentNode.children()) {
+            long commentId = 0;
+            try {
+                commentId = Integer.parseInt(c.attr("data-comment-id"));
+            } catch (NumberFormatException e) {
+                /* do nothing */
+            }
+
+            parent.addComment(Utils.loadComment(c.child(0), commentId, depth, false, Comment.Type.COMMENT));
+            loadCommentsRecursively(c.select(".comment__children").first(), parent, depth + 1);
+        }
+    }
+}
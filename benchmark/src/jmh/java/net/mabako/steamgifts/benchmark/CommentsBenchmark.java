@@ -0,0 +1,43 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.steamgifts.data.Comment;
+import net.mabako.steamgifts.data.DiscussionExtras;
+import net.mabako.steamgifts.tasks.Utils;
+
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Parses a discussion page with 25 root comments and deeply threaded replies.
+ */
+@State(Scope.Benchmark)
+public class CommentsBenchmark {
+    /**
+     * Discussions may be shown with the newest comments first.
+     */
+    @Param({"false", "true"})
+    public boolean reversed;
+
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        html = Fixtures.load(Fixtures.DISCUSSION);
+    }
+
+    @Benchmark
+    public DiscussionExtras loadComments() {
+        // Comments are modified while loading them, so this needs a new document every time.
+        Document document = Fixtures.parse(html);
+
+        DiscussionExtras extras = new DiscussionExtras();
+        Utils.loadComments(document.select(".comments").first(), extras, 0, reversed, false, Comment.Type.COMMENT);
+        return extras;
+    }
+}
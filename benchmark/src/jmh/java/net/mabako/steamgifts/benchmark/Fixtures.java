@@ -0,0 +1,52 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.common.Logger;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * HTML pages the benchmarks are run against, as found in <code>src/jmh/resources/fixtures</code>.
+ */
+final class Fixtures {
+    static final String BASE_URI = "https://www.steamgifts.com/";
+
+    static final String GIVEAWAYS = "giveaways.html";
+    static final String ENTERED_GIVEAWAYS = "giveaways-entered.html";
+    static final String DISCUSSION = "discussion.html";
+    static final String DEEP_DISCUSSION = "discussion-deep.html";
+    static final String USER = "user.html";
+
+    static {
+        // android.util.Log is only implemented natively.
+        Logger.setSink(Logger.NONE);
+    }
+
+    private Fixtures() {
+    }
+
+    static String load(String name) throws IOException {
+        InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+        if (in == null)
+            throw new IOException("No such fixture: " + name);
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    static Document parse(String html) {
+        return Jsoup.parse(html, BASE_URI);
+    }
+}
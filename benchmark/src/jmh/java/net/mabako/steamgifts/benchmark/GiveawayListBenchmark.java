@@ -0,0 +1,48 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.steamgifts.data.Giveaway;
+import net.mabako.steamgifts.tasks.StreamingGiveawayListParser;
+import net.mabako.steamgifts.tasks.Utils;
+
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Parses a page of 50 giveaways (plus 3 pinned ones).
+ */
+@State(Scope.Benchmark)
+public class GiveawayListBenchmark {
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        html = Fixtures.load(Fixtures.GIVEAWAYS);
+    }
+
+    /**
+     * Baseline: only building the DOM.
+     */
+    @Benchmark
+    public Document parseDocument() {
+        return Fixtures.parse(html);
+    }
+
+    @Benchmark
+    public List<Giveaway> loadGiveawaysFromList() {
+        Document document = Fixtures.parse(html);
+        document.select(".pinned-giveaways__outer-wrap").html("");
+        return Utils.loadGiveawaysFromList(document);
+    }
+
+    @Benchmark
+    public List<Giveaway> streamingParser() throws IOException {
+        return new StreamingGiveawayListParser(new StringReader(html), false).parse();
+    }
+}
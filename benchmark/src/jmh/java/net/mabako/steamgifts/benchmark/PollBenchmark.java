@@ -0,0 +1,31 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.steamgifts.data.Poll;
+import net.mabako.steamgifts.tasks.Utils;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Parses the poll of a discussion.
+ */
+@State(Scope.Benchmark)
+public class PollBenchmark {
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        html = Fixtures.load(Fixtures.DISCUSSION);
+    }
+
+    @Benchmark
+    public Poll loadPoll() {
+        Element pollElement = Fixtures.parse(html).select(".poll").first();
+        return Utils.loadPoll(pollElement);
+    }
+}
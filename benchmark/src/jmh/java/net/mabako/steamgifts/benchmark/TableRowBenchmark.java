@@ -0,0 +1,107 @@
+package net.mabako.steamgifts.benchmark;
+
+import android.net.Uri;
+
+import net.mabako.steamgifts.data.Game;
+import net.mabako.steamgifts.fragments.profile.ProfileGiveaway;
+import net.mabako.steamgifts.tasks.GiveawayTableRowParser;
+import net.mabako.steamgifts.tasks.Selectors;
+import net.mabako.steamgifts.tasks.TableRowParser;
+import net.mabako.steamgifts.tasks.Utils;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a page of 50 entered giveaways.
+ * <p>{@link #selectPerField()} is how tables were read before, and only remains here to compare against.</p>
+ */
+@State(Scope.Benchmark)
+public class TableRowBenchmark {
+    /**
+     * The same fields as read for entered giveaways.
+     */
+    private static final TableRowParser<ProfileGiveaway> PARSER = new GiveawayTableRowParser<ProfileGiveaway>() {
+        private final Field entries = field(Selectors.Table.SMALL_COLUMNS);
+        private final Field end = field(Selectors.Table.ENTERED_END_TIME);
+        private final Field deleted = field(Selectors.Table.DELETED);
+
+        @Override
+        protected ProfileGiveaway newGiveaway(String giveawayId) {
+            return new ProfileGiveaway(giveawayId);
+        }
+
+        @Override
+        protected void load(ProfileGiveaway giveaway, Row row) {
+            giveaway.setEntries(Utils.parseInt(row.first(entries).text()));
+
+            Element end = row.first(this.end);
+            if (end != null)
+                giveaway.setEndTime(Integer.valueOf(end.attr("data-timestamp")), end.parent().text().trim());
+
+            giveaway.setEntered(giveaway.isOpen());
+            giveaway.setDeleted(row.exists(deleted));
+        }
+    };
+
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        document = Fixtures.parse(Fixtures.load(Fixtures.ENTERED_GIVEAWAYS));
+    }
+
+    @Benchmark
+    public List<ProfileGiveaway> tableRowParser() {
+        return PARSER.parse(document);
+    }
+
+    @Benchmark
+    public List<ProfileGiveaway> selectPerField() {
+        Elements rows = document.select(".table__row-inner-wrap");
+        List<ProfileGiveaway> giveaways = new ArrayList<>();
+        for (Element row : rows)
+            giveaways.add(load(row));
+        return giveaways;
+    }
+
+    private static ProfileGiveaway load(Element element) {
+        Element firstColumn = element.select(".table__column--width-fill").first();
+        Element link = firstColumn.select("a.table__column__heading").first();
+
+        Uri linkUri = Uri.parse(link.attr("href"));
+        ProfileGiveaway giveaway = new ProfileGiveaway(linkUri.getPathSegments().get(1));
+        giveaway.setName(linkUri.getPathSegments().get(2));
+        giveaway.setTitle(link.text());
+
+        Element image = element.select(".global__image-inner-wrap").first();
+        if (image != null) {
+            Uri uri = Uri.parse(Utils.extractAvatar(image.attr("style")));
+            List<String> pathSegments = uri.getPathSegments();
+            if (pathSegments.size() >= 3) {
+                giveaway.setGame(new Game("apps".equals(pathSegments.get(1)) ? Game.Type.APP : Game.Type.SUB, Integer.parseInt(pathSegments.get(2))));
+            }
+        }
+
+        giveaway.setPoints(-1);
+        giveaway.setEntries(Utils.parseInt(element.select(".table__column--width-small").first().text()));
+
+        Element end = firstColumn.select("p > span").first();
+        if (end != null)
+            giveaway.setEndTime(Integer.valueOf(end.attr("data-timestamp")), end.parent().text().trim());
+
+        giveaway.setEntered(giveaway.isOpen());
+        giveaway.setDeleted(!element.select(".table__column__deleted").isEmpty());
+
+        return giveaway;
+    }
+}
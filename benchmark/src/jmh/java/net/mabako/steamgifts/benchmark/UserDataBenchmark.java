@@ -0,0 +1,55 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Reads points, level and notifications from the header each page has.
+ */
+@State(Scope.Benchmark)
+public class UserDataBenchmark {
+    private String html;
+    private String header;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        html = Fixtures.load(Fixtures.GIVEAWAYS);
+        header = html.substring(html.indexOf("<header>"), html.indexOf("</header>") + "</header>".length());
+        document = Fixtures.parse(html);
+
+        // Without any context, there's nothing to extract into.
+        SteamGiftsUserData.clear();
+    }
+
+    /**
+     * Only the time spent on the header, the document itself is not modified.
+     */
+    @Benchmark
+    public SteamGiftsUserData extract() {
+        SteamGiftsUserData.extract(null, document);
+        return SteamGiftsUserData.getCurrent(null);
+    }
+
+    @Benchmark
+    public SteamGiftsUserData parseAndExtract() {
+        SteamGiftsUserData.extract(null, Fixtures.parse(html));
+        return SteamGiftsUserData.getCurrent(null);
+    }
+
+    /**
+     * Only the header, as read from a page that is still loading.
+     */
+    @Benchmark
+    public SteamGiftsUserData extractHeader() {
+        SteamGiftsUserData.extract(null, header);
+        return SteamGiftsUserData.getCurrent(null);
+    }
+}
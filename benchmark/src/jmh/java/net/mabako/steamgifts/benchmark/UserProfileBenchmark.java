@@ -0,0 +1,31 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.steamgifts.data.User;
+import net.mabako.steamgifts.tasks.Utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Parses another user's profile page.
+ */
+@State(Scope.Benchmark)
+public class UserProfileBenchmark {
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        html = Fixtures.load(Fixtures.USER);
+    }
+
+    @Benchmark
+    public User loadUserProfile() {
+        User user = new User();
+        Utils.loadUserProfile(user, Fixtures.parse(html));
+        return user;
+    }
+}
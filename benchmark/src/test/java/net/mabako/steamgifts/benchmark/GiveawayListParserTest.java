@@ -0,0 +1,55 @@
+package net.mabako.steamgifts.benchmark;
+
+import net.mabako.steamgifts.data.Giveaway;
+import net.mabako.steamgifts.tasks.StreamingGiveawayListParser;
+import net.mabako.steamgifts.tasks.Utils;
+
+import org.jsoup.nodes.Document;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link StreamingGiveawayListParser} finds exactly the same giveaways as
+ * {@link Utils#loadGiveawaysFromList(Document)} does.
+ */
+public class GiveawayListParserTest {
+    @Test
+    public void withoutPinnedGiveaways() throws IOException {
+        assertSameGiveaways(Fixtures.GIVEAWAYS, false);
+    }
+
+    @Test
+    public void withPinnedGiveaways() throws IOException {
+        assertSameGiveaways(Fixtures.GIVEAWAYS, true);
+    }
+
+    private static void assertSameGiveaways(String fixture, boolean includePinnedGiveaways) throws IOException {
+        String html = Fixtures.load(fixture);
+
+        Document document = Fixtures.parse(html);
+        if (!includePinnedGiveaways)
+            document.select(".pinned-giveaways__outer-wrap").html("");
+        List<Giveaway> expected = Utils.loadGiveawaysFromList(document);
+
+        List<Giveaway> actual = new StreamingGiveawayListParser(new StringReader(html), includePinnedGiveaways).parse();
+
+        assertFalse("No giveaways in " + fixture, expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            Giveaway e = expected.get(i);
+            Giveaway a = actual.get(i);
+
+            String message = fixture + ", giveaway " + i + " " + e;
+            assertEquals(message, e.getGiveawayId(), a.getGiveawayId());
+            assertEquals(message, e.getInternalGameId(), a.getInternalGameId());
+            assertTrue(message, e.contentEquals(a));
+        }
+    }
+}
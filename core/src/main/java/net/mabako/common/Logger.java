@@ -0,0 +1,68 @@
+package net.mabako.common;
+
+import android.util.Log;
+
+/**
+ * Logging for code that is not bound to a device, such as the HTML parsers in {@link net.mabako.steamgifts.tasks.Utils}.
+ * <p>This forwards to {@link Log} by default; plain JVM callers (like the benchmarks) can replace the {@link Sink}
+ * since <code>android.util.Log</code> is only implemented natively.</p>
+ */
+public final class Logger {
+    /**
+     * Receives all log messages, with priorities as defined by {@link Log}.
+     */
+    public interface Sink {
+        void println(int priority, String tag, String message, Throwable throwable);
+    }
+
+    /**
+     * Discards all messages.
+     */
+    public static final Sink NONE = new Sink() {
+        @Override
+        public void println(int priority, String tag, String message, Throwable throwable) {
+        }
+    };
+
+    private static volatile Sink sink = new AndroidSink();
+
+    private Logger() {
+    }
+
+    public static void setSink(Sink sink) {
+        Logger.sink = sink != null ? sink : NONE;
+    }
+
+    public static void v(String tag, String message) {
+        sink.println(Log.VERBOSE, tag, message, null);
+    }
+
+    public static void v(String tag, String message, Throwable throwable) {
+        sink.println(Log.VERBOSE, tag, message, throwable);
+    }
+
+    public static void d(String tag, String message) {
+        sink.println(Log.DEBUG, tag, message, null);
+    }
+
+    public static void w(String tag, String message) {
+        sink.println(Log.WARN, tag, message, null);
+    }
+
+    public static void w(String tag, String message, Throwable throwable) {
+        sink.println(Log.WARN, tag, message, throwable);
+    }
+
+    public static void e(String tag, String message, Throwable throwable) {
+        sink.println(Log.ERROR, tag, message, throwable);
+    }
+
+    private static class AndroidSink implements Sink {
+        @Override
+        public void println(int priority, String tag, String message, Throwable throwable) {
+            if (throwable != null)
+                message = message + '\n' + Log.getStackTraceString(throwable);
+            Log.println(priority, tag, message);
+        }
+    }
+}
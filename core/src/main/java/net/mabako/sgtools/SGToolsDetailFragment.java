@@ -3,7 +3,6 @@ package net.mabako.sgtools;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.design.widget.CollapsingToolbarLayout;
@@ -26,6 +25,7 @@ import net.mabako.steamgifts.activities.DetailActivity;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.BasicGiveaway;
 import net.mabako.steamgifts.fragments.GiveawayDetailFragment;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.util.List;
 import java.util.Locale;
@@ -45,7 +45,6 @@ public class SGToolsDetailFragment extends Fragment implements View.OnClickListe
     private CollapsingToolbarLayout appBarLayout;
     private View layout;
 
-    private AsyncTask<Void, Void, ?> task = null;
 
     public static SGToolsDetailFragment newInstance(UUID uuid) {
         SGToolsDetailFragment fragment = new SGToolsDetailFragment();
@@ -88,8 +87,7 @@ public class SGToolsDetailFragment extends Fragment implements View.OnClickListe
         if (giveaway != null) {
             onGiveawayLoaded(giveaway);
         } else {
-            task = new LoadGiveawayTask(this, uuid);
-            task.execute();
+            TaskExecutor.execute(this, new LoadGiveawayTask(this, uuid), TaskExecutor.Priority.FOREGROUND);
         }
 
         return layout;
@@ -98,10 +96,7 @@ public class SGToolsDetailFragment extends Fragment implements View.OnClickListe
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (task != null) {
-            task.cancel(true);
-            task = null;
-        }
+        TaskExecutor.cancel(this);
     }
 
     public void onGiveawayLoaded(Giveaway giveaway) {
@@ -146,8 +141,7 @@ public class SGToolsDetailFragment extends Fragment implements View.OnClickListe
     public void onClick(View v) {
         v.setEnabled(false);
 
-        task = new LoadGiveawayLinkTask(this, uuid);
-        task.execute();
+        TaskExecutor.execute(this, new LoadGiveawayLinkTask(this, uuid), TaskExecutor.Priority.FOREGROUND);
     }
 
     public void onCheckSuccessful(String giveawayUrl) {
@@ -1,25 +1,177 @@
 package net.mabako.steam.store;
 
+import android.content.Context;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import org.json.JSONObject;
-import org.jsoup.Connection;
+import net.mabako.steamgifts.adapters.IEndlessAdaptable;
+import net.mabako.steamgifts.tasks.TaskExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads something from the Steam Store API.
+ * <p>The details are turned into the items to display in the background as well, so {@link #onPostExecute(Object)}
+ * only has to add them to the adapter.</p>
+ * <p>Details are kept in the {@link StoreDetailsCache}. If the cached details are older than they should be, they're
+ * shown anyway and loaded again once they are; should anything have changed, the new details are passed to
+ * {@link #onRevalidated(List)}. If the user explicitly asked for the details again, they're always loaded, and the
+ * cached details are only shown if that fails.</p>
+ *
+ * @param <T> type of the details loaded
+ */
+abstract class LoadStoreTask<T extends Serializable> extends AsyncTask<Void, Void, List<IEndlessAdaptable>> {
+    private static final String TAG = LoadStoreTask.class.getSimpleName();
+
+    private final Context context;
+    private final StoreFragment fragment;
+    private final Class<T> type;
+    private final boolean reloading;
+
+    /**
+     * Details shown from the cache that need to be loaded again, if any.
+     */
+    private T staleDetails = null;
+
+    /**
+     * @param fragment  fragment the details are shown in, which revalidating them is cancelled with
+     * @param type      type of the details loaded
+     * @param reloading whether the user explicitly asked for the details again
+     */
+    protected LoadStoreTask(StoreFragment fragment, Class<T> type, boolean reloading) {
+        Context context = fragment.getContext();
+        this.context = context != null ? context.getApplicationContext() : null;
+        this.fragment = fragment;
+        this.type = type;
+        this.reloading = reloading;
+    }
 
-abstract class LoadStoreTask extends AsyncTask<Void, Void, JSONObject> {
     @Override
-    protected JSONObject doInBackground(Void... params) {
+    protected List<IEndlessAdaptable> doInBackground(Void... params) {
         try {
-            Connection.Response response = getConnection().ignoreContentType(true).method(Connection.Method.GET).execute();
-            if (response != null && response.statusCode() == 200)
-                return new JSONObject(response.body());
+            StoreDetailsCache cache = StoreDetailsCache.getInstance(context);
+            StoreDetailsCache.Entry<T> entry = cache != null ? cache.get(getCacheKey(), type) : null;
+            if (entry != null && !reloading) {
+                if (!entry.isFresh())
+                    staleDetails = entry.getDetails();
+                return getItems(entry.getDetails());
+            }
 
-            return null;
+            T details;
+            try {
+                details = load(context);
+            } catch (IOException e) {
+                if (entry == null)
+                    throw e;
+
+                Log.w(TAG, "Unable to reload " + getCacheKey() + ", showing cached details", e);
+                return getItems(entry.getDetails());
+            }
+
+            if (details == null)
+                return entry != null ? getItems(entry.getDetails()) : null;
+
+            if (cache != null)
+                cache.put(getCacheKey(), details);
+
+            return getItems(details);
         } catch (Exception e) {
-            Log.e(LoadStoreTask.class.getSimpleName(), "Error loading Url", e);
+            Log.e(TAG, "Error loading Url", e);
             return null;
         }
     }
 
-    protected abstract Connection getConnection();
+    @Override
+    protected void onPostExecute(List<IEndlessAdaptable> items) {
+        if (staleDetails != null)
+            TaskExecutor.execute(fragment, new RevalidateTask(staleDetails), TaskExecutor.Priority.BACKGROUND);
+    }
+
+    /**
+     * Loads the details from the Steam Store.
+     *
+     * @param context application context
+     * @return the details, or null if they could not be found
+     */
+    protected abstract T load(Context context) throws IOException;
+
+    /**
+     * @return key of the details in the {@link StoreDetailsCache}
+     */
+    protected abstract String getCacheKey();
+
+    /**
+     * Creates all items to be shown.
+     */
+    protected abstract List<IEndlessAdaptable> getItems(T details);
+
+    /**
+     * Called with the items for details that changed since the cached details were shown.
+     */
+    protected abstract void onRevalidated(List<IEndlessAdaptable> items);
+
+    /**
+     * @return whether both details hold the same values, as far as they're kept in the cache
+     */
+    private static boolean isSame(Serializable one, Serializable two) {
+        try {
+            return Arrays.equals(serialize(one), serialize(two));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static byte[] serialize(Serializable details) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        try {
+            out.writeObject(details);
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Loads the details again after the cached details have been shown, so they're up to date.
+     */
+    private class RevalidateTask extends AsyncTask<Void, Void, List<IEndlessAdaptable>> {
+        private final T shownDetails;
+
+        private RevalidateTask(T shownDetails) {
+            this.shownDetails = shownDetails;
+        }
+
+        @Override
+        protected List<IEndlessAdaptable> doInBackground(Void... params) {
+            StoreDetailsCache cache = StoreDetailsCache.getInstance(context);
+            if (cache == null || !cache.startRevalidating(getCacheKey()))
+                return null;
+
+            try {
+                T details = load(context);
+                if (details == null)
+                    return null;
+
+                cache.put(getCacheKey(), details);
+                return isSame(shownDetails, details) ? null : getItems(details);
+            } catch (IOException e) {
+                Log.w(TAG, "Unable to revalidate " + getCacheKey(), e);
+                return null;
+            } finally {
+                cache.finishRevalidating(getCacheKey());
+            }
+        }
+
+        @Override
+        protected void onPostExecute(List<IEndlessAdaptable> items) {
+            if (items != null)
+                onRevalidated(items);
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package net.mabako.steam.store;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+
+import net.mabako.steam.store.data.AppDetails;
+import net.mabako.steam.store.data.PackageDetails;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
+
+import java.io.IOException;
+
+/**
+ * Requests to the Steam Store API.
+ */
+public final class StoreApi {
+    /**
+     * Language to load all details in.
+     */
+    public static final String LANGUAGE = "en";
+
+    private StoreApi() {
+    }
+
+    /**
+     * Loads the details of a single app.
+     *
+     * @return the details, or null if the app could not be found
+     */
+    @Nullable
+    public static AppDetails loadApp(Context context, String appId) throws IOException {
+        SteamGiftsHttpClient.Response response = SteamGiftsHttpClient.get(context, "http://store.steampowered.com/api/appdetails/")
+                .data("appids", appId)
+                .data("l", LANGUAGE)
+                .execute();
+        if (response.statusCode() != 200) {
+            response.close();
+            return null;
+        }
+
+        JsonReader reader = new JsonReader(response.charStream());
+        try {
+            return StoreDetailsReader.readApp(reader, appId);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Loads the details of a single package.
+     *
+     * @return the details, or null if the package could not be found
+     */
+    @Nullable
+    public static PackageDetails loadPackage(Context context, String packageId) throws IOException {
+        SteamGiftsHttpClient.Response response = SteamGiftsHttpClient.get(context, "http://store.steampowered.com/api/packagedetails/")
+                .data("packageids", packageId)
+                .data("l", LANGUAGE)
+                .execute();
+        if (response.statusCode() != 200) {
+            response.close();
+            return null;
+        }
+
+        JsonReader reader = new JsonReader(response.charStream());
+        try {
+            return StoreDetailsReader.readPackage(reader, packageId);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return key of the app's details in the {@link StoreDetailsCache}
+     */
+    public static String getAppCacheKey(String appId) {
+        return StoreDetailsCache.getKey("app", appId, LANGUAGE);
+    }
+
+    /**
+     * @return key of the package's details in the {@link StoreDetailsCache}
+     */
+    public static String getPackageCacheKey(String packageId) {
+        return StoreDetailsCache.getKey("sub", packageId, LANGUAGE);
+    }
+}
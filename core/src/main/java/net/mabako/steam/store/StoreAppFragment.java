@@ -1,5 +1,6 @@
 package net.mabako.steam.store;
 
+import android.content.Context;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.text.TextUtils;
@@ -7,27 +8,24 @@ import android.util.Log;
 import android.view.View;
 import android.widget.Toast;
 
-import net.mabako.Constants;
+import net.mabako.steam.store.data.AppDetails;
 import net.mabako.steam.store.data.Picture;
 import net.mabako.steam.store.data.Space;
 import net.mabako.steam.store.data.Text;
 import net.mabako.steamgifts.adapters.IEndlessAdaptable;
 import net.mabako.steamgifts.core.R;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
-
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class StoreAppFragment extends StoreFragment {
     private static final String TAG = StoreAppFragment.class.getSimpleName();
 
+    private static final Pattern IMAGE_PATTERN = Pattern.compile("(<img.*src=\"([^\"]*)\"[\\s]*>)");
+
     public static StoreAppFragment newInstance(int appId, boolean refreshOnCreate) {
         StoreAppFragment fragment = new StoreAppFragment();
 
@@ -51,169 +49,151 @@ public class StoreAppFragment extends StoreFragment {
         return new LoadAppTask();
     }
 
-    private class LoadAppTask extends LoadStoreTask {
+    private class LoadAppTask extends LoadStoreTask<AppDetails> {
+        private final String appId = getArguments().getString("app");
+
+        private LoadAppTask() {
+            super(StoreAppFragment.this, AppDetails.class, isReloading());
+        }
+
         @Override
-        protected Connection getConnection() {
-            return Jsoup
-                    .connect("http://store.steampowered.com/api/appdetails/")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT)
-                    .data("appids", getArguments().getString("app"))
-                    .data("l", "en");
+        protected AppDetails load(Context context) throws IOException {
+            return StoreApi.loadApp(context, appId);
         }
 
         @Override
-        protected void onPostExecute(JSONObject jsonObject) {
-            if (jsonObject != null) {
-                try {
-                    JSONObject sub = jsonObject.getJSONObject(getArguments().getString("app"));
-
-                    // Were we successful in fetching the details?
-                    if (sub.getBoolean("success")) {
-                        JSONObject data = sub.getJSONObject("data");
-
-                        List<IEndlessAdaptable> items = new ArrayList<IEndlessAdaptable>();
-
-                        // Game name
-                        items.add(new Text("<h1>" + TextUtils.htmlEncode(data.getString("name")) + "</h1>", true));
-
-                        // Game description.
-                        if (data.has("about_the_game")) {
-                            String txt = data.getString("about_the_game");
-                            items.addAll(processText(txt));
-                        }
-
-                        // Release?
-                        if (data.has("release_date"))
-                            items.add(new Text("<strong>Release:</strong> " + data.getJSONObject("release_date").getString("date"), true, true));
-
-                        // Genres
-                        if (data.has("genres")) {
-                            JSONArray genres = data.getJSONArray("genres");
-                            if (genres.length() > 0) {
-                                StringBuilder sb = new StringBuilder("<strong>Genre:</strong> ");
-                                for (int i = 0; i < genres.length(); ++i) {
-                                    if (i > 0)
-                                        sb.append(", ");
-
-                                    sb.append(genres.getJSONObject(i).getString("description"));
-                                }
-                                items.add(new Text(sb.toString(), true));
-                            }
-                        }
-
-                        // Categories (icons)
-                        if (data.has("categories")){
-                            JSONArray categories = data.getJSONArray("categories");
-                            StringBuilder sb = new StringBuilder();
-                            for (int i = 0; i < categories.length(); ++i) {
-                                JSONObject cat = categories.getJSONObject(i);
-                                String icoName = "";
-                                switch (cat.getInt("id")){
-                                    case 1: //Multijugador
-                                    case 27: //Multijugador multiplataforma
-                                    case 36: //Multijugador en línea
-                                    case 37: //Multijugador local
-                                        icoName = "ico_multiPlayer";
-                                        break;
-                                    case 9: //Cooperativo
-                                    case 24: //Shared/Split Screen
-                                    case 38: //Online Co-op
-                                    case 39: //Local Co-op
-                                        icoName = "ico_coop";
-                                        break;
-                                    case 2: //Un jugador
-                                        icoName = "ico_singlePlayer";
-                                        break;
-                                    case 8: //Con sist. antitrampas de Valve
-                                        icoName = "ico_vac";
-                                        break;
-                                    case 13: //Subtítulos disponibles
-                                        icoName = "ico_cc";
-                                        break;
-                                    case 14: //Comentario disponible
-                                        icoName = "ico_commentary";
-                                        break;
-                                    case 15: //Estadísticas
-                                        icoName = "ico_stats";
-                                        break;
-                                    case 17: //Incluye editor de niveles
-                                        icoName = "ico_editor";
-                                        break;
-                                    case 18: //Compat. parcial con mando
-                                        icoName = "ico_partial_controller";
-                                        break;
-                                    case 21: //Downloadable Content
-                                        icoName = "ico_dlc";
-                                        break;
-                                    case 22: //Logros
-                                        icoName = "ico_achievements";
-                                        break;
-                                    case 23: //Steam Cloud
-                                        icoName = "ico_cloud";
-                                        break;
-                                    case 25: //Steam Leaderboards
-                                        icoName = "ico_leaderboards";
-                                        break;
-                                    case 28: //Full controller support
-                                        icoName = "ico_controller";
-                                        break;
-                                    case 29: //Cromos
-                                        icoName = "ico_cards";
-                                        break;
-                                    case 30: //Steam Workshop
-                                        icoName = "ico_workshop";
-                                        break;
-                                    case 35: //Compras dentro de la aplicación
-                                        icoName = "ico_cart";
-                                        break;
-                                }
-
-                                if (icoName.equals("")){
-                                    Log.d(TAG, "icono de Categories no contemplado. ID:"+cat.getInt("id"));
-                                }else {
-                                    sb.append("<img src=\"https://steamstore-a.akamaihd.net/public/images/v6/ico/"+icoName+".png\" style=\"width: 26px; height: 16px;\"/>");
-                                }
-                            }
-                            items.add(new Text(sb.toString(), true));
-                        }
-
-                        // Space!
-                        items.add(new Space());
-
-                        // Some screenshots
-                        if (data.has("screenshots")) {
-                            JSONArray screenshots = data.getJSONArray("screenshots");
-                            for (int i = 0; i < screenshots.length(); ++i) {
-                                items.add(new Picture(screenshots.getJSONObject(i).getString("path_thumbnail")));
-                            }
-                        }
-
-                        if (data.has("legal_notice"))
-                            items.add(new Text(data.getString("legal_notice"), true, R.layout.endless_scroll_end, false));
-
-                        addItems(items, true);
-                    } else throw new Exception("not successful");
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception during loading store app", e);
-                    Toast.makeText(getContext(), "Unable to load Store App", Toast.LENGTH_LONG).show();
-                }
+        protected String getCacheKey() {
+            return StoreApi.getAppCacheKey(appId);
+        }
+
+        @Override
+        protected List<IEndlessAdaptable> getItems(AppDetails app) {
+            return createItems(app);
+        }
+
+        @Override
+        protected void onPostExecute(List<IEndlessAdaptable> items) {
+            super.onPostExecute(items);
+
+            if (items != null) {
+                addItems(items, true);
             } else {
-                Log.e(TAG, "no JSON object");
                 Toast.makeText(getContext(), "Unable to load Store App", Toast.LENGTH_LONG).show();
             }
 
             getView().findViewById(R.id.progressBar).setVisibility(View.GONE);
         }
+
+        @Override
+        protected void onRevalidated(List<IEndlessAdaptable> items) {
+            if (getView() != null)
+                addItems(items, true);
+        }
+    }
+
+    /**
+     * Creates all items to show for an app.
+     */
+    private static List<IEndlessAdaptable> createItems(AppDetails app) {
+        List<IEndlessAdaptable> items = new ArrayList<IEndlessAdaptable>();
+
+        // Game name
+        items.add(new Text("<h1>" + TextUtils.htmlEncode(app.getName() != null ? app.getName() : "") + "</h1>", true));
+
+        // Game description.
+        if (app.getAboutTheGame() != null)
+            items.addAll(processText(app.getAboutTheGame()));
+
+        // Release?
+        if (app.getReleaseDate() != null)
+            items.add(new Text("<strong>Release:</strong> " + app.getReleaseDate(), true, true));
+
+        // Genres
+        if (!app.getGenres().isEmpty())
+            items.add(new Text("<strong>Genre:</strong> " + TextUtils.join(", ", app.getGenres()), true));
+
+        // Categories (icons)
+        if (!app.getCategories().isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            for (int categoryId : app.getCategories()) {
+                String icoName = getCategoryIcon(categoryId);
+                if (icoName == null) {
+                    Log.d(TAG, "icono de Categories no contemplado. ID:" + categoryId);
+                } else {
+                    sb.append("<img src=\"https://steamstore-a.akamaihd.net/public/images/v6/ico/" + icoName + ".png\" style=\"width: 26px; height: 16px;\"/>");
+                }
+            }
+            items.add(new Text(sb.toString(), true));
+        }
+
+        // Space!
+        items.add(new Space());
+
+        // Some screenshots
+        for (String screenshot : app.getScreenshots())
+            items.add(new Picture(screenshot));
+
+        if (app.getLegalNotice() != null)
+            items.add(new Text(app.getLegalNotice(), true, R.layout.endless_scroll_end, false));
+
+        return items;
+    }
+
+    /**
+     * @return name of the icon for the category, or null if there is none
+     */
+    private static String getCategoryIcon(int categoryId) {
+        switch (categoryId) {
+            case 1: //Multijugador
+            case 27: //Multijugador multiplataforma
+            case 36: //Multijugador en línea
+            case 37: //Multijugador local
+                return "ico_multiPlayer";
+            case 9: //Cooperativo
+            case 24: //Shared/Split Screen
+            case 38: //Online Co-op
+            case 39: //Local Co-op
+                return "ico_coop";
+            case 2: //Un jugador
+                return "ico_singlePlayer";
+            case 8: //Con sist. antitrampas de Valve
+                return "ico_vac";
+            case 13: //Subtítulos disponibles
+                return "ico_cc";
+            case 14: //Comentario disponible
+                return "ico_commentary";
+            case 15: //Estadísticas
+                return "ico_stats";
+            case 17: //Incluye editor de niveles
+                return "ico_editor";
+            case 18: //Compat. parcial con mando
+                return "ico_partial_controller";
+            case 21: //Downloadable Content
+                return "ico_dlc";
+            case 22: //Logros
+                return "ico_achievements";
+            case 23: //Steam Cloud
+                return "ico_cloud";
+            case 25: //Steam Leaderboards
+                return "ico_leaderboards";
+            case 28: //Full controller support
+                return "ico_controller";
+            case 29: //Cromos
+                return "ico_cards";
+            case 30: //Steam Workshop
+                return "ico_workshop";
+            case 35: //Compras dentro de la aplicación
+                return "ico_cart";
+        }
+        return null;
     }
 
-    private List<IEndlessAdaptable> processText(String the_game) {
+    private static List<IEndlessAdaptable> processText(String the_game) {
         List<IEndlessAdaptable> items = new ArrayList<IEndlessAdaptable>();
 
         String result = the_game.replaceAll("<br>", "<br/>\n");
 
-        Pattern p = Pattern.compile("(<img.*src=\"([^\"]*)\"[\\s]*>)");
-        Matcher m = p.matcher(result);
+        Matcher m = IMAGE_PATTERN.matcher(result);
 
         int index = 0;
         int imgIndex = 0;
@@ -0,0 +1,238 @@
+package net.mabako.steam.store;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded on-disk cache for details loaded from the Steam Store API.
+ * <p>Details are keyed by the type and id of what was loaded, and the language it was loaded in. Entries younger than
+ * {@link #MAX_AGE} are used as they are. Older entries are still shown right away for up to {@link #MAX_STALE}, but
+ * loaded again in the background, so the next time they're opened they're up to date.</p>
+ */
+public final class StoreDetailsCache {
+    private static final String TAG = StoreDetailsCache.class.getSimpleName();
+
+    private static final String DIRECTORY = "store";
+    private static final long MAX_SIZE = 2 * 1024 * 1024;
+
+    /**
+     * How long details are used without loading them again.
+     */
+    private static final long MAX_AGE = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * How long details are shown while they're being loaded again.
+     */
+    private static final long MAX_STALE = TimeUnit.DAYS.toMillis(14);
+
+    private static StoreDetailsCache instance;
+
+    private final File directory;
+    private long size = -1;
+
+    /**
+     * Keys of all entries currently being loaded again.
+     */
+    private final Set<String> revalidating = new HashSet<>();
+
+    private StoreDetailsCache(File directory) {
+        this.directory = directory;
+    }
+
+    @Nullable
+    public static synchronized StoreDetailsCache getInstance(@Nullable Context context) {
+        if (instance == null) {
+            if (context == null)
+                return null;
+
+            File directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                Log.w(TAG, "Unable to create cache directory " + directory);
+                return null;
+            }
+            instance = new StoreDetailsCache(directory);
+        }
+        return instance;
+    }
+
+    /**
+     * @param type     type of the details, such as "app" or "sub"
+     * @param id       id of the app or sub
+     * @param language language the details were loaded in
+     */
+    public static String getKey(String type, String id, String language) {
+        return type + "_" + id + "_" + language;
+    }
+
+    /**
+     * Returns the cached details, unless they're too old to be shown at all.
+     *
+     * @param key  key of the entry
+     * @param type class of the details
+     */
+    @Nullable
+    public synchronized <T extends Serializable> Entry<T> get(String key, Class<T> type) {
+        File file = new File(directory, key);
+        if (!file.isFile())
+            return null;
+
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+            long fetchedAt = in.readLong();
+            Object details = in.readObject();
+            if (!type.isInstance(details) || System.currentTimeMillis() - fetchedAt >= MAX_STALE) {
+                remove(file);
+                return null;
+            }
+
+            // Least recently used entries are evicted first.
+            file.setLastModified(System.currentTimeMillis());
+            return new Entry<>(type.cast(details), fetchedAt);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read cache entry " + key, e);
+            remove(file);
+            return null;
+        } catch (ClassNotFoundException e) {
+            Log.w(TAG, "Unable to read cache entry " + key, e);
+            remove(file);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    public synchronized void put(String key, Serializable details) {
+        File file = new File(directory, key);
+        long previousLength = file.length();
+
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.writeLong(System.currentTimeMillis());
+            out.writeObject(details);
+            out.close();
+            out = null;
+
+            size = getSize() - previousLength + file.length();
+            trimToSize();
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write cache entry " + key, e);
+            closeQuietly(out);
+            remove(file);
+        }
+    }
+
+    /**
+     * Marks an entry as being loaded again.
+     *
+     * @return true if it is not already being loaded again
+     */
+    synchronized boolean startRevalidating(String key) {
+        return revalidating.add(key);
+    }
+
+    synchronized void finishRevalidating(String key) {
+        revalidating.remove(key);
+    }
+
+    /**
+     * Removes all cached details.
+     */
+    public synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                remove(file);
+        size = 0;
+    }
+
+    private long getSize() {
+        if (size < 0) {
+            size = 0;
+            File[] files = directory.listFiles();
+            if (files != null)
+                for (File file : files)
+                    size += file.length();
+        }
+        return size;
+    }
+
+    private void trimToSize() {
+        if (getSize() <= MAX_SIZE)
+            return;
+
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long l = lhs.lastModified(), r = rhs.lastModified();
+                return l < r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < files.length && size > MAX_SIZE; ++i)
+            remove(files[i]);
+    }
+
+    private void remove(File file) {
+        long length = file.length();
+        if (file.delete() && size >= 0)
+            size -= length;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // nothing to do here
+            }
+        }
+    }
+
+    /**
+     * Cached details of a single app or sub.
+     */
+    public static class Entry<T extends Serializable> {
+        private final T details;
+        private final long fetchedAt;
+
+        private Entry(T details, long fetchedAt) {
+            this.details = details;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public T getDetails() {
+            return details;
+        }
+
+        /**
+         * @return true if these details are recent enough to not be loaded again
+         */
+        public boolean isFresh() {
+            return System.currentTimeMillis() - fetchedAt < MAX_AGE;
+        }
+    }
+}
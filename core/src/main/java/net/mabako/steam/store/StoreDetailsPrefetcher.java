@@ -0,0 +1,190 @@
+package net.mabako.steam.store;
+
+import android.content.Context;
+import android.os.AsyncTask;
+import android.preference.PreferenceManager;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import net.mabako.steam.store.data.AppDetails;
+import net.mabako.steam.store.data.PackageDetails;
+import net.mabako.steamgifts.data.Game;
+import net.mabako.steamgifts.fragments.ListFragment;
+import net.mabako.steamgifts.tasks.TaskExecutor;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the store details of games shown in giveaway lists into the {@link StoreDetailsCache}, so opening their store
+ * page does not have to wait for the Steam Store.
+ * <p>Games are collected from each newly loaded page of giveaways, and loaded in the order they're listed in by at most
+ * {@link #MAX_CONCURRENT_REQUESTS} requests at once. Only the first {@link #MAX_PENDING} games of the most recently
+ * loaded page are loaded.</p>
+ * <p>The Steam Store API returns full details for a single app per request only, so every game is requested on its
+ * own.</p>
+ */
+public final class StoreDetailsPrefetcher {
+    private static final String TAG = StoreDetailsPrefetcher.class.getSimpleName();
+
+    /**
+     * How many games of a single page are loaded at most.
+     */
+    private static final int MAX_PENDING = 12;
+
+    private static final int MAX_CONCURRENT_REQUESTS = 2;
+
+    /**
+     * How many games we remember having looked at, before we start over.
+     */
+    private static final int MAX_SEEN = 1000;
+
+    private static StoreDetailsPrefetcher instance;
+
+    private final Context context;
+
+    /**
+     * Games waiting to be loaded, in the order they're listed in.
+     */
+    private final LinkedHashMap<String, Game> pending = new LinkedHashMap<>();
+
+    /**
+     * Keys of all games that were already loaded or checked against the cache.
+     */
+    private final Set<String> seen = new HashSet<>();
+
+    private int runningTasks = 0;
+
+    private StoreDetailsPrefetcher(Context context) {
+        this.context = context;
+    }
+
+    @Nullable
+    public static synchronized StoreDetailsPrefetcher getInstance(@Nullable Context context) {
+        if (instance == null) {
+            if (context == null)
+                return null;
+
+            instance = new StoreDetailsPrefetcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Starts loading the games of a newly loaded page.
+     * <p>Any games of the previous page that weren't loaded yet are dropped, as the list has most likely been scrolled
+     * past them by now.</p>
+     *
+     * @param games all games on the page, in the order they're listed in
+     */
+    public void prefetch(List<Game> games) {
+        if (!isEnabled())
+            return;
+
+        synchronized (this) {
+            pending.clear();
+            for (Game game : games) {
+                if (pending.size() >= MAX_PENDING)
+                    break;
+                if (game.getGameId() == Game.NO_APP_ID)
+                    continue;
+
+                // Several giveaways for the same game only keep their first place.
+                String key = getCacheKey(game.getType(), String.valueOf(game.getGameId()));
+                if (!seen.contains(key) && !pending.containsKey(key))
+                    pending.put(key, game);
+            }
+
+            startTasks();
+        }
+    }
+
+    /**
+     * Store details are only loaded ahead of time if pages are as well.
+     */
+    private boolean isEnabled() {
+        try {
+            return Integer.parseInt(PreferenceManager.getDefaultSharedPreferences(context).getString(ListFragment.PREF_PREFETCH_PAGES, "1")) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private synchronized void startTasks() {
+        while (runningTasks < MAX_CONCURRENT_REQUESTS && runningTasks < pending.size()) {
+            ++runningTasks;
+            TaskExecutor.execute(new PrefetchTask(), TaskExecutor.Priority.BACKGROUND);
+        }
+    }
+
+    /**
+     * Takes the game listed first.
+     *
+     * @return the game, or null if there's nothing left to load
+     */
+    @Nullable
+    private synchronized Game takeNext() {
+        Iterator<Map.Entry<String, Game>> iterator = pending.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            --runningTasks;
+            return null;
+        }
+
+        Map.Entry<String, Game> next = iterator.next();
+        iterator.remove();
+
+        if (seen.size() >= MAX_SEEN)
+            seen.clear();
+        seen.add(next.getKey());
+
+        return next.getValue();
+    }
+
+    private static String getCacheKey(Game.Type type, String id) {
+        return type == Game.Type.APP ? StoreApi.getAppCacheKey(id) : StoreApi.getPackageCacheKey(id);
+    }
+
+    /**
+     * Loads games until there are none left.
+     */
+    private class PrefetchTask extends AsyncTask<Void, Void, Void> {
+        @Override
+        protected Void doInBackground(Void... params) {
+            StoreDetailsCache cache = StoreDetailsCache.getInstance(context);
+            if (cache == null) {
+                synchronized (StoreDetailsPrefetcher.this) {
+                    --runningTasks;
+                }
+                return null;
+            }
+
+            Game game;
+            while ((game = takeNext()) != null) {
+                String id = String.valueOf(game.getGameId());
+                String key = getCacheKey(game.getType(), id);
+
+                Class<? extends Serializable> detailsType = game.getType() == Game.Type.APP ? AppDetails.class : PackageDetails.class;
+                StoreDetailsCache.Entry<? extends Serializable> entry = cache.get(key, detailsType);
+                if ((entry != null && entry.isFresh()) || !cache.startRevalidating(key))
+                    continue;
+
+                try {
+                    Serializable details = game.getType() == Game.Type.APP ? StoreApi.loadApp(context, id) : StoreApi.loadPackage(context, id);
+                    if (details != null)
+                        cache.put(key, details);
+                } catch (IOException e) {
+                    Log.v(TAG, "Unable to prefetch " + key, e);
+                } finally {
+                    cache.finishRevalidating(key);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package net.mabako.steam.store;
+
+import android.support.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import net.mabako.steam.store.data.AppDetails;
+import net.mabako.steam.store.data.PackageDetails;
+import net.mabako.steamgifts.data.Game;
+
+import java.io.IOException;
+
+/**
+ * Reads the responses of the Steam Store's <code>appdetails</code> and <code>packagedetails</code> APIs as they are
+ * streamed, skipping over everything we don't display.
+ * <p>Both APIs return an object with one entry per requested id, each of which looks like
+ * <code>{"success": true, "data": {...}}</code>.</p>
+ */
+public final class StoreDetailsReader {
+    private StoreDetailsReader() {
+    }
+
+    /**
+     * Reads the details of a single app.
+     *
+     * @param reader reader positioned before the response object
+     * @param appId  id of the app to read
+     * @return the details, or null if the app could not be found
+     */
+    @Nullable
+    public static AppDetails readApp(JsonReader reader, String appId) throws IOException {
+        AppDetails app = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (appId.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT)
+                app = readAppResult(reader);
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return app;
+    }
+
+    /**
+     * Reads the details of a single package.
+     *
+     * @param reader    reader positioned before the response object
+     * @param packageId id of the package to read
+     * @return the details, or null if the package could not be found
+     */
+    @Nullable
+    public static PackageDetails readPackage(JsonReader reader, String packageId) throws IOException {
+        PackageDetails sub = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (packageId.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT)
+                sub = readPackageResult(reader);
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return sub;
+    }
+
+    private static AppDetails readAppResult(JsonReader reader) throws IOException {
+        boolean success = false;
+        AppDetails app = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("success".equals(name) && reader.peek() == JsonToken.BOOLEAN)
+                success = reader.nextBoolean();
+            else if ("data".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT)
+                app = readAppData(reader);
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return success ? app : null;
+    }
+
+    private static AppDetails readAppData(JsonReader reader) throws IOException {
+        AppDetails app = new AppDetails();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("name".equals(name)) {
+                app.setName(nextString(reader));
+            } else if ("about_the_game".equals(name)) {
+                app.setAboutTheGame(nextString(reader));
+            } else if ("legal_notice".equals(name)) {
+                app.setLegalNotice(nextString(reader));
+            } else if ("release_date".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("date".equals(reader.nextName()))
+                        app.setReleaseDate(nextString(reader));
+                    else
+                        reader.skipValue();
+                }
+                reader.endObject();
+            } else if ("genres".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String description = readField(reader, "description");
+                    if (description != null)
+                        app.getGenres().add(description);
+                }
+                reader.endArray();
+            } else if ("categories".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String id = readField(reader, "id");
+                    if (id != null) {
+                        try {
+                            app.getCategories().add(Integer.valueOf(id));
+                        } catch (NumberFormatException e) {
+                            /* not a category we know of */
+                        }
+                    }
+                }
+                reader.endArray();
+            } else if ("screenshots".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String thumbnail = readField(reader, "path_thumbnail");
+                    if (thumbnail != null)
+                        app.getScreenshots().add(thumbnail);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return app;
+    }
+
+    private static PackageDetails readPackageResult(JsonReader reader) throws IOException {
+        boolean success = false;
+        PackageDetails sub = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("success".equals(name) && reader.peek() == JsonToken.BOOLEAN)
+                success = reader.nextBoolean();
+            else if ("data".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT)
+                sub = readPackageData(reader);
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return success ? sub : null;
+    }
+
+    private static PackageDetails readPackageData(JsonReader reader) throws IOException {
+        PackageDetails sub = new PackageDetails();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("apps".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext())
+                    sub.getApps().add(readPackageApp(reader));
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return sub;
+    }
+
+    private static Game readPackageApp(JsonReader reader) throws IOException {
+        Game game = new Game();
+        game.setType(Game.Type.APP);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("id".equals(name) && reader.peek() == JsonToken.NUMBER)
+                game.setGameId(reader.nextInt());
+            else if ("name".equals(name))
+                game.setName(nextString(reader));
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return game;
+    }
+
+    /**
+     * Reads a single field of an object, skipping all others.
+     *
+     * @return the field's value as string, or null if the object does not have that field
+     */
+    private static String readField(JsonReader reader, String field) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (field.equals(reader.nextName()))
+                value = nextString(reader);
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+        return value;
+    }
+
+    /**
+     * Reads a string or number, or returns null for anything else.
+     */
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER)
+            return reader.nextString();
+
+        reader.skipValue();
+        return null;
+    }
+}
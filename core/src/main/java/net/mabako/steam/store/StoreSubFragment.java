@@ -1,23 +1,18 @@
 package net.mabako.steam.store;
 
+import android.content.Context;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.view.View;
 import android.widget.Toast;
 
-import net.mabako.Constants;
+import net.mabako.steam.store.data.PackageDetails;
 import net.mabako.steamgifts.activities.DetailActivity;
 import net.mabako.steamgifts.adapters.IEndlessAdaptable;
 import net.mabako.steamgifts.core.R;
-import net.mabako.steamgifts.data.Game;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,52 +39,45 @@ public class StoreSubFragment extends StoreFragment {
         activity.setTransientFragment(StoreAppFragment.newInstance(appId, true));
     }
 
-    private class LoadSubTask extends LoadStoreTask {
+    private class LoadSubTask extends LoadStoreTask<PackageDetails> {
+        private final String packageId = getArguments().getString("sub");
+
+        private LoadSubTask() {
+            super(StoreSubFragment.this, PackageDetails.class, isReloading());
+        }
+
+        @Override
+        protected PackageDetails load(Context context) throws IOException {
+            return StoreApi.loadPackage(context, packageId);
+        }
+
         @Override
-        protected Connection getConnection() {
-            return Jsoup
-                    .connect("http://store.steampowered.com/api/packagedetails/")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT)
-                    .data("packageids", getArguments().getString("sub"))
-                    .data("l", "en");
+        protected String getCacheKey() {
+            return StoreApi.getPackageCacheKey(packageId);
         }
 
         @Override
-        protected void onPostExecute(JSONObject jsonObject) {
-            if (jsonObject != null) {
-                try {
-                    JSONObject sub = jsonObject.getJSONObject(getArguments().getString("sub"));
-
-                    // Were we successful in fetching the details?
-                    if (sub.getBoolean("success")) {
-                        JSONObject data = sub.getJSONObject("data");
-                        JSONArray apps = data.getJSONArray("apps");
-
-                        List<IEndlessAdaptable> games = new ArrayList<>();
-
-                        for (int i = 0; i < apps.length(); ++i) {
-                            JSONObject app = apps.getJSONObject(i);
-
-                            Game game = new Game();
-                            game.setType(Game.Type.APP);
-                            game.setGameId(app.getInt("id"));
-                            game.setName(app.getString("name"));
-
-                            games.add(game);
-                        }
-
-                        addItems(games, true);
-                    } else throw new Exception("not successful");
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception during loading store sub", e);
-                    Toast.makeText(getContext(), "Unable to load Store Sub", Toast.LENGTH_LONG).show();
-                }
+        protected List<IEndlessAdaptable> getItems(PackageDetails sub) {
+            return new ArrayList<IEndlessAdaptable>(sub.getApps());
+        }
+
+        @Override
+        protected void onPostExecute(List<IEndlessAdaptable> games) {
+            super.onPostExecute(games);
+
+            if (games != null) {
+                addItems(games, true);
             } else {
                 Toast.makeText(getContext(), "Unable to load Store Sub", Toast.LENGTH_LONG).show();
             }
 
             getView().findViewById(R.id.progressBar).setVisibility(View.GONE);
         }
+
+        @Override
+        protected void onRevalidated(List<IEndlessAdaptable> games) {
+            if (getView() != null)
+                addItems(games, true);
+        }
     }
 }
@@ -0,0 +1,74 @@
+package net.mabako.steam.store.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Details of a single app on the Steam Store, as returned by the <code>appdetails</code> API.
+ */
+public class AppDetails implements Serializable {
+    private static final long serialVersionUID = 4809381273420851742L;
+
+    private String name;
+    private String aboutTheGame;
+    private String releaseDate;
+    private String legalNotice;
+
+    private final List<String> genres = new ArrayList<>();
+    private final List<Integer> categories = new ArrayList<>();
+    private final List<String> screenshots = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getAboutTheGame() {
+        return aboutTheGame;
+    }
+
+    public void setAboutTheGame(String aboutTheGame) {
+        this.aboutTheGame = aboutTheGame;
+    }
+
+    public String getReleaseDate() {
+        return releaseDate;
+    }
+
+    public void setReleaseDate(String releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+
+    public String getLegalNotice() {
+        return legalNotice;
+    }
+
+    public void setLegalNotice(String legalNotice) {
+        this.legalNotice = legalNotice;
+    }
+
+    /**
+     * @return descriptions of all genres
+     */
+    public List<String> getGenres() {
+        return genres;
+    }
+
+    /**
+     * @return ids of all categories, such as single-player or achievements
+     */
+    public List<Integer> getCategories() {
+        return categories;
+    }
+
+    /**
+     * @return urls of the thumbnails of all screenshots
+     */
+    public List<String> getScreenshots() {
+        return screenshots;
+    }
+}
@@ -0,0 +1,23 @@
+package net.mabako.steam.store.data;
+
+import net.mabako.steamgifts.data.Game;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Details of a single package on the Steam Store, as returned by the <code>packagedetails</code> API.
+ */
+public class PackageDetails implements Serializable {
+    private static final long serialVersionUID = -2261930541883172019L;
+
+    private final List<Game> apps = new ArrayList<>();
+
+    /**
+     * @return all apps included in this package
+     */
+    public List<Game> getApps() {
+        return apps;
+    }
+}
@@ -13,6 +13,8 @@ import android.widget.TextView;
 
 import com.squareup.picasso.Picasso;
 
+import net.mabako.steamgifts.tasks.TaskExecutor;
+
 public class StoreImageGetter implements Html.ImageGetter {
     final Resources resources;
     final Picasso picasso;
@@ -58,7 +60,7 @@ public class StoreImageGetter implements Html.ImageGetter {
                 }
             }
 
-        }.execute((Void) null);
+        }.executeOnExecutor(TaskExecutor.getExecutor(TaskExecutor.Priority.FOREGROUND), (Void) null);
 
         return result;
     }
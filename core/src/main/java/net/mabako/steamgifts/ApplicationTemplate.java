@@ -3,10 +3,13 @@ package net.mabako.steamgifts;
 import android.app.Application;
 import android.support.v7.app.AppCompatActivity;
 
+import net.mabako.steamgifts.network.ImageLoader;
+
 public abstract class ApplicationTemplate extends Application {
     @Override
     public void onCreate() {
         super.onCreate();
+        ImageLoader.install(this);
         PeriodicTasks.scheduleAllTasks(getBaseContext());
     }
 
@@ -17,6 +17,7 @@ import net.mabako.steamgifts.intro.IntroActivity;
 import net.mabako.steamgifts.persistentdata.IPointUpdateNotification;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.tasks.LogoutTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.io.Serializable;
 
@@ -114,7 +115,7 @@ public class MainActivity extends CommonActivity implements IPointUpdateNotifica
 
             case REQUEST_SETTINGS:
                 if (resultCode == RESPONSE_LOGOUT) {
-                    new LogoutTask(MainActivity.this, SteamGiftsUserData.getCurrent(this).getSessionId()).execute();
+                    TaskExecutor.execute(new LogoutTask(MainActivity.this, SteamGiftsUserData.getCurrent(this).getSessionId()), TaskExecutor.Priority.USER_ACTION);
 
                     SteamGiftsUserData.clear();
                     onAccountChange();
@@ -25,6 +25,7 @@ import net.mabako.steamgifts.tasks.AjaxTask;
 import net.mabako.steamgifts.tasks.EditCommentTask;
 import net.mabako.steamgifts.tasks.EnterLeaveGiveawayTask;
 import net.mabako.steamgifts.tasks.PostCommentTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 public class WriteCommentActivity extends BaseActivity implements DialogInterface.OnDismissListener {
     private static final String TAG = WriteCommentActivity.class.getSimpleName();
@@ -151,7 +152,7 @@ public class WriteCommentActivity extends BaseActivity implements DialogInterfac
                     hideProgressDialog();
                 }
             };
-            task.execute();
+            TaskExecutor.execute(task, TaskExecutor.Priority.USER_ACTION);
         } else {
             task = new EditCommentTask(this, getIntent().getStringExtra(XSRF_TOKEN), text, comment) {
                 @Override
@@ -160,7 +161,7 @@ public class WriteCommentActivity extends BaseActivity implements DialogInterfac
                     hideProgressDialog();
                 }
             };
-            task.execute();
+            TaskExecutor.execute(task, TaskExecutor.Priority.USER_ACTION);
         }
     }
 
@@ -195,7 +196,7 @@ public class WriteCommentActivity extends BaseActivity implements DialogInterfac
                 }
             }
         }, this, giveawayId, getIntent().getStringExtra(XSRF_TOKEN), GiveawayDetailFragment.ENTRY_INSERT);
-        task.execute();
+        TaskExecutor.execute(task, TaskExecutor.Priority.USER_ACTION);
     }
 
     private void showProgressDialog(@StringRes int res) {
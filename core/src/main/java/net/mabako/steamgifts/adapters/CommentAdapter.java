@@ -104,6 +104,11 @@ public class CommentAdapter extends EndlessAdapter {
         }
     }
 
+    @Override
+    protected boolean hasStableItemIds() {
+        return true;
+    }
+
     @Override
     protected boolean hasEnoughItems(List<IEndlessAdaptable> items) {
         if (items.size() < ITEMS_PER_PAGE)
@@ -16,7 +16,7 @@ public class DiscussionAdapter extends EndlessAdapter {
     /**
      * Discussions that are shown per page.
      */
-    private static final int ITEMS_PER_PAGE = 100;
+    public static final int ITEMS_PER_PAGE = 100;
 
     /**
      * Context of this adapter.
@@ -46,6 +46,11 @@ public class DiscussionAdapter extends EndlessAdapter {
         }
     }
 
+    @Override
+    protected boolean hasStableItemIds() {
+        return true;
+    }
+
     @Override
     protected boolean hasEnoughItems(List<IEndlessAdaptable> items) {
         return items.size() == ITEMS_PER_PAGE;
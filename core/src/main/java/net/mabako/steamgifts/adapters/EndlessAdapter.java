@@ -1,6 +1,9 @@
 package net.mabako.steamgifts.adapters;
 
+import android.os.AsyncTask;
 import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.util.ListUpdateCallback;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.util.Log;
@@ -9,7 +12,10 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import net.mabako.steamgifts.core.R;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -41,6 +47,21 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
      */
     private static final int END_VIEW = -2;
 
+    /**
+     * Id of the progress bar and "This is the end." items.
+     */
+    private static final long PLACEHOLDER_ID = Long.MIN_VALUE;
+
+    /**
+     * Items without an id of their own, such as cards, are identified by their position, counting up from here.
+     */
+    private static final long POSITION_ID_BASE = Long.MIN_VALUE + 1;
+
+    /**
+     * Payload for items that were replaced by an equal item, so their view holder is bound again in place.
+     */
+    private static final Object PAYLOAD_REPLACED = "replaced";
+
     private static final long serialVersionUID = 95216226584860610L;
 
     /**
@@ -90,8 +111,30 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
 
     private RecyclerView.OnScrollListener scrollListener = new ScrollListener();
 
+    /**
+     * Items as currently shown, while the differences to {@link #items} are being calculated; null otherwise.
+     */
+    private transient List<IEndlessAdaptable> shownItems;
+
+    /**
+     * Task calculating the differences between {@link #shownItems} and {@link #items}.
+     */
+    private transient DiffTask diffTask;
+
+    /**
+     * Are the items currently being replaced, see {@link #replaceItems(List)}?
+     */
+    private transient boolean replacing = false;
+
     public EndlessAdapter() {
+        setHasStableIds(hasStableItemIds());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
 
+        // RecyclerView.Adapter itself isn't serializable, so this isn't restored along with the adapter.
+        setHasStableIds(hasStableItemIds());
     }
 
     /**
@@ -101,11 +144,13 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
         if (reachedTheEnd)
             return;
 
+        showAllItems();
         loading = true;
 
         // Insert bogus item for the progress bar.
         items.add(null);
-        notifyItemInserted(getItemCount() - 1);
+        if (shownItems == null)
+            notifyItemInserted(getItemCount() - 1);
 
         if (loadListener != null) {
             Log.d(TAG, "Starting to load more content on page " + page);
@@ -118,12 +163,15 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
     public void finishLoading(List<IEndlessAdaptable> addedItems) {
         boolean loadNextPage;
 
+        showAllItems();
+
         Log.v(TAG, "Finished loading - " + loading);
         if (loading) {
             // remove loading item for the progress bar
             if (items.size() > 0) {
                 items.remove(items.size() - 1);
-                notifyItemRemoved(getItemCount());
+                if (shownItems == null)
+                    notifyItemRemoved(getItemCount());
             }
 
             loading = false;
@@ -154,6 +202,24 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
         loading = false;
     }
 
+    /**
+     * Are we currently waiting for a page to be loaded?
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * The page to be loaded next, once the user scrolls far enough.
+     */
+    public int getNextPage() {
+        return page;
+    }
+
+    public boolean hasReachedTheEnd() {
+        return reachedTheEnd;
+    }
+
     public void reachedTheEnd() {
         reachedTheEnd(true);
     }
@@ -166,6 +232,7 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
             return;
 
         Log.d(TAG, "Reached the end");
+        showAllItems();
 
         // Make sure we're not loading anymore...
         if (loading)
@@ -175,11 +242,14 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
 
         if (addEndItem) {
             items.add(null);
-            notifyItemInserted(getItemCount() - 1);
+            if (shownItems == null)
+                notifyItemInserted(getItemCount() - 1);
         }
     }
 
     protected List<IEndlessAdaptable> getItems() {
+        // Whoever changes these items notifies of the changes based on these positions, so show them right away.
+        showAllItems();
         return items;
     }
 
@@ -189,7 +259,23 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
      * @return number of items currently shown
      */
     public int getItemCount() {
-        return items.size() + stickyItems.size();
+        return getShownItems().size() + stickyItems.size();
+    }
+
+    private List<IEndlessAdaptable> getShownItems() {
+        return shownItems != null ? shownItems : items;
+    }
+
+    /**
+     * How many items have been loaded, excluding sticky items and placeholders for the progress bar or end of the list.
+     */
+    public int getLoadedItemCount() {
+        int count = 0;
+        for (IEndlessAdaptable item : items) {
+            if (item != null)
+                ++count;
+        }
+        return count;
     }
 
     /**
@@ -210,7 +296,8 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
             // And how many items did we add after filtering?
             int insertedItems = addFiltered(items);
 
-            notifyItemRangeInserted(getItemCount() - insertedItems, insertedItems);
+            if (shownItems == null)
+                notifyItemRangeInserted(getItemCount() - insertedItems, insertedItems);
 
             if (enoughItems && realItemCount == 0 && alternativeEnd) {
                 enoughItems = false;
@@ -251,10 +338,56 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
     }
 
     public void clear() {
+        showAllItems();
+
         items.clear();
         reachedTheEnd = false;
         page = viewInReverse ? LAST_PAGE : FIRST_PAGE;
 
+        if (shownItems == null)
+            notifyDataSetChanged();
+    }
+
+    /**
+     * Replaces all items with the items of the first page, just like {@link #clear()} followed by
+     * {@link #finishLoading(List)} would.
+     * <p>Instead of binding every item again, the differences between the old and new items are calculated in the
+     * background, and only items that were actually added or removed are animated as such. Until then, the old items
+     * remain visible. Items with the same id are bound again in place.</p>
+     *
+     * @param newItems items of the first page
+     */
+    public void replaceItems(List<IEndlessAdaptable> newItems) {
+        showAllItems();
+
+        List<IEndlessAdaptable> oldItems = new ArrayList<>(items);
+        shownItems = oldItems;
+
+        replacing = true;
+        try {
+            clear();
+            finishLoading(newItems);
+        } finally {
+            replacing = false;
+        }
+
+        diffTask = new DiffTask(oldItems, new ArrayList<>(items));
+        TaskExecutor.execute(diffTask, TaskExecutor.Priority.FOREGROUND);
+    }
+
+    /**
+     * Shows all current items right away, without waiting for the differences to the previously shown items.
+     */
+    private void showAllItems() {
+        if (shownItems == null || replacing)
+            return;
+
+        if (diffTask != null) {
+            diffTask.cancel(false);
+            diffTask = null;
+        }
+
+        shownItems = null;
         notifyDataSetChanged();
     }
 
@@ -265,7 +398,47 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
         if (position < stickyItems.size())
             return stickyItems.get(position);
 
-        return items.get(position - stickyItems.size());
+        return getShownItems().get(position - stickyItems.size());
+    }
+
+    /**
+     * Items implementing {@link IStableIdAdaptable} are identified by their id, the progress bar and end of the list
+     * share one id, and all other items are identified by their position.
+     */
+    @Override
+    public long getItemId(int position) {
+        IEndlessAdaptable item = getItem(position);
+        if (item == null)
+            return PLACEHOLDER_ID;
+
+        if (item instanceof IStableIdAdaptable) {
+            long id = ((IStableIdAdaptable) item).getStableId();
+            if (id != IStableIdAdaptable.NO_ID)
+                return id;
+        }
+
+        return POSITION_ID_BASE + position;
+    }
+
+    /**
+     * Whether the items of this adapter are (mostly) identified by {@link IStableIdAdaptable#getStableId()}.
+     * <p>If so, view holders stay with their item when other items are added or removed around them.</p>
+     */
+    protected boolean hasStableItemIds() {
+        return false;
+    }
+
+    /**
+     * Creates an id for an item identified by a string, such as a giveaway.
+     */
+    public static long getStableId(@NonNull String id) {
+        // 64-bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); ++i) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
     }
 
     public List<IEndlessAdaptable> getStickyItems() {
@@ -343,6 +516,23 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
         }
     }
 
+    /**
+     * Proxy binding a viewholder to the item, with payloads describing what changed since it was last bound.
+     *
+     * @param holder   view holder instance
+     * @param position position of the item
+     * @param payloads what changed, or an empty list if everything needs to be bound again
+     */
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position, List<Object> payloads) {
+        if (holder != null && !(holder instanceof EmptyViewHolder)) {
+            if (payloads.isEmpty())
+                onBindActualViewHolder(holder, position);
+            else
+                onBindActualViewHolder(holder, position, payloads);
+        }
+    }
+
     /**
      * Create a view holder for item.
      *
@@ -360,6 +550,18 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
      */
     protected abstract void onBindActualViewHolder(RecyclerView.ViewHolder holder, int position);
 
+    /**
+     * Update a viewholder bound to a particular item, with only what has changed.
+     * <p>By default, everything is bound again.</p>
+     *
+     * @param holder   view holder instance
+     * @param position position of the item
+     * @param payloads what changed, never empty
+     */
+    protected void onBindActualViewHolder(RecyclerView.ViewHolder holder, int position, List<Object> payloads) {
+        onBindActualViewHolder(holder, position);
+    }
+
     /**
      * Check whether or not we have enough items to load more (i.e. page is full)
      *
@@ -370,6 +572,8 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
 
 
     protected RemovedElement removeItem(int position) {
+        showAllItems();
+
         IEndlessAdaptable current = items.get(position);
         IEndlessAdaptable before = position > 0 ? items.get(position - 1) : null;
 
@@ -387,6 +591,8 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
      * @see #restore(Iterable)
      */
     public void restore(@NonNull RemovedElement element) {
+        showAllItems();
+
         int position = 0;
         if (element.getElementBefore() != null) {
             position = items.indexOf(element.getElementBefore());
@@ -485,6 +691,8 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
         if (item == null)
             return false;
 
+        showAllItems();
+
         int index = items.indexOf(item);
         if (index >= 0) {
             notifyItemChanged(index + stickyItems.size());
@@ -540,6 +748,101 @@ public abstract class EndlessAdapter extends RecyclerView.Adapter<RecyclerView.V
         }
     }
 
+    /**
+     * Calculates the differences between the shown and current items, and shows the current items once done.
+     */
+    private class DiffTask extends AsyncTask<Void, Void, DiffUtil.DiffResult> {
+        private final List<IEndlessAdaptable> oldItems;
+        private final List<IEndlessAdaptable> newItems;
+
+        private DiffTask(List<IEndlessAdaptable> oldItems, List<IEndlessAdaptable> newItems) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+        }
+
+        @Override
+        protected DiffUtil.DiffResult doInBackground(Void... params) {
+            return DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                @Override
+                public int getOldListSize() {
+                    return oldItems.size();
+                }
+
+                @Override
+                public int getNewListSize() {
+                    return newItems.size();
+                }
+
+                @Override
+                public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                    IEndlessAdaptable oldItem = oldItems.get(oldItemPosition);
+                    IEndlessAdaptable newItem = newItems.get(newItemPosition);
+                    if (oldItem == null || newItem == null)
+                        return oldItem == newItem;
+
+                    if (oldItem instanceof IStableIdAdaptable && newItem instanceof IStableIdAdaptable && oldItem.getClass() == newItem.getClass()) {
+                        long id = ((IStableIdAdaptable) oldItem).getStableId();
+                        if (id != IStableIdAdaptable.NO_ID)
+                            return id == ((IStableIdAdaptable) newItem).getStableId();
+                    }
+
+                    return oldItem.equals(newItem);
+                }
+
+                @Override
+                public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                    IEndlessAdaptable oldItem = oldItems.get(oldItemPosition);
+                    IEndlessAdaptable newItem = newItems.get(newItemPosition);
+                    if (oldItem == newItem)
+                        return true;
+
+                    // Anything else can't be compared, so it's shown again.
+                    return oldItem instanceof IStableIdAdaptable && newItem instanceof IStableIdAdaptable && oldItem.getClass() == newItem.getClass()
+                            && ((IStableIdAdaptable) oldItem).contentEquals((IStableIdAdaptable) newItem);
+                }
+
+                @Override
+                public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+                    // Only called for items whose content actually changed.
+                    return PAYLOAD_REPLACED;
+                }
+            }, false);
+        }
+
+        @Override
+        protected void onPostExecute(DiffUtil.DiffResult result) {
+            if (diffTask != this)
+                return;
+
+            diffTask = null;
+            shownItems = null;
+
+            // Sticky items aren't part of the items compared.
+            final int offset = stickyItems.size();
+            result.dispatchUpdatesTo(new ListUpdateCallback() {
+                @Override
+                public void onInserted(int position, int count) {
+                    notifyItemRangeInserted(position + offset, count);
+                }
+
+                @Override
+                public void onRemoved(int position, int count) {
+                    notifyItemRangeRemoved(position + offset, count);
+                }
+
+                @Override
+                public void onMoved(int fromPosition, int toPosition) {
+                    notifyItemMoved(fromPosition + offset, toPosition + offset);
+                }
+
+                @Override
+                public void onChanged(int position, int count, Object payload) {
+                    notifyItemRangeChanged(position + offset, count, payload);
+                }
+            });
+        }
+    }
+
     public static class RemovedElement implements Serializable {
         private static final long serialVersionUID = -4246240052789998135L;
 
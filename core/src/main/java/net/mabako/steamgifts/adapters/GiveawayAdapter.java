@@ -22,6 +22,11 @@ import java.util.ListIterator;
 public class GiveawayAdapter extends EndlessAdapter {
     private static final long serialVersionUID = 4291118458389025091L;
 
+    /**
+     * Payload for giveaways whose enter button may have changed, since the user's points changed.
+     */
+    public static final Object PAYLOAD_POINTS_CHANGED = "points-changed";
+
     /**
      * Giveaways that are shown per page.
      */
@@ -84,6 +89,38 @@ public class GiveawayAdapter extends EndlessAdapter {
         }
     }
 
+    @Override
+    protected void onBindActualViewHolder(RecyclerView.ViewHolder h, int position, List<Object> payloads) {
+        if (h instanceof GiveawayListItemViewHolder && isOnlyPointsChanged(payloads)) {
+            Giveaway giveaway = (Giveaway) getItem(position);
+            if (giveaway != null) {
+                ((GiveawayListItemViewHolder) h).updateEnterButton(giveaway);
+                return;
+            }
+        }
+
+        super.onBindActualViewHolder(h, position, payloads);
+    }
+
+    private static boolean isOnlyPointsChanged(List<Object> payloads) {
+        for (Object payload : payloads)
+            if (payload != PAYLOAD_POINTS_CHANGED)
+                return false;
+        return true;
+    }
+
+    @Override
+    protected boolean hasStableItemIds() {
+        return true;
+    }
+
+    /**
+     * Updates the enter buttons of all giveaways, without binding anything else again.
+     */
+    public void notifyPointsChanged() {
+        notifyItemRangeChanged(getStickyItems().size(), getItems().size(), PAYLOAD_POINTS_CHANGED);
+    }
+
     @Override
     protected boolean hasEnoughItems(List<IEndlessAdaptable> items) {
         return items.size() >= itemsPerPage;
@@ -0,0 +1,24 @@
+package net.mabako.steamgifts.adapters;
+
+/**
+ * Entry in an endless adapter that can be told apart from other entries by an id, even if its content changes.
+ */
+public interface IStableIdAdaptable extends IEndlessAdaptable {
+    /**
+     * Returned by entries that don't know their id (yet).
+     */
+    long NO_ID = -1;
+
+    /**
+     * @return an id unique among all entries of the same type, or {@link #NO_ID}
+     */
+    long getStableId();
+
+    /**
+     * Compares everything shown of two entries with the same {@link #getStableId() id}.
+     *
+     * @param other an entry of the same type
+     * @return whether the other entry would be shown just the same as this one
+     */
+    boolean contentEquals(IStableIdAdaptable other);
+}
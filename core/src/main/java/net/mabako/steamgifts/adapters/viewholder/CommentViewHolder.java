@@ -12,20 +12,17 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
-
 import net.mabako.steamgifts.activities.CommonActivity;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.data.TradeComment;
 import net.mabako.steamgifts.fragments.DetailFragment;
 import net.mabako.steamgifts.fragments.interfaces.ICommentableFragment;
+import net.mabako.steamgifts.network.ImageLoader;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 
 import java.util.Locale;
 
-import jp.wasabeef.picasso.transformations.RoundedCornersTransformation;
-
 public class CommentViewHolder extends RecyclerView.ViewHolder implements View.OnCreateContextMenuListener {
     private static final int MAX_VISIBLE_DEPTH = 11;
 
@@ -84,14 +81,14 @@ public class CommentViewHolder extends RecyclerView.ViewHolder implements View.O
         commentTime.setText(comment.getRelativeCreatedTime(context));
         commentTime.setTextAppearance(context, comment.isHighlighted() ? R.style.SmallText : R.style.SmallText_Light);
 
-        commentContent.setText(StringUtils.fromHtml(context, comment.getContent(), !comment.isDeleted(), null));
+        commentContent.setText(RenderedHtmlCache.fromHtml(context, comment));
 
         // Space before the marker
         ViewGroup.LayoutParams params = commentIndent.getLayoutParams();
         params.width = commentMarker.getLayoutParams().width * Math.min(MAX_VISIBLE_DEPTH, comment.getDepth());
         commentIndent.setLayoutParams(params);
 
-        Picasso.with(context).load(comment.getAvatar()).placeholder(R.drawable.default_avatar_mask).transform(new RoundedCornersTransformation(20, 0)).into(commentImage);
+        ImageLoader.loadListAvatar(context, comment.getAvatar()).into(commentImage);
         View.OnClickListener viewProfileListener = comment.isDeleted() ? null : new View.OnClickListener() {
             @Override
             public void onClick(View v) {
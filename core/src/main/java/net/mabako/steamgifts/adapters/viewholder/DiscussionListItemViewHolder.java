@@ -7,16 +7,13 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
-
 import net.mabako.steamgifts.activities.CommonActivity;
 import net.mabako.steamgifts.activities.DetailActivity;
 import net.mabako.steamgifts.adapters.EndlessAdapter;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.Discussion;
 import net.mabako.steamgifts.fragments.DiscussionDetailFragment;
-
-import jp.wasabeef.picasso.transformations.RoundedCornersTransformation;
+import net.mabako.steamgifts.network.ImageLoader;
 
 public class DiscussionListItemViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
     private final View itemContainer;
@@ -54,7 +51,7 @@ public class DiscussionListItemViewHolder extends RecyclerView.ViewHolder implem
 
         StringUtils.setBackgroundDrawable(activity, itemContainer, discussion.isLocked());
 
-        Picasso.with(activity).load(discussion.getCreatorAvatar()).placeholder(R.drawable.default_avatar_mask).transform(new RoundedCornersTransformation(20, 0)).into(discussionAuthorAvatar);
+        ImageLoader.loadListAvatar(activity, discussion.getCreatorAvatar()).into(discussionAuthorAvatar);
     }
 
     @Override
@@ -9,14 +9,12 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.squareup.picasso.Callback;
-import com.squareup.picasso.Picasso;
 
 import net.mabako.steam.store.StoreSubFragment;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.Game;
 import net.mabako.steamgifts.fragments.HiddenGamesFragment;
-
-import java.util.Locale;
+import net.mabako.steamgifts.network.ImageLoader;
 
 public class GameViewHolder extends RecyclerView.ViewHolder {
     private final TextView gameName;
@@ -60,7 +58,7 @@ public class GameViewHolder extends RecyclerView.ViewHolder {
 
         // giveaway_image
         if (game.getGameId() != Game.NO_APP_ID) {
-            Picasso.with(fragment.getContext()).load("http://cdn.akamai.steamstatic.com/steam/" + game.getType().name().toLowerCase(Locale.ENGLISH) + "s/" + game.getGameId() + "/capsule_184x69.jpg").into(image, new Callback() {
+            ImageLoader.loadCapsule(fragment.getContext(), game.getType(), game.getGameId()).into(image, new Callback() {
                 /**
                  * We manually set the height of this image to fit the container.
                  */
@@ -133,7 +133,7 @@ public class GiveawayCardViewHolder extends RecyclerView.ViewHolder {
                 progressBar.setVisibility(View.GONE);
 
                 if (extras.getDescription() != null) {
-                    description.setText(StringUtils.fromHtml(fragment.getActivity(), extras.getDescription()));
+                    description.setText(RenderedHtmlCache.fromHtml(fragment.getActivity(), extras.getDescription()));
                     description.setVisibility(View.VISIBLE);
                     actionSeparator.setVisibility(View.VISIBLE);
                 }
@@ -6,12 +6,9 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
-
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.GiveawayGroup;
-
-import jp.wasabeef.picasso.transformations.RoundedCornersTransformation;
+import net.mabako.steamgifts.network.ImageLoader;
 
 public class GiveawayGroupViewHolder extends RecyclerView.ViewHolder {
     private final TextView groupName;
@@ -30,7 +27,7 @@ public class GiveawayGroupViewHolder extends RecyclerView.ViewHolder {
 
     public void setFrom(GiveawayGroup group) {
         groupName.setText(group.getTitle());
-        Picasso.with(context).load(group.getAvatar()).placeholder(R.drawable.default_avatar_mask).transform(new RoundedCornersTransformation(20, 0)).into(groupAvatar);
+        ImageLoader.loadListAvatar(context, group.getAvatar()).into(groupAvatar);
 
     }
 }
@@ -17,7 +17,6 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.squareup.picasso.Callback;
-import com.squareup.picasso.Picasso;
 
 import net.mabako.steamgifts.ApplicationTemplate;
 import net.mabako.steamgifts.activities.DetailActivity;
@@ -31,11 +30,10 @@ import net.mabako.steamgifts.fragments.GiveawayDetailFragment;
 import net.mabako.steamgifts.fragments.GiveawayListFragment;
 import net.mabako.steamgifts.fragments.SavedGiveawaysFragment;
 import net.mabako.steamgifts.fragments.interfaces.IHasEnterableGiveaways;
+import net.mabako.steamgifts.network.ImageLoader;
 import net.mabako.steamgifts.persistentdata.SavedGiveaways;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 
-import java.util.Locale;
-
 public class GiveawayListItemViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener, View.OnCreateContextMenuListener, MenuItem.OnMenuItemClickListener {
     private static final String TAG = GiveawayListItemViewHolder.class.getSimpleName();
 
@@ -106,7 +104,7 @@ public class GiveawayListItemViewHolder extends RecyclerView.ViewHolder implemen
 
         // giveaway_image
         if (giveaway.getGameId() != Game.NO_APP_ID && showImage && ((ApplicationTemplate) activity.getApplication()).allowGameImages()) {
-            Picasso.with(activity).load("http://cdn.akamai.steamstatic.com/steam/" + giveaway.getType().name().toLowerCase(Locale.ENGLISH) + "s/" + giveaway.getGameId() + "/capsule_184x69.jpg").into(giveawayImage, new Callback() {
+            ImageLoader.loadCapsule(activity, giveaway.getType(), giveaway.getGameId()).into(giveawayImage, new Callback() {
                 /**
                  * We manually set the height of this image to fit the container.
                  */
@@ -141,6 +139,13 @@ public class GiveawayListItemViewHolder extends RecyclerView.ViewHolder implemen
         indicatorPrivate.setVisibility(giveaway.isPrivate() ? View.VISIBLE : View.GONE);
         indicatorRegionRestricted.setVisibility(giveaway.isRegionRestricted() ? View.VISIBLE : View.GONE);
 
+        updateEnterButton(giveaway);
+    }
+
+    /**
+     * Updates only the enter button, e.g. after the user's points changed.
+     */
+    public void updateEnterButton(Giveaway giveaway) {
         // Initialize the enter button
         // Check if logged or the quick enter button setting is enabled
         boolean loggedIn = SteamGiftsUserData.getCurrent(null).isLoggedIn();
@@ -0,0 +1,97 @@
+package net.mabako.steamgifts.adapters.viewholder;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import net.mabako.steamgifts.data.Comment;
+
+import java.util.List;
+
+/**
+ * Keeps comments and descriptions around as they're displayed, so they don't have to be converted from HTML every time
+ * they are scrolled back into view.
+ * <p>Tasks loading comments render them right after parsing them, while still in the background; view holders only
+ * fall back to rendering on the main thread for anything that was evicted since.</p>
+ * <p>Entries are keyed by the comment's id and a hash of its content, so edited comments are rendered again. Everything
+ * is rendered with the application context, and links find their activity through the view they were clicked in, so
+ * cached text never holds on to an activity.</p>
+ */
+public final class RenderedHtmlCache {
+    /**
+     * Id used for anything that isn't a comment, such as giveaway and discussion descriptions.
+     */
+    private static final long NO_ID = 0;
+
+    /**
+     * How many characters of rendered text are kept at most.
+     */
+    private static final int MAX_SIZE = 512 * 1024;
+
+    private static final LruCache<String, CharSequence> cache = new LruCache<String, CharSequence>(MAX_SIZE) {
+        @Override
+        protected int sizeOf(String key, CharSequence value) {
+            return Math.max(1, value.length());
+        }
+    };
+
+    private RenderedHtmlCache() {
+    }
+
+    /**
+     * Returns the comment's content as it is displayed, rendering it if it isn't cached.
+     */
+    public static CharSequence fromHtml(Context context, Comment comment) {
+        return fromHtml(context, comment.getId(), comment.getContent(), !comment.isDeleted());
+    }
+
+    /**
+     * Returns a description as it is displayed, rendering it if it isn't cached.
+     */
+    public static CharSequence fromHtml(Context context, String description) {
+        return fromHtml(context, NO_ID, description, true);
+    }
+
+    /**
+     * Renders all comments that aren't cached yet. This is meant to be called in the background, after loading
+     * comments.
+     *
+     * @param context context to render with, nothing is rendered if this is null
+     */
+    public static void render(@Nullable Context context, List<Comment> comments) {
+        if (context == null || comments == null)
+            return;
+
+        for (Comment comment : comments)
+            fromHtml(context, comment);
+    }
+
+    /**
+     * Renders a description, unless it's cached already. This is meant to be called in the background.
+     *
+     * @param context context to render with, nothing is rendered if this is null
+     */
+    public static void render(@Nullable Context context, String description) {
+        if (context != null)
+            fromHtml(context, description);
+    }
+
+    private static CharSequence fromHtml(Context context, long id, String html, boolean useCustomViewHandler) {
+        if (TextUtils.isEmpty(html))
+            return html;
+
+        String key = getKey(id, html, useCustomViewHandler);
+        CharSequence rendered = cache.get(key);
+        if (rendered == null) {
+            rendered = StringUtils.fromHtml(context.getApplicationContext(), html, useCustomViewHandler, null);
+            if (rendered != null)
+                cache.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    private static String getKey(long id, String html, boolean useCustomViewHandler) {
+        return id + "/" + html.length() + "/" + Integer.toHexString(html.hashCode()) + (useCustomViewHandler ? "" : "/plain");
+    }
+}
@@ -2,6 +2,7 @@ package net.mabako.steamgifts.adapters.viewholder;
 
 import android.app.Activity;
 import android.content.Context;
+import android.content.ContextWrapper;
 import android.content.res.TypedArray;
 import android.net.Uri;
 import android.os.Build;
@@ -51,7 +52,7 @@ public final class StringUtils {
             try {
                 CharSequence cs = fromHtml(source, imageGetter, new CustomHtmlTagHandler(context));
                 cs = trim(cs, 0, cs.length());
-                return addProperLinks(context, cs);
+                return addProperLinks(cs);
             } catch (Exception e) {
                 Log.e(StringUtils.class.getSimpleName(), "Failed to parse HTML with custom parser", e);
             }
@@ -59,7 +60,7 @@ public final class StringUtils {
 
         CharSequence cs = fromHtml(source, imageGetter, null);
         cs = trim(cs, 0, cs.length());
-        return addProperLinks(context, cs);
+        return addProperLinks(cs);
     }
 
     /**
@@ -88,12 +89,13 @@ public final class StringUtils {
 
     /**
      * Convert all {@link URLSpan} (which uses the default browser) to use our custom {@link ClickableSpan} instead.
+     * <p>Links open with the context of the view they're clicked in, so the text may be rendered once and be displayed
+     * in any activity.</p>
      *
-     * @param context
      * @param charSequence
      * @return
      */
-    private static CharSequence addProperLinks(@NonNull final Context context, CharSequence charSequence) {
+    private static CharSequence addProperLinks(CharSequence charSequence) {
         if (TextUtils.isEmpty(charSequence))
             return charSequence;
 
@@ -121,14 +123,15 @@ public final class StringUtils {
                     @Override
                     public void onClick(View widget) {
                         // Do we have anything in the app we can open with that url?
-                        UrlHandlingActivity.getIntentForUri(context, clickableUri, true).start((Activity) context);
+                        Activity activity = getActivity(widget.getContext());
+                        UrlHandlingActivity.getIntentForUri(activity, clickableUri, true).start(activity);
                     }
                 }, start, end, flags);
             } else {
                 stringBuilder.setSpan(new ClickableSpan() {
                     @Override
                     public void onClick(View widget) {
-                        Toast.makeText(context, "Unable to open link " + url + ".", Toast.LENGTH_LONG).show();
+                        Toast.makeText(widget.getContext(), "Unable to open link " + url + ".", Toast.LENGTH_LONG).show();
                     }
                 }, start, end, flags);
             }
@@ -138,6 +141,15 @@ public final class StringUtils {
         return stringBuilder;
     }
 
+    /**
+     * Finds the activity a view is shown in, given the view's context.
+     */
+    private static Activity getActivity(Context context) {
+        while (!(context instanceof Activity) && context instanceof ContextWrapper)
+            context = ((ContextWrapper) context).getBaseContext();
+        return (Activity) context;
+    }
+
     public static void setBackgroundDrawable(Context context, View view, boolean highlighted) {
         setBackgroundDrawable(context, view, highlighted, R.attr.colorHighlightBackground);
     }
@@ -8,8 +8,6 @@ import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
-
 import net.mabako.steamgifts.activities.DetailActivity;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.BasicUser;
@@ -17,8 +15,7 @@ import net.mabako.steamgifts.data.Winner;
 import net.mabako.steamgifts.fragments.ListFragment;
 import net.mabako.steamgifts.fragments.UserDetailFragment;
 import net.mabako.steamgifts.fragments.WhitelistBlacklistFragment;
-
-import jp.wasabeef.picasso.transformations.RoundedCornersTransformation;
+import net.mabako.steamgifts.network.ImageLoader;
 
 public class UserViewHolder extends RecyclerView.ViewHolder {
     private final ListFragment<?> fragment;
@@ -47,7 +44,7 @@ public class UserViewHolder extends RecyclerView.ViewHolder {
     public void setFrom(final BasicUser user) {
         userName.setText(user.getName());
         if (!TextUtils.isEmpty(user.getAvatar())) {
-            Picasso.with(fragment.getContext()).load(user.getAvatar()).placeholder(R.drawable.default_avatar_mask).transform(new RoundedCornersTransformation(20, 0)).into(userAvatar);
+            ImageLoader.loadListAvatar(fragment.getContext(), user.getAvatar()).into(userAvatar);
 
             userHolder.setOnClickListener(new View.OnClickListener() {
                 @Override
@@ -1,9 +1,11 @@
 package net.mabako.steamgifts.data;
 
 import android.content.Context;
+import android.text.TextUtils;
 
 import net.mabako.Constants;
-import net.mabako.steamgifts.adapters.IEndlessAdaptable;
+import net.mabako.steamgifts.adapters.EndlessAdapter;
+import net.mabako.steamgifts.adapters.IStableIdAdaptable;
 import net.mabako.steamgifts.core.R;
 
 import java.io.Serializable;
@@ -14,7 +16,7 @@ import java.util.List;
 /**
  * Comment on a giveaway or discussion.
  */
-public class Comment implements Serializable, IEndlessAdaptable, IImageHolder {
+public class Comment implements Serializable, IStableIdAdaptable, IImageHolder {
     private static final long serialVersionUID = -7333245576601696951L;
     public static final int VIEW_LAYOUT = R.layout.comment;
 
@@ -171,6 +173,24 @@ public class Comment implements Serializable, IEndlessAdaptable, IImageHolder {
         return VIEW_LAYOUT;
     }
 
+    @Override
+    public long getStableId() {
+        if (id != 0)
+            return id;
+
+        // Trade feedback doesn't have an id of its own.
+        return permalinkId != null ? EndlessAdapter.getStableId(permalinkId) : NO_ID;
+    }
+
+    @Override
+    public boolean contentEquals(IStableIdAdaptable other) {
+        Comment c = (Comment) other;
+        return TextUtils.equals(author, c.author) && TextUtils.equals(avatar, c.avatar) && TextUtils.equals(content, c.content)
+                && TextUtils.equals(authorRole, c.authorRole) && depth == c.depth && op == c.op
+                && deleted == c.deleted && deletable == c.deletable && highlighted == c.highlighted
+                && CustomDateTime.isSame(createdTime, c.createdTime);
+    }
+
     public enum Type {
         COMMENT("comment"),
         TRADE_FEEDBACK("feedback");
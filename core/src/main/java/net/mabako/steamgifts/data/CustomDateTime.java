@@ -42,6 +42,16 @@ public class CustomDateTime implements Serializable {
         calendar.setTimeInMillis(1000L * timestamp);
     }
 
+    /**
+     * @return whether both point to the same time, either of which may be null
+     */
+    static boolean isSame(CustomDateTime one, CustomDateTime two) {
+        if (one == null || two == null)
+            return one == two;
+
+        return one.beginning == two.beginning && one.calendar.getTimeInMillis() == two.calendar.getTimeInMillis();
+    }
+
     public String toString(Context context) {
         final long realTimeDiff = (Calendar.getInstance().getTimeInMillis() - calendar.getTimeInMillis()) / 1000;
         long timeDiff = Math.abs(realTimeDiff);
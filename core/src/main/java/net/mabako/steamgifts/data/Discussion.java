@@ -1,13 +1,15 @@
 package net.mabako.steamgifts.data;
 
 import android.content.Context;
+import android.text.TextUtils;
 
-import net.mabako.steamgifts.adapters.IEndlessAdaptable;
+import net.mabako.steamgifts.adapters.EndlessAdapter;
+import net.mabako.steamgifts.adapters.IStableIdAdaptable;
 import net.mabako.steamgifts.core.R;
 
 import java.util.Calendar;
 
-public class Discussion extends BasicDiscussion implements IEndlessAdaptable {
+public class Discussion extends BasicDiscussion implements IStableIdAdaptable {
     public static final int VIEW_LAYOUT = R.layout.discussion_item;
 
     private String title;
@@ -86,4 +88,17 @@ public class Discussion extends BasicDiscussion implements IEndlessAdaptable {
     public int getLayout() {
         return VIEW_LAYOUT;
     }
+
+    @Override
+    public long getStableId() {
+        return getDiscussionId() != null ? EndlessAdapter.getStableId(getDiscussionId()) : NO_ID;
+    }
+
+    @Override
+    public boolean contentEquals(IStableIdAdaptable other) {
+        Discussion d = (Discussion) other;
+        return TextUtils.equals(title, d.title) && TextUtils.equals(name, d.name) && TextUtils.equals(creator, d.creator)
+                && TextUtils.equals(creatorAvatar, d.creatorAvatar) && locked == d.locked && poll == d.poll
+                && CustomDateTime.isSame(createdTime, d.createdTime);
+    }
 }
@@ -2,14 +2,16 @@ package net.mabako.steamgifts.data;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.text.TextUtils;
 
-import net.mabako.steamgifts.adapters.IEndlessAdaptable;
+import net.mabako.steamgifts.adapters.EndlessAdapter;
+import net.mabako.steamgifts.adapters.IStableIdAdaptable;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 
 import java.util.Calendar;
 
-public class Giveaway extends BasicGiveaway implements IEndlessAdaptable {
+public class Giveaway extends BasicGiveaway implements IStableIdAdaptable {
     private static final long serialVersionUID = 1356878822345232771L;
     public static final int VIEW_LAYOUT = R.layout.giveaway_item;
 
@@ -214,7 +216,22 @@ public class Giveaway extends BasicGiveaway implements IEndlessAdaptable {
     }
 
     public void setEndTime(int endTimestamp, @NonNull String relativeEndTime) {
-        this.endTime = new CustomDateTime(endTimestamp, relativeEndTime.startsWith("Begins in "));
+        setEndTime(endTimestamp, relativeEndTime.startsWith("Begins in "));
+    }
+
+    /**
+     * @param endTimestamp the unix timestamp
+     * @param beginning    true if the giveaway has not started yet, and the timestamp is when it begins
+     */
+    public void setEndTime(int endTimestamp, boolean beginning) {
+        this.endTime = new CustomDateTime(endTimestamp, beginning);
+    }
+
+    /**
+     * Has this giveaway not started yet? If so, {@link #getEndTime()} is when it begins.
+     */
+    public boolean isBeginning() {
+        return endTime != null && endTime.isBeginning();
     }
 
     public Calendar getCreatedTime() {
@@ -243,6 +260,21 @@ public class Giveaway extends BasicGiveaway implements IEndlessAdaptable {
         return VIEW_LAYOUT;
     }
 
+    @Override
+    public long getStableId() {
+        return getGiveawayId() != null ? EndlessAdapter.getStableId(getGiveawayId()) : NO_ID;
+    }
+
+    @Override
+    public boolean contentEquals(IStableIdAdaptable other) {
+        Giveaway g = (Giveaway) other;
+        return TextUtils.equals(title, g.title) && TextUtils.equals(name, g.name) && TextUtils.equals(creator, g.creator)
+                && (game == null ? g.game == null : game.equals(g.game))
+                && entries == g.entries && copies == g.copies && points == g.points && level == g.level
+                && entered == g.entered && whitelist == g.whitelist && group == g.group && isPrivate == g.isPrivate && regionRestricted == g.regionRestricted
+                && CustomDateTime.isSame(endTime, g.endTime) && CustomDateTime.isSame(createdTime, g.createdTime);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (getGiveawayId() == null && o instanceof Giveaway) {
@@ -19,6 +19,7 @@ import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.fragments.interfaces.ICommentableFragment;
 import net.mabako.steamgifts.tasks.DeleteCommentTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -265,7 +266,7 @@ public abstract class DetailFragment extends ListFragment<CommentAdapter> implem
 
     @Override
     public void deleteComment(Comment comment) {
-        new DeleteCommentTask(this, getContext(), adapter.getXsrfToken(), comment.isDeleted() ? DeleteCommentTask.DO_UNDELETE : DeleteCommentTask.DO_DELETE, comment).execute();
+        TaskExecutor.execute(new DeleteCommentTask(this, getContext(), adapter.getXsrfToken(), comment.isDeleted() ? DeleteCommentTask.DO_UNDELETE : DeleteCommentTask.DO_DELETE, comment), TaskExecutor.Priority.USER_ACTION);
     }
 
     public void onCommentDeleted(Comment comment) {
@@ -33,6 +33,7 @@ import net.mabako.steamgifts.fragments.util.DiscussionDetailsCard;
 import net.mabako.steamgifts.persistentdata.SavedDiscussions;
 import net.mabako.steamgifts.tasks.EnterLeavePollTask;
 import net.mabako.steamgifts.tasks.LoadDiscussionDetailsTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -132,16 +133,6 @@ public class DiscussionDetailFragment extends DetailFragment implements IHasPoll
         }
     }
 
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-
-        if (enterLeavePollTask != null) {
-            enterLeavePollTask.cancel(true);
-            enterLeavePollTask = null;
-        }
-    }
-
     @Override
     protected AsyncTask<Void, Void, ?> getFetchItemsTaskEx(int page) {
         String url = discussion.getDiscussionId();
@@ -310,7 +301,7 @@ public class DiscussionDetailFragment extends DetailFragment implements IHasPoll
 
         // If we're selecting the same answer, remove the vote. If it's a different answer, insert the vote.
         enterLeavePollTask = new EnterLeavePollTask(this, getContext(), adapter.getXsrfToken(), currentAnswerId == answer.getId() ? EnterLeavePollTask.REMOVE_ANSWER : EnterLeavePollTask.SELECT_ANSWER, answer.getId());
-        enterLeavePollTask.execute();
+        TaskExecutor.execute(this, enterLeavePollTask, TaskExecutor.Priority.USER_ACTION);
     }
 
     @Override
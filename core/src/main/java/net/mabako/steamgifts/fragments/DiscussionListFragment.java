@@ -1,11 +1,13 @@
 package net.mabako.steamgifts.fragments;
 
 import android.content.SharedPreferences;
+import android.database.sqlite.SQLiteException;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
 import android.support.annotation.NonNull;
 import android.support.v4.app.Fragment;
+import android.util.Log;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
@@ -17,14 +19,20 @@ import com.mikepenz.fontawesome_typeface_library.FontAwesome;
 import net.mabako.steamgifts.activities.CommonActivity;
 import net.mabako.steamgifts.adapters.DiscussionAdapter;
 import net.mabako.steamgifts.core.R;
+import net.mabako.steamgifts.data.Discussion;
 import net.mabako.steamgifts.fragments.interfaces.IActivityTitle;
+import net.mabako.steamgifts.persistentdata.DiscussionIndex;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.tasks.LoadDiscussionListTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
+
+import java.util.List;
 
 /**
  * List of all discussions.
  */
 public class DiscussionListFragment extends SearchableListFragment<DiscussionAdapter> implements IActivityTitle {
+    private static final String TAG = DiscussionListFragment.class.getSimpleName();
     private static final String SAVED_TYPE = "type";
 
     /**
@@ -75,6 +83,21 @@ public class DiscussionListFragment extends SearchableListFragment<DiscussionAda
         return new LoadDiscussionListTask(this, page, type, getSearchQuery());
     }
 
+    @Override
+    protected boolean isPrefetchSupported() {
+        return true;
+    }
+
+    @Override
+    protected void initializeListView() {
+        boolean searchIndex = adapter.isEmpty() && getSearchQuery() != null && type == Type.ALL;
+        super.initializeListView();
+
+        // Show all matching discussions we know about while SteamGifts is searching.
+        if (searchIndex)
+            TaskExecutor.execute(this, new SearchIndexedDiscussionsTask(this, getSearchQuery()), TaskExecutor.Priority.FOREGROUND);
+    }
+
     @Override
     public int getTitleResource() {
         return type.getTitleResource();
@@ -139,6 +162,42 @@ public class DiscussionListFragment extends SearchableListFragment<DiscussionAda
             return super.onOptionsItemSelected(item);
     }
 
+    /**
+     * Searches all discussions in the {@link DiscussionIndex}.
+     */
+    private static class SearchIndexedDiscussionsTask extends AsyncTask<Void, Void, List<Discussion>> {
+        private final DiscussionListFragment fragment;
+        private final DiscussionIndex index;
+        private final String searchQuery;
+
+        private SearchIndexedDiscussionsTask(DiscussionListFragment fragment, String searchQuery) {
+            this.fragment = fragment;
+            this.index = DiscussionIndex.getInstance(fragment.getContext());
+            this.searchQuery = searchQuery;
+        }
+
+        @Override
+        protected List<Discussion> doInBackground(Void... params) {
+            if (index == null)
+                return null;
+
+            try {
+                return index.search(searchQuery, DiscussionAdapter.ITEMS_PER_PAGE);
+            } catch (SQLiteException e) {
+                Log.w(TAG, "Unable to search indexed discussions", e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(List<Discussion> discussions) {
+            super.onPostExecute(discussions);
+
+            if (discussions != null && fragment.getView() != null)
+                fragment.showPreliminaryItems(discussions);
+        }
+    }
+
     /**
      * Different types of discussion lists.
      */
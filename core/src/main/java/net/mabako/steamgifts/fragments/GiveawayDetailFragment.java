@@ -46,6 +46,7 @@ import net.mabako.steamgifts.fragments.util.GiveawayListFragmentStack;
 import net.mabako.steamgifts.persistentdata.SavedGiveaways;
 import net.mabako.steamgifts.tasks.EnterLeaveGiveawayTask;
 import net.mabako.steamgifts.tasks.LoadGiveawayDetailsTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 import net.mabako.steamgifts.tasks.UpdateGiveawayFilterTask;
 
 import java.io.Serializable;
@@ -142,15 +143,7 @@ public class GiveawayDetailFragment extends DetailFragment implements IHasEntera
     }
 
     public void reload() {
-        fetchItems(1);
-    }
-
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-
-        if (enterLeaveTask != null)
-            enterLeaveTask.cancel(true);
+        fetchItems(1, true);
     }
 
     @Override
@@ -189,7 +182,7 @@ public class GiveawayDetailFragment extends DetailFragment implements IHasEntera
             enterLeaveTask.cancel(true);
 
         enterLeaveTask = new EnterLeaveGiveawayTask(this, getContext(), giveawayId, xsrfToken, enterOrDelete);
-        enterLeaveTask.execute();
+        TaskExecutor.execute(this, enterLeaveTask, TaskExecutor.Priority.USER_ACTION);
     }
 
     /**
@@ -316,7 +309,7 @@ public class GiveawayDetailFragment extends DetailFragment implements IHasEntera
             }
             return true;
         } else if (itemId == R.id.hide_game) {
-            new UpdateGiveawayFilterTask<>(this, giveawayCard.getExtras().getXsrfToken(), UpdateGiveawayFilterTask.HIDE, ((Giveaway) giveaway).getInternalGameId(), ((Giveaway) giveaway).getTitle()).execute();
+            TaskExecutor.execute(new UpdateGiveawayFilterTask<>(this, giveawayCard.getExtras().getXsrfToken(), UpdateGiveawayFilterTask.HIDE, ((Giveaway) giveaway).getInternalGameId(), ((Giveaway) giveaway).getTitle()), TaskExecutor.Priority.USER_ACTION);
             return true;
         } else if (itemId == R.id.add_saved_element) {
             if (giveaway instanceof Giveaway && savedGiveaways.add((Giveaway) giveaway, giveaway.getGiveawayId())) {
@@ -1,6 +1,8 @@
 package net.mabako.steamgifts.fragments;
 
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.sqlite.SQLiteException;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
@@ -16,6 +18,7 @@ import android.support.v4.app.FragmentManager;
 import android.support.v4.content.ContextCompat;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.helper.ItemTouchHelper;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -24,12 +27,16 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 
+import com.google.gson.Gson;
 import com.mikepenz.actionitembadge.library.ActionItemBadge;
 import com.mikepenz.actionitembadge.library.utils.BadgeStyle;
 
+import net.mabako.steam.store.StoreDetailsPrefetcher;
 import net.mabako.steamgifts.adapters.EndlessAdapter;
 import net.mabako.steamgifts.adapters.GiveawayAdapter;
+import net.mabako.steamgifts.adapters.IEndlessAdaptable;
 import net.mabako.steamgifts.core.R;
+import net.mabako.steamgifts.data.Game;
 import net.mabako.steamgifts.data.Giveaway;
 import net.mabako.steamgifts.fragments.interfaces.IActivityTitle;
 import net.mabako.steamgifts.fragments.interfaces.IFilterUpdatedListener;
@@ -37,10 +44,12 @@ import net.mabako.steamgifts.fragments.interfaces.IHasEnterableGiveaways;
 import net.mabako.steamgifts.fragments.interfaces.IHasHideableGiveaways;
 import net.mabako.steamgifts.fragments.util.GiveawayListFragmentStack;
 import net.mabako.steamgifts.persistentdata.FilterData;
+import net.mabako.steamgifts.persistentdata.GiveawayIndex;
 import net.mabako.steamgifts.persistentdata.SavedGiveaways;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.tasks.EnterLeaveGiveawayTask;
 import net.mabako.steamgifts.tasks.LoadGiveawayListTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 import net.mabako.steamgifts.tasks.UpdateGiveawayFilterTask;
 
 import java.io.Serializable;
@@ -54,6 +63,12 @@ public class GiveawayListFragment extends SearchableListFragment<GiveawayAdapter
     private static final String TAG = GiveawayListFragment.class.getSimpleName();
     private static final String SAVED_TYPE = "type";
     private static final String SAVED_LAST_REMOVED = "last-removed-game";
+    private static final int ITEMS_PER_PAGE = 50;
+
+    /**
+     * Whether pinned giveaways are shown on top of the list of all giveaways.
+     */
+    private static final String PREF_SHOW_PINNED = "preference_giveaway_show_pinned";
 
     private EnterLeaveGiveawayTask enterLeaveTask;
     private SavedGiveaways savedGiveaways;
@@ -150,12 +165,65 @@ public class GiveawayListFragment extends SearchableListFragment<GiveawayAdapter
     @NonNull
     @Override
     protected GiveawayAdapter createAdapter() {
-        return new GiveawayAdapter(50, true, PreferenceManager.getDefaultSharedPreferences(getContext()));
+        return new GiveawayAdapter(ITEMS_PER_PAGE, true, PreferenceManager.getDefaultSharedPreferences(getContext()));
     }
 
     @Override
     protected AsyncTask<Void, Void, ?> getFetchItemsTask(int page) {
-        return new LoadGiveawayListTask(this, page, type, getSearchQuery(), PreferenceManager.getDefaultSharedPreferences(getContext()).getBoolean("preference_giveaway_show_pinned", false));
+        SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(getContext());
+        return new LoadGiveawayListTask(this, page, type, getSearchQuery(),
+                preferences.getBoolean(PREF_SHOW_PINNED, false),
+                "streaming".equals(preferences.getString("preference_giveaway_list_parser", "dom")));
+    }
+
+    @Override
+    protected boolean isPrefetchSupported() {
+        return true;
+    }
+
+    @Override
+    public void addItems(List<? extends IEndlessAdaptable> items, boolean clearExistingItems) {
+        super.addItems(items, clearExistingItems);
+
+        // Opening the store page of any game on this page shouldn't have to wait.
+        StoreDetailsPrefetcher prefetcher = StoreDetailsPrefetcher.getInstance(getContext());
+        if (items != null && prefetcher != null) {
+            List<Game> games = new ArrayList<>();
+            for (IEndlessAdaptable item : items)
+                if (item instanceof Giveaway && ((Giveaway) item).getGame() != null)
+                    games.add(((Giveaway) item).getGame());
+            prefetcher.prefetch(games);
+        }
+    }
+
+    @Override
+    protected void initializeListView() {
+        boolean loadFromIndex = adapter.isEmpty();
+        super.initializeListView();
+
+        // Show whatever we've seen last time while the list is loading.
+        if (loadFromIndex)
+            TaskExecutor.execute(this, new LoadIndexedGiveawaysTask(this, type, getSearchQuery()), TaskExecutor.Priority.FOREGROUND);
+    }
+
+    /**
+     * Returns the key the first page of a list is stored with in the {@link GiveawayIndex}.
+     * <p>The same list shows different giveaways depending on the filter and on whether pinned giveaways are shown,
+     * so both are part of the key.</p>
+     *
+     * @param showPinnedGiveaways whether pinned giveaways are shown, where they exist at all
+     */
+    public static String getIndexKey(Type type, String searchQuery, boolean showPinnedGiveaways, FilterData filterData) {
+        StringBuilder key = new StringBuilder(type.name());
+        if (searchQuery != null)
+            key.append('/').append(searchQuery);
+
+        if (showPinnedGiveaways && type == Type.ALL && TextUtils.isEmpty(searchQuery))
+            key.append("/pinned");
+
+        if (filterData.isAnyActive())
+            key.append('/').append(new Gson().toJson(filterData));
+        return key.toString();
     }
 
     /**
@@ -190,7 +258,7 @@ public class GiveawayListFragment extends SearchableListFragment<GiveawayAdapter
         // enterLeaveTask.cancel(true);
 
         enterLeaveTask = new EnterLeaveGiveawayTask(this, getContext(), giveawayId, xsrfToken, what);
-        enterLeaveTask.execute();
+        TaskExecutor.execute(enterLeaveTask, TaskExecutor.Priority.USER_ACTION);
     }
 
     @Override
@@ -204,8 +272,10 @@ public class GiveawayListFragment extends SearchableListFragment<GiveawayAdapter
                     adapter.removeGiveaway(giveawayId);
                 }
 
-                // We refresh the entire dataset to let the other quick enter buttons know if the user still have enough points
-                adapter.notifyDataSetChanged();
+                adapter.notifyItemChanged(giveaway);
+
+                // We refresh the enter buttons to let the other quick enter buttons know if the user still have enough points
+                adapter.notifyPointsChanged();
             }
         } else {
             Log.e(TAG, "Probably an error catching the result...");
@@ -216,7 +286,7 @@ public class GiveawayListFragment extends SearchableListFragment<GiveawayAdapter
     }
 
     public void requestHideGame(long internalGameId, String title) {
-        new UpdateGiveawayFilterTask<>(this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.HIDE, internalGameId, title).execute();
+        TaskExecutor.execute(new UpdateGiveawayFilterTask<>(this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.HIDE, internalGameId, title), TaskExecutor.Priority.USER_ACTION);
     }
 
     @Override
@@ -240,7 +310,7 @@ public class GiveawayListFragment extends SearchableListFragment<GiveawayAdapter
             Snackbar.make(swipeContainer, String.format(getString(R.string.game_was_hidden), gameTitle), Snackbar.LENGTH_LONG).setAction(R.string.undo, new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    new UpdateGiveawayFilterTask<>(GiveawayListFragment.this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.UNHIDE, internalGameId, gameTitle).execute();
+                    TaskExecutor.execute(new UpdateGiveawayFilterTask<>(GiveawayListFragment.this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.UNHIDE, internalGameId, gameTitle), TaskExecutor.Priority.USER_ACTION);
                 }
             }).show();
         }
@@ -365,6 +435,56 @@ public class GiveawayListFragment extends SearchableListFragment<GiveawayAdapter
         }
     }
 
+    /**
+     * Loads the first page of giveaways as it was last seen from the {@link GiveawayIndex}.
+     * <p>If we're searching for something we've not searched before, this shows all matching giveaways we know about
+     * instead.</p>
+     */
+    private static class LoadIndexedGiveawaysTask extends AsyncTask<Void, Void, List<Giveaway>> {
+        private final GiveawayListFragment fragment;
+        private final GiveawayIndex index;
+        private final Type type;
+        private final String searchQuery;
+        private final boolean showPinnedGiveaways;
+        private final FilterData filterData;
+
+        private LoadIndexedGiveawaysTask(GiveawayListFragment fragment, Type type, String searchQuery) {
+            this.fragment = fragment;
+            this.index = GiveawayIndex.getInstance(fragment.getContext());
+            this.type = type;
+            this.searchQuery = searchQuery;
+            this.showPinnedGiveaways = PreferenceManager.getDefaultSharedPreferences(fragment.getContext()).getBoolean(PREF_SHOW_PINNED, false);
+            this.filterData = FilterData.getCurrent(fragment.getContext());
+        }
+
+        @Override
+        protected List<Giveaway> doInBackground(Void... params) {
+            if (index == null)
+                return null;
+
+            try {
+                List<Giveaway> giveaways = index.getList(getIndexKey(type, searchQuery, showPinnedGiveaways, filterData));
+
+                // The index doesn't know which giveaways belong to any other list, nor which match the filter.
+                if (giveaways.isEmpty() && searchQuery != null && type == Type.ALL && !filterData.isAnyActive())
+                    giveaways = index.search(searchQuery, ITEMS_PER_PAGE);
+
+                return giveaways;
+            } catch (SQLiteException e) {
+                Log.w(TAG, "Unable to load indexed giveaways", e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(List<Giveaway> giveaways) {
+            super.onPostExecute(giveaways);
+
+            if (giveaways != null && fragment.getView() != null)
+                fragment.showPreliminaryItems(giveaways);
+        }
+    }
+
     private static class LastRemovedGame implements Serializable {
         private static final long serialVersionUID = -7112241651196581480L;
 
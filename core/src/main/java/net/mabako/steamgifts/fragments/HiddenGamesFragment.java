@@ -10,11 +10,15 @@ import android.view.View;
 
 import net.mabako.steamgifts.adapters.EndlessAdapter;
 import net.mabako.steamgifts.adapters.HiddenGamesAdapter;
+import net.mabako.steamgifts.adapters.IEndlessAdaptable;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.Game;
 import net.mabako.steamgifts.fragments.interfaces.IActivityTitle;
 import net.mabako.steamgifts.fragments.interfaces.IHasHideableGiveaways;
 import net.mabako.steamgifts.tasks.LoadGameListTask;
+import net.mabako.steamgifts.tasks.Selectors;
+import net.mabako.steamgifts.tasks.TableRowParser;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 import net.mabako.steamgifts.tasks.UpdateGiveawayFilterTask;
 
 import org.jsoup.nodes.Element;
@@ -25,6 +29,34 @@ import java.util.List;
 public class HiddenGamesFragment extends SearchableListFragment<HiddenGamesAdapter> implements IActivityTitle, IHasHideableGiveaways {
     private static final String SAVED_LAST_REMOVED = "last-removed-game";
 
+    private static final TableRowParser<Game> PARSER = new TableRowParser<Game>() {
+        private final Field name = field(Selectors.Table.HEADING);
+        private final Field gameId = field(Selectors.Table.GAME_ID);
+        private final Field link = field(Selectors.Table.SECONDARY_LINK);
+
+        @Override
+        protected Game create(Row row) {
+            Game game = new Game();
+            game.setName(row.text(name));
+            game.setInternalGameId(Long.parseLong(row.first(gameId).attr("value")));
+
+            Element link = row.first(this.link);
+            if (link != null) {
+                Uri steamUri = Uri.parse(link.attr("href"));
+
+                // Steam link
+                if (steamUri != null) {
+                    List<String> pathSegments = steamUri.getPathSegments();
+                    if (pathSegments.size() >= 2)
+                        game.setGameId(Integer.parseInt(pathSegments.get(1)));
+                    game.setType("app".equals(pathSegments.get(0)) ? Game.Type.APP : Game.Type.SUB);
+                }
+            }
+
+            return game;
+        }
+    };
+
     private EndlessAdapter.RemovedElement lastRemovedGame;
 
     public static HiddenGamesFragment newInstance(String query) {
@@ -66,25 +98,8 @@ public class HiddenGamesFragment extends SearchableListFragment<HiddenGamesAdapt
     protected AsyncTask<Void, Void, ?> getFetchItemsTask(int page) {
         return new LoadGameListTask(this, getContext(), "account/settings/giveaways/filters", page, getSearchQuery()) {
             @Override
-            protected Game load(Element element) {
-                Game game = new Game();
-                game.setName(element.select(".table__column__heading").text());
-                game.setInternalGameId(Long.parseLong(element.select("input[name=game_id]").first().attr("value")));
-
-                Element link = element.select(".table__column--width-fill .table__column__secondary-link").first();
-                if (link != null) {
-                    Uri steamUri = Uri.parse(link.attr("href"));
-
-                    // Steam link
-                    if (steamUri != null) {
-                        List<String> pathSegments = steamUri.getPathSegments();
-                        if (pathSegments.size() >= 2)
-                            game.setGameId(Integer.parseInt(pathSegments.get(1)));
-                        game.setType("app".equals(pathSegments.get(0)) ? Game.Type.APP : Game.Type.SUB);
-                    }
-                }
-
-                return game;
+            protected TableRowParser<? extends IEndlessAdaptable> getParser() {
+                return PARSER;
             }
         };
     }
@@ -95,7 +110,7 @@ public class HiddenGamesFragment extends SearchableListFragment<HiddenGamesAdapt
     }
 
     public void requestShowGame(long internalGameId, String title) {
-        new UpdateGiveawayFilterTask<>(this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.UNHIDE, internalGameId, title).execute();
+        TaskExecutor.execute(new UpdateGiveawayFilterTask<>(this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.UNHIDE, internalGameId, title), TaskExecutor.Priority.USER_ACTION);
     }
 
     public void onShowGame(long internalGameId) {
@@ -107,7 +122,7 @@ public class HiddenGamesFragment extends SearchableListFragment<HiddenGamesAdapt
                     .setAction(R.string.undo, new View.OnClickListener() {
                         @Override
                         public void onClick(View v) {
-                            new UpdateGiveawayFilterTask<>(HiddenGamesFragment.this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.HIDE, game.getInternalGameId(), game.getName()).execute();
+                            TaskExecutor.execute(new UpdateGiveawayFilterTask<>(HiddenGamesFragment.this, adapter.getXsrfToken(), UpdateGiveawayFilterTask.HIDE, game.getInternalGameId(), game.getName()), TaskExecutor.Priority.USER_ACTION);
                         }
                     }).show();
         }
@@ -2,6 +2,7 @@ package net.mabako.steamgifts.fragments;
 
 import android.os.AsyncTask;
 import android.os.Bundle;
+import android.preference.PreferenceManager;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.FloatingActionButton;
@@ -22,6 +23,7 @@ import net.mabako.steamgifts.adapters.EndlessAdapter;
 import net.mabako.steamgifts.adapters.IEndlessAdaptable;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.fragments.interfaces.ILoadItemsListener;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -34,6 +36,11 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
 
     private static final String SAVED_ADAPTER = "listadapter";
 
+    /**
+     * Preference for how many pages are loaded ahead of the current scroll position.
+     */
+    public static final String PREF_PREFETCH_PAGES = "preference_prefetch_pages";
+
     private boolean loadItemsInitially = true;
 
     protected AdapterType adapter;
@@ -48,16 +55,42 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
 
     private AsyncTask<Void, Void, ?> taskToFetchItems = null;
 
+    /**
+     * Whether the items shown were stored locally, and are yet to be replaced by the first page.
+     */
+    private boolean showingPreliminaryItems = false;
+
+    /**
+     * Whether the items currently being fetched were explicitly asked for again by the user, e.g. through swipe to refresh.
+     */
+    private boolean reloading = false;
+
+    /**
+     * Task loading the next page before it's needed, see {@link #prefetchNextPages()}.
+     */
+    private AsyncTask<Void, Void, ?> prefetchTask = null;
+    private int prefetchTaskPage;
+
+    /**
+     * Pages loaded ahead of time, which are added to the adapter as soon as the user scrolls down far enough.
+     */
+    private final List<PrefetchedPage> prefetchedPages = new ArrayList<>();
+
+    /**
+     * Incremented whenever all prefetched pages are discarded.
+     */
+    private int prefetchGeneration = 0;
+
     @Override
     @SuppressWarnings("unchecked")
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        if (savedInstanceState == null) {
-            adapter = createAdapter();
-        } else {
+        if (savedInstanceState != null)
             adapter = (AdapterType) savedInstanceState.getSerializable(SAVED_ADAPTER);
-        }
+
+        if (adapter == null)
+            adapter = createAdapter();
     }
 
     @Override
@@ -87,6 +120,7 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
     public void onDestroyView() {
         super.onDestroyView();
         cancelFetch();
+        TaskExecutor.cancel(this);
     }
 
     private void setupListViewAdapter() {
@@ -109,7 +143,7 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
                     // TODO can we just call fetchItems(EndlessAdapter.LAST_PAGE)?
                     refresh();
                 } else {
-                    fetchItems(EndlessAdapter.FIRST_PAGE);
+                    fetchItems(EndlessAdapter.FIRST_PAGE, true);
                 }
             }
         });
@@ -120,7 +154,10 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
-        outState.putSerializable(SAVED_ADAPTER, adapter);
+
+        // Preliminary items are loaded again along with the first page.
+        if (!showingPreliminaryItems)
+            outState.putSerializable(SAVED_ADAPTER, adapter);
     }
 
     protected void showSnack(String message, int length) {
@@ -135,11 +172,24 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
     }
 
     public void addItems(List<? extends IEndlessAdaptable> items, boolean clearExistingItems) {
-        if (items != null) {
-            if (clearExistingItems)
+        if (showingPreliminaryItems) {
+            showingPreliminaryItems = false;
+
+            // Whatever was stored locally is outdated, and doesn't allow loading any further pages.
+            if (items == null || !clearExistingItems)
                 adapter.clear();
+        }
+
+        if (items != null) {
+            if (clearExistingItems && !adapter.isEmpty()) {
+                // Only update what actually changed, e.g. when swiping to refresh.
+                adapter.replaceItems(new ArrayList<IEndlessAdaptable>(items));
+            } else {
+                if (clearExistingItems)
+                    adapter.clear();
 
-            adapter.finishLoading(new ArrayList<>(items));
+                adapter.finishLoading(new ArrayList<>(items));
+            }
         } else {
             showSnack("Failed to fetch items", Snackbar.LENGTH_LONG);
         }
@@ -147,6 +197,9 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
         showNormalListView();
 
         taskToFetchItems = null;
+
+        if (items != null)
+            prefetchNextPages();
     }
 
 
@@ -157,6 +210,24 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
             adapter.setXsrfToken(xsrfToken);
     }
 
+    /**
+     * Shows items that were stored locally while the first page is still being loaded, to be replaced as soon as the
+     * first page has finished loading.
+     * <p>No further pages are loaded until then. Should the first page fail to load, the preliminary items are removed
+     * again.</p>
+     */
+    protected void showPreliminaryItems(List<? extends IEndlessAdaptable> items) {
+        if (taskToFetchItems == null || !adapter.isEmpty() || items.isEmpty())
+            return;
+
+        showingPreliminaryItems = true;
+        adapter.reachedTheEnd(false);
+        adapter.finishLoading(new ArrayList<IEndlessAdaptable>(items));
+
+        showNormalListView();
+        swipeContainer.setRefreshing(true);
+    }
+
     private void showNormalListView() {
         progressBar.setVisibility(View.GONE);
         swipeContainer.setVisibility(View.VISIBLE);
@@ -164,6 +235,7 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
     }
 
     protected void refresh() {
+        showingPreliminaryItems = false;
         adapter.cancelLoading();
         adapter.clear();
         progressBar.setVisibility(View.VISIBLE);
@@ -174,7 +246,7 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
             scrollToTopButton.setVisibility(View.GONE);
 
         // TODO reverse pages?
-        fetchItems(adapter.isViewInReverse() ? EndlessAdapter.LAST_PAGE : EndlessAdapter.FIRST_PAGE);
+        fetchItems(adapter.isViewInReverse() ? EndlessAdapter.LAST_PAGE : EndlessAdapter.FIRST_PAGE, true);
     }
 
     /**
@@ -217,18 +289,48 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
      * @param page page to load items from
      */
     protected void fetchItems(int page) {
+        cancelPrefetch();
+
         if (taskToFetchItems != null)
             taskToFetchItems.cancel(true);
 
         taskToFetchItems = getFetchItemsTask(page);
-        taskToFetchItems.execute();
+        TaskExecutor.execute(this, taskToFetchItems, TaskExecutor.Priority.FOREGROUND);
+    }
+
+    /**
+     * Load all items from a particular page.
+     *
+     * @param page      page to load items from
+     * @param reloading true if cached copies of the page should not be used without checking back with the server
+     */
+    protected final void fetchItems(int page, boolean reloading) {
+        this.reloading = reloading;
+        try {
+            fetchItems(page);
+        } finally {
+            this.reloading = false;
+        }
+    }
+
+    /**
+     * Whether the task currently being created by {@link #getFetchItemsTask(int)} should revalidate any cached pages.
+     */
+    public boolean isReloading() {
+        return reloading;
     }
 
     protected final void cancelFetch() {
+        cancelPrefetch();
+
         if (taskToFetchItems != null)
             taskToFetchItems.cancel(true);
 
         taskToFetchItems = null;
+        if (showingPreliminaryItems) {
+            showingPreliminaryItems = false;
+            adapter.clear();
+        }
         adapter.cancelLoading();
         swipeContainer.setRefreshing(false);
     }
@@ -257,7 +359,121 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
 
     @Override
     public final void onLoad(int page) {
-        fetchItems(page);
+        final PrefetchedPage prefetchedPage = takePrefetchedPage(page);
+        if (prefetchedPage != null) {
+            Log.v(TAG, "Using prefetched page " + page);
+
+            // We're called from within a scroll listener, so don't change the adapter right away.
+            final int generation = prefetchGeneration;
+            listView.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (generation == prefetchGeneration)
+                        addItems(prefetchedPage.items, false, prefetchedPage.xsrfToken);
+                }
+            });
+        } else if (prefetchTask != null && prefetchTaskPage == page) {
+            // The page is already being loaded, so only wait for it to finish.
+            taskToFetchItems = prefetchTask;
+            prefetchTask = null;
+        } else {
+            fetchItems(page);
+        }
+    }
+
+    /**
+     * Adds the items loaded by a task created through {@link #getFetchItemsTask(int)}. Tasks that may have been started
+     * to load a page ahead of time must hand their results in here, so they're kept until the user scrolls down.
+     *
+     * @param task the task that loaded the items
+     */
+    public void addItems(AsyncTask<?, ?, ?> task, List<? extends IEndlessAdaptable> items, boolean clearExistingItems, String xsrfToken) {
+        if (task != null && task == prefetchTask) {
+            onPrefetchedItems(items, xsrfToken);
+        } else {
+            addItems(items, clearExistingItems, xsrfToken);
+        }
+    }
+
+    /**
+     * Whether pages of this list may be loaded before the user scrolls down to them.
+     * <p>Only lists whose tasks hand all results to {@link #addItems(AsyncTask, List, boolean, String)}, without
+     * overriding any of the other <code>addItems</code> methods, should return true here.</p>
+     */
+    protected boolean isPrefetchSupported() {
+        return false;
+    }
+
+    private int getPrefetchDepth() {
+        if (!isPrefetchSupported() || getContext() == null)
+            return 0;
+
+        try {
+            return Integer.parseInt(PreferenceManager.getDefaultSharedPreferences(getContext()).getString(PREF_PREFETCH_PAGES, "1"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Starts loading the next page that is not loaded yet, if we're not loading anything else and have not loaded enough
+     * pages ahead of time.
+     */
+    private void prefetchNextPages() {
+        if (prefetchTask != null || taskToFetchItems != null || adapter.isLoading() || adapter.hasReachedTheEnd() || adapter.isViewInReverse())
+            return;
+
+        if (prefetchedPages.size() >= getPrefetchDepth())
+            return;
+
+        // A page without any items is the last page.
+        if (!prefetchedPages.isEmpty() && prefetchedPages.get(prefetchedPages.size() - 1).items.isEmpty())
+            return;
+
+        prefetchTaskPage = adapter.getNextPage() + prefetchedPages.size();
+        Log.v(TAG, "Prefetching page " + prefetchTaskPage);
+
+        prefetchTask = getFetchItemsTask(prefetchTaskPage);
+        TaskExecutor.execute(this, prefetchTask, TaskExecutor.Priority.BACKGROUND);
+    }
+
+    /**
+     * Keeps the items of a page that was loaded ahead of time by {@link #prefetchTask}.
+     */
+    private void onPrefetchedItems(List<? extends IEndlessAdaptable> items, String xsrfToken) {
+        prefetchTask = null;
+
+        // If this failed, the page is simply loaded again once it's needed.
+        if (items != null) {
+            prefetchedPages.add(new PrefetchedPage(prefetchTaskPage, new ArrayList<>(items), xsrfToken));
+            prefetchNextPages();
+        }
+    }
+
+    @Nullable
+    private PrefetchedPage takePrefetchedPage(int page) {
+        if (prefetchedPages.isEmpty())
+            return null;
+
+        PrefetchedPage prefetchedPage = prefetchedPages.remove(0);
+        if (prefetchedPage.page != page) {
+            // Whatever we've got doesn't match up with the adapter anymore.
+            cancelPrefetch();
+            return null;
+        }
+        return prefetchedPage;
+    }
+
+    /**
+     * Stops loading pages ahead of time, and discards all pages loaded so far.
+     */
+    private void cancelPrefetch() {
+        if (prefetchTask != null)
+            prefetchTask.cancel(true);
+
+        prefetchTask = null;
+        prefetchedPages.clear();
+        ++prefetchGeneration;
     }
 
     public AdapterType getAdapter() {
@@ -301,6 +517,21 @@ public abstract class ListFragment<AdapterType extends EndlessAdapter> extends F
         }
     }
 
+    /**
+     * A single page that was loaded ahead of time.
+     */
+    private static class PrefetchedPage {
+        private final int page;
+        private final List<IEndlessAdaptable> items;
+        private final String xsrfToken;
+
+        private PrefetchedPage(int page, List<IEndlessAdaptable> items, String xsrfToken) {
+            this.page = page;
+            this.items = items;
+            this.xsrfToken = xsrfToken;
+        }
+    }
+
     private static class BundleEquality {
         public static boolean equalBundles(Bundle one, Bundle two) {
             if (one == null)
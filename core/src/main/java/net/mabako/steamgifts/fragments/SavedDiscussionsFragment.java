@@ -4,15 +4,20 @@ import android.content.Context;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
+import android.util.Log;
 
 import net.mabako.steamgifts.adapters.DiscussionAdapter;
 import net.mabako.steamgifts.core.R;
+import net.mabako.steamgifts.data.Discussion;
 import net.mabako.steamgifts.fragments.interfaces.IActivityTitle;
 import net.mabako.steamgifts.persistentdata.SavedDiscussions;
 
 import java.io.Serializable;
+import java.util.List;
 
 public class SavedDiscussionsFragment extends ListFragment<DiscussionAdapter> implements IActivityTitle {
+    private static final String TAG = SavedDiscussionsFragment.class.getSimpleName();
+
     private SavedDiscussions savedDiscussions;
 
     @Override
@@ -45,7 +50,7 @@ public class SavedDiscussionsFragment extends ListFragment<DiscussionAdapter> im
 
     @Override
     protected AsyncTask<Void, Void, ?> getFetchItemsTask(int page) {
-        return null;
+        return new LoadSavedDiscussionsTask(this, page);
     }
 
     @Override
@@ -53,15 +58,6 @@ public class SavedDiscussionsFragment extends ListFragment<DiscussionAdapter> im
         return null;
     }
 
-    @Override
-    protected void fetchItems(int page) {
-        if (page != 1)
-            return;
-
-        super.addItems(savedDiscussions.all(), true);
-        adapter.reachedTheEnd();
-    }
-
     @Override
     public int getTitleResource() {
         return R.string.saved_discussions_title;
@@ -71,4 +67,37 @@ public class SavedDiscussionsFragment extends ListFragment<DiscussionAdapter> im
     public String getExtraTitle() {
         return null;
     }
+
+    /**
+     * Loads a single page of saved discussions from the database.
+     */
+    private static class LoadSavedDiscussionsTask extends AsyncTask<Void, Void, List<Discussion>> {
+        private final SavedDiscussionsFragment fragment;
+        private final SavedDiscussions savedDiscussions;
+        private final int page;
+        private final int offset;
+
+        private LoadSavedDiscussionsTask(SavedDiscussionsFragment fragment, int page) {
+            this.fragment = fragment;
+            this.savedDiscussions = fragment.savedDiscussions;
+            this.page = page;
+            this.offset = page == 1 ? 0 : fragment.adapter.getLoadedItemCount();
+        }
+
+        @Override
+        protected List<Discussion> doInBackground(Void... params) {
+            try {
+                return savedDiscussions.list(offset, DiscussionAdapter.ITEMS_PER_PAGE);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading saved discussions", e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(List<Discussion> discussions) {
+            super.onPostExecute(discussions);
+            fragment.addItems(discussions, page == 1);
+        }
+    }
 }
@@ -28,19 +28,28 @@ import net.mabako.steamgifts.fragments.util.GiveawayListFragmentStack;
 import net.mabako.steamgifts.persistentdata.SavedGiveaways;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.tasks.EnterLeaveGiveawayTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Show a list of saved giveaways.
  */
 public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.SavedGiveawaysAdapter> implements IActivityTitle, IHasEnterableGiveaways {
     private static final String TAG = SavedGiveawaysFragment.class.getSimpleName();
+    private static final int ITEMS_PER_PAGE = 50;
 
     private SavedGiveaways savedGiveaways;
 
+    /**
+     * Entries for all giveaways we've entered, for saved giveaways on pages that were not loaded yet.
+     */
+    private final Map<String, Integer> enteredGiveaways = new HashMap<>();
+
     private LoadEnteredGameListTask enteredGameListTask;
     private EnterLeaveGiveawayTask enterLeaveTask;
 
@@ -113,6 +122,11 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
                 adapter.removeGiveaway(enteredGiveaway.getGiveawayId());
             }
 
+            // Also remove all giveaways on pages we've not loaded yet.
+            for (String giveawayId : enteredGiveaways.keySet())
+                savedGiveaways.remove(giveawayId);
+            enteredGiveaways.clear();
+
             if (getActivity() != null)
                 getActivity().invalidateOptionsMenu();
             return true;
@@ -124,12 +138,12 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
     @NonNull
     @Override
     protected SavedGiveawaysAdapter createAdapter() {
-        return new SavedGiveawaysAdapter(-1, false, PreferenceManager.getDefaultSharedPreferences(getContext()));
+        return new SavedGiveawaysAdapter(ITEMS_PER_PAGE, false, PreferenceManager.getDefaultSharedPreferences(getContext()));
     }
 
     @Override
     protected AsyncTask<Void, Void, ?> getFetchItemsTask(int page) {
-        return null;
+        return new LoadSavedGiveawaysTask(this, page);
     }
 
     @Override
@@ -137,21 +151,32 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
         return null;
     }
 
-    @Override
-    protected void fetchItems(int page) {
-        if (page != 1)
-            return;
+    /**
+     * Callback for {@link LoadSavedGiveawaysTask}.
+     */
+    private void onSavedGiveawaysLoaded(List<Giveaway> giveaways, int page) {
+        if (giveaways != null) {
+            for (Giveaway giveaway : giveaways) {
+                Integer entries = enteredGiveaways.get(giveaway.getGiveawayId());
+                if (entries != null) {
+                    giveaway.setEntries(entries);
+                    giveaway.setEntered(true);
+                }
+            }
+        }
 
-        super.addItems(savedGiveaways.all(), true);
-        adapter.reachedTheEnd();
+        super.addItems(giveaways, page == 1);
 
-        // Load all entered giveaways
-        if (enteredGameListTask != null)
-            enteredGameListTask.cancel(true);
+        if (page == 1 && giveaways != null) {
+            // Load all entered giveaways
+            if (enteredGameListTask != null)
+                enteredGameListTask.cancel(true);
 
-        if (SteamGiftsUserData.getCurrent(getContext()).isLoggedIn()) {
-            enteredGameListTask = new LoadEnteredGameListTask(this, 1);
-            enteredGameListTask.execute();
+            enteredGiveaways.clear();
+            if (SteamGiftsUserData.getCurrent(getContext()).isLoggedIn()) {
+                enteredGameListTask = new LoadEnteredGameListTask(this, 1);
+                TaskExecutor.execute(enteredGameListTask, TaskExecutor.Priority.FOREGROUND);
+            }
         }
     }
 
@@ -187,6 +212,8 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
                     break;
                 }
 
+                enteredGiveaways.put(giveaway.getGiveawayId(), giveaway.getEntries());
+
                 Giveaway existingGiveaway = adapter.findItem(giveaway.getGiveawayId());
                 if (existingGiveaway != null) {
                     existingGiveaway.setEntries(giveaway.getEntries());
@@ -204,7 +231,7 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
                 enteredGameListTask = null;
             } else {
                 enteredGameListTask = new LoadEnteredGameListTask(this, enteredGameListTask.getPage() + 1);
-                enteredGameListTask.execute();
+                TaskExecutor.execute(enteredGameListTask, TaskExecutor.Priority.FOREGROUND);
             }
         } else {
             showSnack("Failed to update entered giveaways", Snackbar.LENGTH_LONG);
@@ -222,7 +249,7 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
             enterLeaveTask.cancel(true);
 
         enterLeaveTask = new EnterLeaveGiveawayTask(this, getContext(), giveawayId, xsrfToken, enterOrDelete);
-        enterLeaveTask.execute();
+        TaskExecutor.execute(enterLeaveTask, TaskExecutor.Priority.USER_ACTION);
     }
 
     @Override
@@ -235,6 +262,11 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
                 giveaway.setEntered(GiveawayDetailFragment.ENTRY_INSERT.equals(what));
                 adapter.notifyItemChanged(giveaway);
 
+                if (giveaway.isEntered())
+                    enteredGiveaways.put(giveawayId, giveaway.getEntries());
+                else
+                    enteredGiveaways.remove(giveawayId);
+
                 boolean nowEnteredAny = adapter.getEnteredItemCount() > 0;
                 if (currentlyEnteredAny != nowEnteredAny && getActivity() != null)
                     getActivity().supportInvalidateOptionsMenu();
@@ -247,6 +279,44 @@ public class SavedGiveawaysFragment extends ListFragment<SavedGiveawaysFragment.
             GiveawayListFragmentStack.onEnterLeaveResult(giveawayId, what, success);
     }
 
+    /**
+     * Loads a single page of saved giveaways from the database.
+     */
+    private static class LoadSavedGiveawaysTask extends AsyncTask<Void, Void, List<Giveaway>> {
+        private final SavedGiveawaysFragment fragment;
+        private final SavedGiveaways savedGiveaways;
+        private final int page;
+
+        /**
+         * Giveaways may have been removed from the list since loading the previous page, so we continue after
+         * however many giveaways are actually shown.
+         */
+        private final int offset;
+
+        private LoadSavedGiveawaysTask(SavedGiveawaysFragment fragment, int page) {
+            this.fragment = fragment;
+            this.savedGiveaways = fragment.savedGiveaways;
+            this.page = page;
+            this.offset = page == 1 ? 0 : fragment.adapter.getLoadedItemCount();
+        }
+
+        @Override
+        protected List<Giveaway> doInBackground(Void... params) {
+            try {
+                return savedGiveaways.list(offset, ITEMS_PER_PAGE);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading saved giveaways", e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(List<Giveaway> giveaways) {
+            super.onPostExecute(giveaways);
+            fragment.onSavedGiveawaysLoaded(giveaways, page);
+        }
+    }
+
     /**
      * Adapter with some useful functions for saved items.
      */
@@ -9,14 +9,11 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
-
 import net.mabako.steamgifts.activities.WriteCommentActivity;
 import net.mabako.steamgifts.adapters.viewholder.StringUtils;
 import net.mabako.steamgifts.core.R;
 import net.mabako.steamgifts.data.Comment;
-
-import jp.wasabeef.picasso.transformations.RoundedCornersTransformation;
+import net.mabako.steamgifts.network.ImageLoader;
 
 public class SingleCommentFragment extends Fragment {
     @Nullable
@@ -36,7 +33,7 @@ public class SingleCommentFragment extends Fragment {
         params.width = 0;
         commentIndent.setLayoutParams(params);
 
-        Picasso.with(getContext()).load(comment.getAvatar()).placeholder(R.drawable.default_avatar_mask).transform(new RoundedCornersTransformation(20, 0)).into((ImageView) layout.findViewById(R.id.author_avatar));
+        ImageLoader.loadListAvatar(getContext(), comment.getAvatar()).into((ImageView) layout.findViewById(R.id.author_avatar));
 
         return layout;
     }
@@ -13,25 +13,22 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.activities.CommonActivity;
 import net.mabako.steamgifts.activities.UrlHandlingActivity;
 import net.mabako.steamgifts.core.R;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.tasks.AjaxTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
 public class SyncFragment extends Fragment {
     private static final String SAVED_XSRF = "xsrf";
 
-    private SyncTask syncTask;
-    private LoadSyncDetailsTask loadSyncDetailsTask;
 
     private String xsrfToken;
 
@@ -66,8 +63,7 @@ public class SyncFragment extends Fragment {
             syncView.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    syncTask = new SyncTask(SyncFragment.this, xsrfToken);
-                    syncTask.execute();
+                    TaskExecutor.execute(SyncFragment.this, new SyncTask(SyncFragment.this, xsrfToken), TaskExecutor.Priority.USER_ACTION);
                 }
             });
             syncView.setEnabled(false);
@@ -79,8 +75,7 @@ public class SyncFragment extends Fragment {
                 }
             });
 
-            loadSyncDetailsTask = new LoadSyncDetailsTask(this);
-            loadSyncDetailsTask.execute();
+            TaskExecutor.execute(this, new LoadSyncDetailsTask(this), TaskExecutor.Priority.FOREGROUND);
 
             return view;
         }
@@ -100,16 +95,7 @@ public class SyncFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-
-        if (syncTask != null) {
-            syncTask.cancel(true);
-            syncTask = null;
-        }
-
-        if (loadSyncDetailsTask != null) {
-            loadSyncDetailsTask.cancel(true);
-            loadSyncDetailsTask = null;
-        }
+        TaskExecutor.cancel(this);
     }
 
     /**
@@ -130,13 +116,7 @@ public class SyncFragment extends Fragment {
             try {
                 // Fetch the Giveaway page
 
-                Connection jsoup = Jsoup.connect("https://www.steamgifts.com/account/profile/sync")
-                        .userAgent(Constants.JSOUP_USER_AGENT)
-                        .timeout(Constants.JSOUP_TIMEOUT)
-                        .cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
-                Document document = jsoup.get();
-
-                SteamGiftsUserData.extract(fragment.getContext(), document);
+                Document document = SteamGiftsHttpClient.get(fragment.getContext(), "https://www.steamgifts.com/account/profile/sync").get();
 
                 // Fetch the xsrf token
                 Element xsrfToken = document.select("input[name=xsrf_token]").first();
@@ -171,12 +151,12 @@ public class SyncFragment extends Fragment {
         }
 
         @Override
-        protected void addExtraParameters(Connection connection) {
+        protected void addExtraParameters(SteamGiftsHttpClient.Request request) {
 
         }
 
         @Override
-        protected void onPostExecute(Connection.Response response) {
+        protected void onPostExecute(SteamGiftsHttpClient.Response response) {
             if (response != null && response.statusCode() == 200) {
                 try {
                     Log.v(TAG, "Response to JSON request: " + response.body());
@@ -44,6 +44,7 @@ import net.mabako.steamgifts.fragments.interfaces.IHasWhitelistAndBlacklist;
 import net.mabako.steamgifts.fragments.interfaces.IUserNotifications;
 import net.mabako.steamgifts.tasks.LoadUserDetailsTask;
 import net.mabako.steamgifts.tasks.LoadUserTradeFeedbackTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 import net.mabako.steamgifts.tasks.UpdateWhitelistBlacklistTask;
 
 import java.io.Serializable;
@@ -97,11 +98,8 @@ public class UserDetailFragment extends Fragment implements IUserNotifications,
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-
-        if (updateWhitelistBlacklistTask != null) {
-            updateWhitelistBlacklistTask.cancel(true);
-            updateWhitelistBlacklistTask = null;
-        }
+        TaskExecutor.cancel(this);
+        updateWhitelistBlacklistTask = null;
     }
 
     @Nullable
@@ -260,7 +258,7 @@ public class UserDetailFragment extends Fragment implements IUserNotifications,
             updateWhitelistBlacklistTask.cancel(true);
 
         updateWhitelistBlacklistTask = new UpdateWhitelistBlacklistTask(this, getContext(), xsrfToken, what, user, adding);
-        updateWhitelistBlacklistTask.execute();
+        TaskExecutor.execute(this, updateWhitelistBlacklistTask, TaskExecutor.Priority.USER_ACTION);
     }
 
     @Override
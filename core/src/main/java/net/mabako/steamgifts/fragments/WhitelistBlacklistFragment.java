@@ -16,6 +16,7 @@ import net.mabako.steamgifts.data.BasicUser;
 import net.mabako.steamgifts.fragments.interfaces.IActivityTitle;
 import net.mabako.steamgifts.fragments.interfaces.IHasWhitelistAndBlacklist;
 import net.mabako.steamgifts.tasks.LoadWhitelistBlacklistTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 import net.mabako.steamgifts.tasks.UpdateWhitelistBlacklistTask;
 
 public class WhitelistBlacklistFragment extends SearchableListFragment<UserAdapter> implements IHasWhitelistAndBlacklist, IActivityTitle {
@@ -102,7 +103,7 @@ public class WhitelistBlacklistFragment extends SearchableListFragment<UserAdapt
             updateWhitelistBlacklistTask.cancel(true);
 
         updateWhitelistBlacklistTask = new UpdateWhitelistBlacklistTask(this, getContext(), adapter.getXsrfToken(), what, user, adding);
-        updateWhitelistBlacklistTask.execute();
+        TaskExecutor.execute(updateWhitelistBlacklistTask, TaskExecutor.Priority.USER_ACTION);
     }
 
     @Override
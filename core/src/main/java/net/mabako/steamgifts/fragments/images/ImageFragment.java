@@ -24,37 +24,35 @@ import com.davemorrissey.labs.subscaleview.SubsamplingScaleImageView;
 import com.davemorrissey.labs.subscaleview.decoder.DecoderFactory;
 import com.davemorrissey.labs.subscaleview.decoder.ImageDecoder;
 import com.davemorrissey.labs.subscaleview.decoder.ImageRegionDecoder;
-import com.squareup.picasso.Downloader;
-import com.squareup.picasso.OkHttpDownloader;
 
 import net.mabako.steamgifts.core.R;
+import net.mabako.steamgifts.network.ImageFileCache;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
+import java.io.File;
 import java.io.IOException;
 
-import okio.Okio;
 import pl.droidsonroids.gif.GifDrawable;
 import pl.droidsonroids.gif.GifIOException;
 import pl.droidsonroids.gif.GifImageView;
 
 /**
  * A single image on a single page.
+ * <p>Images are downloaded into the {@link ImageFileCache} and decoded straight from there, so neither the image nor its
+ * compressed bytes are ever held in memory (or in the saved state) as a whole.</p>
  */
 public class ImageFragment extends Fragment {
     private static final String TAG = ImageFragment.class.getSimpleName();
     private static final String ARG_URL = "image-url";
 
     private static final String SAVED_STATE = "image-state";
-    private static final String SAVED_IMAGE_BYTES = "image-bytes";
+    private static final String SAVED_IMAGE_KEY = "image-key";
 
     /**
      * URL of the image to display.
      */
     private String url;
 
-    /**
-     * Task to fetch the current image.
-     */
-    private FetchImageTask fetchImageTask;
 
     /**
      * Drawable used for the GIF file.
@@ -67,9 +65,9 @@ public class ImageFragment extends Fragment {
     private SubsamplingScaleImageView imageView;
 
     /**
-     * Image, in bytes.
+     * File the image was downloaded to.
      */
-    private byte[] imageBytes;
+    private File imageFile;
 
     /**
      * Current fragment state.
@@ -94,9 +92,21 @@ public class ImageFragment extends Fragment {
         if (TextUtils.isEmpty(url))
             throw new IllegalStateException("No URL passed");
 
+        // Keep prefetched images from evicting this one while it is shown.
+        ImageFileCache cache = ImageFileCache.getInstance(getContext());
+        if (cache != null)
+            cache.pin(ImageFileCache.getKey(url));
+
         if (savedInstanceState != null) {
             state = (State) savedInstanceState.getSerializable(SAVED_STATE);
-            imageBytes = savedInstanceState.getByteArray(SAVED_IMAGE_BYTES);
+
+            if (state == State.BITMAP || state == State.GIF) {
+                // The image may have been evicted from the cache in the meantime, in which case we fetch it again.
+                String key = savedInstanceState.getString(SAVED_IMAGE_KEY);
+                imageFile = cache != null && key != null ? cache.get(key) : null;
+                if (imageFile == null)
+                    state = State.NONE;
+            }
         }
     }
 
@@ -104,7 +114,8 @@ public class ImageFragment extends Fragment {
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
         outState.putSerializable(SAVED_STATE, state);
-        outState.putByteArray(SAVED_IMAGE_BYTES, imageBytes);
+        if (imageFile != null)
+            outState.putString(SAVED_IMAGE_KEY, imageFile.getName());
     }
 
     @Nullable
@@ -112,10 +123,15 @@ public class ImageFragment extends Fragment {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         final View view = inflater.inflate(R.layout.image_page_item, container, false);
 
+        // Only a view recreated from the back stack gets here with an image, which may since have been removed.
+        if ((state == State.BITMAP || state == State.GIF) && (imageFile == null || !imageFile.isFile())) {
+            imageFile = null;
+            state = State.NONE;
+        }
+
         switch (state) {
             case NONE:
-                fetchImageTask = new FetchImageTask();
-                fetchImageTask.execute();
+                TaskExecutor.execute(this, new FetchImageTask(), TaskExecutor.Priority.FOREGROUND);
                 break;
 
             case UNABLE_TO_LOAD:
@@ -126,7 +142,7 @@ public class ImageFragment extends Fragment {
                 try {
                     createGif(view);
                 } catch (Exception e) {
-                    Log.e(TAG, "Unable to restore bytes");
+                    Log.e(TAG, "Unable to restore gif", e);
                     showOpenInBrowserLink(view);
                 }
                 break;
@@ -146,8 +162,11 @@ public class ImageFragment extends Fragment {
 
     @Override
     public void onDestroy() {
-        if (fetchImageTask != null)
-            fetchImageTask.cancel(true);
+        TaskExecutor.cancel(this);
+
+        ImageFileCache cache = ImageFileCache.getInstance(getContext());
+        if (cache != null)
+            cache.unpin(ImageFileCache.getKey(url));
 
         if (imageView != null)
             imageView.recycle();
@@ -159,19 +178,19 @@ public class ImageFragment extends Fragment {
     }
 
     /**
-     * Create an image from a byte array.
+     * Create an image from a downloaded file.
      *
-     * @param imageBytes the image's byte array
+     * @param imageFile the file the image was downloaded to
      */
-    private void createImage(byte[] imageBytes) {
+    private void createImage(File imageFile) {
         View view = getView();
         if (view == null) {
             Log.v(TAG, "createImage: no view");
             return;
         }
 
-        this.imageBytes = imageBytes;
-        if (imageBytes != null) {
+        this.imageFile = imageFile;
+        if (imageFile != null) {
             try {
                 // Can we parse this as GIF?
                 createGif(view);
@@ -193,11 +212,22 @@ public class ImageFragment extends Fragment {
     }
 
 
+    /**
+     * JPEGs can't be transparent, so they're decoded with half the memory per pixel. Anything else keeps its alpha
+     * channel.
+     */
+    private static Bitmap.Config getBitmapConfig(File file) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        return "image/jpeg".equals(options.outMimeType) ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+    }
+
     /**
      * Create a bitmap from a PNG/JPG.
      *
      * @param fragmentRootView the root view of the current fragment
-     * @see #createImage(byte[])
+     * @see #createImage(File)
      * @see #onCreateView(LayoutInflater, ViewGroup, Bundle)
      */
     private void createBitmap(@NonNull final View fragmentRootView) {
@@ -213,7 +243,9 @@ public class ImageFragment extends Fragment {
                 return new ImageDecoder() {
                     @Override
                     public Bitmap decode(Context context, Uri uri) throws Exception {
-                        return BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
+                        BitmapFactory.Options options = new BitmapFactory.Options();
+                        options.inPreferredConfig = getBitmapConfig(imageFile);
+                        return BitmapFactory.decodeFile(imageFile.getPath(), options);
                     }
                 };
             }
@@ -227,10 +259,12 @@ public class ImageFragment extends Fragment {
                 return new ImageRegionDecoder() {
                     private final Object decoderLock = new Object();
                     private BitmapRegionDecoder decoder;
+                    private Bitmap.Config config;
 
                     @Override
                     public Point init(Context context, Uri uri) throws Exception {
-                        decoder = BitmapRegionDecoder.newInstance(imageBytes, 0, imageBytes.length, true);
+                        config = getBitmapConfig(imageFile);
+                        decoder = BitmapRegionDecoder.newInstance(imageFile.getPath(), true);
                         return new Point(decoder.getWidth(), decoder.getHeight());
                     }
 
@@ -239,7 +273,7 @@ public class ImageFragment extends Fragment {
                         synchronized (this.decoderLock) {
                             BitmapFactory.Options options = new BitmapFactory.Options();
                             options.inSampleSize = sampleSize;
-                            options.inPreferredConfig = Bitmap.Config.RGB_565;
+                            options.inPreferredConfig = config;
                             Bitmap bitmap = this.decoder.decodeRegion(rect, options);
                             if (bitmap == null) {
                                 imageView.setVisibility(View.GONE);
@@ -277,12 +311,12 @@ public class ImageFragment extends Fragment {
      * Setup the container for a GIF file.
      *
      * @param fragmentRootView the root view of the current fragment
-     * @see #createImage(byte[])
+     * @see #createImage(File)
      * @see #onCreateView(LayoutInflater, ViewGroup, Bundle)
      */
     private void createGif(@NonNull View fragmentRootView) throws IOException {
         // Create the drawable, this will throw an exception if it's not a valid gif.
-        gifDrawable = new GifDrawable(imageBytes);
+        gifDrawable = new GifDrawable(imageFile);
         Log.v(TAG, "Creating gif for " + url);
 
         // Hide the progress bar
@@ -303,7 +337,7 @@ public class ImageFragment extends Fragment {
      * Has no image, allow open in browser instead.
      *
      * @param fragmentRootView the root view of the current fragment
-     * @see #createImage(byte[])
+     * @see #createImage(File)
      * @see #onCreateView(LayoutInflater, ViewGroup, Bundle)
      */
     private void showOpenInBrowserLink(@NonNull View fragmentRootView) {
@@ -322,16 +356,18 @@ public class ImageFragment extends Fragment {
     /**
      * Task to load the image asynchronously.
      */
-    private class FetchImageTask extends AsyncTask<Void, Void, byte[]> {
+    private class FetchImageTask extends AsyncTask<Void, Void, File> {
+        private final Context context = getContext();
+
         @Override
-        protected byte[] doInBackground(Void... params) {
+        protected File doInBackground(Void... params) {
             try {
-                // Grab an input stream to the image
-                OkHttpDownloader downloader = new OkHttpDownloader(getContext());
-                Downloader.Response response = downloader.load(Uri.parse(url), 0);
+                ImageFileCache cache = ImageFileCache.getInstance(context);
+                if (cache == null)
+                    return null;
 
-                // Read the image into a byte array
-                return Okio.buffer(Okio.source(response.getInputStream())).readByteArray();
+                // Stream the image into a file, rather than reading it into memory
+                return cache.download(context, url);
             } catch (Exception e) {
                 Log.d(ImageFragment.class.getSimpleName(), "Error fetching image", e);
                 return null;
@@ -340,7 +376,7 @@ public class ImageFragment extends Fragment {
 
         @Override
         @SuppressWarnings("deprecation")
-        protected void onPostExecute(byte[] response) {
+        protected void onPostExecute(File response) {
             createImage(response);
         }
     }
@@ -29,6 +29,11 @@ public class ImagePagerFragment extends Fragment {
     private static final String ARG_IMAGES = "images";
     private List<Image> images;
 
+    /**
+     * Downloads the images next to the current one, if enabled.
+     */
+    private ImagePrefetcher prefetcher;
+
     public static ImagePagerFragment newInstance(List<Image> images) {
         ImagePagerFragment fragment = new ImagePagerFragment();
 
@@ -45,6 +50,15 @@ public class ImagePagerFragment extends Fragment {
         super.onCreate(savedInstanceState);
 
         images = (List<Image>) getArguments().getSerializable(ARG_IMAGES);
+        prefetcher = ImagePrefetcher.create(getContext(), images);
+    }
+
+    @Override
+    public void onDestroy() {
+        if (prefetcher != null)
+            prefetcher.cancel();
+
+        super.onDestroy();
     }
 
     @Nullable
@@ -108,6 +122,10 @@ public class ImagePagerFragment extends Fragment {
 
                     ((TextView) view.findViewById(R.id.image_number)).setText(index_and_title);
                     ((TextView) view.findViewById(R.id.image_url)).setText(image.getUrl());
+
+                    // Load the images around this one while it's being looked at.
+                    if (prefetcher != null)
+                        prefetcher.setCurrentPosition(currentPosition);
                 }
             }
         };
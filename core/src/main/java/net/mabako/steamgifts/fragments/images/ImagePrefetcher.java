@@ -0,0 +1,222 @@
+package net.mabako.steamgifts.fragments.images;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.preference.PreferenceManager;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import net.mabako.steamgifts.data.Image;
+import net.mabako.steamgifts.fragments.ListFragment;
+import net.mabako.steamgifts.network.ImageFileCache;
+import net.mabako.steamgifts.tasks.TaskExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Downloads the images next to the one currently shown into the {@link ImageFileCache}, so swiping to them doesn't
+ * have to wait for the network.
+ * <p>Images are only downloaded, not decoded; decoding is left to the {@link ImageFragment}s the pager creates. Images
+ * closest to the current one are loaded first, the next image before the previous one, and one at a time.</p>
+ */
+class ImagePrefetcher {
+    private static final String TAG = ImagePrefetcher.class.getSimpleName();
+
+    /**
+     * Devices with at most this much memory per app, in megabytes, only prefetch the images right next to the current
+     * one, and less of them.
+     */
+    private static final int LOW_MEMORY_CLASS = 64;
+
+    /**
+     * How many images before and after the current one are downloaded; one is enough to swipe either way without
+     * waiting, two allow for swiping quickly.
+     */
+    private static final int LOW_MEMORY_DISTANCE = 1;
+    private static final int DEFAULT_DISTANCE = 2;
+
+    /**
+     * Largest single image to download. Anything larger is mostly a photo that takes a while to decode anyway, and is
+     * left for when it's shown.
+     */
+    private static final long LOW_MEMORY_MAX_IMAGE_SIZE = 2 * 1024 * 1024;
+    private static final long DEFAULT_MAX_IMAGE_SIZE = 5 * 1024 * 1024;
+
+    /**
+     * How many bytes are downloaded at most for a single pager, so long galleries don't push everything else out of
+     * the {@link ImageFileCache}.
+     */
+    private static final long LOW_MEMORY_MAX_TOTAL_SIZE = 6 * 1024 * 1024;
+    private static final long DEFAULT_MAX_TOTAL_SIZE = 15 * 1024 * 1024;
+
+    private final Context context;
+    private final List<Image> images;
+
+    /**
+     * How many images before and after the current one are downloaded.
+     */
+    private final int distance;
+
+    /**
+     * Largest single image to download, in bytes.
+     */
+    private final long maxImageSize;
+
+    /**
+     * How many bytes to download at most, for all images together.
+     */
+    private final long maxTotalSize;
+
+    /**
+     * Urls of all images downloaded or skipped already.
+     */
+    private final Set<String> done = new HashSet<>();
+
+    private long totalSize = 0;
+    private int position = 0;
+    private boolean running = false;
+    private boolean cancelled = false;
+
+    /**
+     * @param context      context to find the cache with
+     * @param images       all images shown in the pager
+     * @param distance     how many images before and after the current one are downloaded
+     * @param maxImageSize largest single image to download, in bytes
+     * @param maxTotalSize how many bytes to download at most, for all images together
+     */
+    ImagePrefetcher(Context context, List<Image> images, int distance, long maxImageSize, long maxTotalSize) {
+        this.context = context.getApplicationContext();
+        this.images = images;
+        this.distance = distance;
+        this.maxImageSize = maxImageSize;
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    /**
+     * Creates a prefetcher with limits fitting the device's memory, or none at all if prefetching is disabled.
+     */
+    @Nullable
+    static ImagePrefetcher create(Context context, List<Image> images) {
+        if (images.size() <= 1 || !isEnabled(context))
+            return null;
+
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean lowMemory = am.getMemoryClass() <= LOW_MEMORY_CLASS || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && am.isLowRamDevice());
+        if (lowMemory)
+            return new ImagePrefetcher(context, images, LOW_MEMORY_DISTANCE, LOW_MEMORY_MAX_IMAGE_SIZE, LOW_MEMORY_MAX_TOTAL_SIZE);
+        else
+            return new ImagePrefetcher(context, images, DEFAULT_DISTANCE, DEFAULT_MAX_IMAGE_SIZE, DEFAULT_MAX_TOTAL_SIZE);
+    }
+
+    /**
+     * Images are only loaded ahead of time if pages are as well.
+     */
+    private static boolean isEnabled(Context context) {
+        try {
+            return Integer.parseInt(PreferenceManager.getDefaultSharedPreferences(context).getString(ListFragment.PREF_PREFETCH_PAGES, "1")) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts downloading the images around the one currently shown. This must be called on the main thread.
+     *
+     * @param position position of the image currently shown
+     */
+    void setCurrentPosition(int position) {
+        synchronized (this) {
+            if (cancelled)
+                return;
+
+            this.position = position;
+            if (running)
+                return;
+
+            running = true;
+        }
+
+        TaskExecutor.execute(new PrefetchTask(), TaskExecutor.Priority.BACKGROUND);
+    }
+
+    /**
+     * Stops downloading any more images; the image currently being downloaded is still finished.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Takes the closest image to the current one that was not downloaded yet.
+     *
+     * @return the url of the image, or null if there's nothing left to load
+     */
+    @Nullable
+    private synchronized String takeNext() {
+        if (!cancelled && totalSize < maxTotalSize) {
+            for (int i = 1; i <= distance; ++i) {
+                String url = getUrl(position + i);
+                if (url == null)
+                    url = getUrl(position - i);
+
+                if (url != null) {
+                    done.add(url);
+                    return url;
+                }
+            }
+        }
+
+        running = false;
+        return null;
+    }
+
+    /**
+     * @return the url of the image at the given position, or null if there's no such image or it was already loaded
+     */
+    @Nullable
+    private String getUrl(int position) {
+        if (position < 0 || position >= images.size())
+            return null;
+
+        String url = images.get(position).getUrl();
+        return done.contains(url) ? null : url;
+    }
+
+    private synchronized void addSize(long size) {
+        totalSize += size;
+    }
+
+    /**
+     * Loads images until there are none left.
+     */
+    private class PrefetchTask extends AsyncTask<Void, Void, Void> {
+        @Override
+        protected Void doInBackground(Void... params) {
+            ImageFileCache cache = ImageFileCache.getInstance(context);
+            if (cache == null) {
+                synchronized (ImagePrefetcher.this) {
+                    running = false;
+                }
+                return null;
+            }
+
+            String url;
+            while ((url = takeNext()) != null) {
+                try {
+                    File file = cache.download(context, url, maxImageSize);
+                    if (file != null)
+                        addSize(file.length());
+                } catch (IOException e) {
+                    Log.v(TAG, "Unable to prefetch " + url, e);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package net.mabako.steamgifts.fragments.profile;
 
-import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
@@ -9,19 +8,43 @@ import android.support.annotation.NonNull;
 import net.mabako.steamgifts.adapters.GiveawayAdapter;
 import net.mabako.steamgifts.adapters.IEndlessAdaptable;
 import net.mabako.steamgifts.core.R;
-import net.mabako.steamgifts.data.Game;
 import net.mabako.steamgifts.fragments.ListFragment;
 import net.mabako.steamgifts.fragments.interfaces.IActivityTitle;
+import net.mabako.steamgifts.tasks.GiveawayTableRowParser;
 import net.mabako.steamgifts.tasks.LoadGameListTask;
+import net.mabako.steamgifts.tasks.Selectors;
+import net.mabako.steamgifts.tasks.TableRowParser;
 import net.mabako.steamgifts.tasks.Utils;
 
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.io.Serializable;
-import java.util.List;
 
 public class CreatedListFragment extends ListFragment<GiveawayAdapter> implements IActivityTitle {
+    private static final TableRowParser<ProfileGiveaway> PARSER = new GiveawayTableRowParser<ProfileGiveaway>() {
+        private final Field columns = field(Selectors.Table.CENTERED_COLUMNS);
+        private final Field end = field(Selectors.Table.CREATED_END_TIME);
+        private final Field deleted = field(Selectors.Table.DELETED);
+
+        @Override
+        protected ProfileGiveaway newGiveaway(String giveawayId) {
+            return new ProfileGiveaway(giveawayId);
+        }
+
+        @Override
+        protected void load(ProfileGiveaway giveaway, Row row) {
+            Elements columns = row.all(this.columns);
+            giveaway.setEntries(Utils.parseInt(columns.get(1).text()));
+
+            Element end = row.first(this.end);
+            giveaway.setEndTime(Integer.valueOf(end.attr("data-timestamp")), end.parent().text().trim());
+
+            giveaway.setEntered("Unsent".equals(columns.get(1).text()));
+            giveaway.setDeleted(row.exists(deleted));
+        }
+    };
+
     @Override
     public int getTitleResource() {
         return R.string.user_tab_created;
@@ -48,41 +71,8 @@ public class CreatedListFragment extends ListFragment<GiveawayAdapter> implement
     protected AsyncTask<Void, Void, ?> getFetchItemsTask(int page) {
         return new LoadGameListTask(this, getContext(), "giveaways/created", page, null) {
             @Override
-            protected IEndlessAdaptable load(Element element) {
-                Element firstColumn = element.select(".table__column--width-fill").first();
-                Element link = firstColumn.select("a.table__column__heading").first();
-
-                Uri linkUri = Uri.parse(link.attr("href"));
-                String giveawayLink = linkUri.getPathSegments().get(1);
-                String giveawayName = linkUri.getPathSegments().get(2);
-
-                ProfileGiveaway giveaway = new ProfileGiveaway(giveawayLink);
-                giveaway.setName(giveawayName);
-                giveaway.setTitle(link.text());
-
-
-                Element image = element.select(".global__image-inner-wrap").first();
-                if (image != null) {
-                    Uri uri = Uri.parse(Utils.extractAvatar(image.attr("style")));
-                    List<String> pathSegments = uri.getPathSegments();
-                    if (pathSegments.size() >= 3) {
-                        giveaway.setGame(new Game("apps".equals(pathSegments.get(1)) ? Game.Type.APP : Game.Type.SUB, Integer.parseInt(pathSegments.get(2))));
-                    }
-                }
-
-
-                Elements columns = element.select(".table__column--width-small.text-center");
-
-                giveaway.setPoints(-1);
-                giveaway.setEntries(Utils.parseInt(columns.get(1).text()));
-
-                Element end = firstColumn.select("span > span").first();
-                giveaway.setEndTime(Integer.valueOf(end.attr("data-timestamp")), end.parent().text().trim());
-
-                giveaway.setEntered("Unsent".equals(columns.get(1).text()));
-                giveaway.setDeleted(!element.select(".table__column__deleted").isEmpty());
-
-                return giveaway;
+            protected TableRowParser<? extends IEndlessAdaptable> getParser() {
+                return PARSER;
             }
         };
     }
@@ -14,6 +14,7 @@ import net.mabako.steamgifts.fragments.interfaces.IActivityTitle;
 import net.mabako.steamgifts.fragments.interfaces.IHasEnterableGiveaways;
 import net.mabako.steamgifts.fragments.util.GiveawayListFragmentStack;
 import net.mabako.steamgifts.tasks.EnterLeaveGiveawayTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.io.Serializable;
 
@@ -60,7 +61,7 @@ public class EnteredListFragment extends ListFragment<GiveawayAdapter> implement
         // enterLeaveTask.cancel(true);
 
         enterLeaveTask = new EnterLeaveGiveawayTask(this, getContext(), giveawayId, xsrfToken, what);
-        enterLeaveTask.execute();
+        TaskExecutor.execute(enterLeaveTask, TaskExecutor.Priority.USER_ACTION);
     }
 
     @Override
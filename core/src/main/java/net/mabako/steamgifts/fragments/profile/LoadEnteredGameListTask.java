@@ -1,57 +1,47 @@
 package net.mabako.steamgifts.fragments.profile;
 
-import android.net.Uri;
-
 import net.mabako.steamgifts.adapters.IEndlessAdaptable;
-import net.mabako.steamgifts.data.Game;
 import net.mabako.steamgifts.fragments.ListFragment;
+import net.mabako.steamgifts.tasks.GiveawayTableRowParser;
 import net.mabako.steamgifts.tasks.LoadGameListTask;
+import net.mabako.steamgifts.tasks.Selectors;
+import net.mabako.steamgifts.tasks.TableRowParser;
 import net.mabako.steamgifts.tasks.Utils;
 
 import org.jsoup.nodes.Element;
 
-import java.util.List;
-
 public class LoadEnteredGameListTask extends LoadGameListTask {
     public static final int ENTRIES_PER_PAGE = 50;
 
-    public LoadEnteredGameListTask(ListFragment listFragment, int page) {
-        super(listFragment, listFragment.getContext(), "giveaways/entered", page, null);
-    }
+    private static final TableRowParser<ProfileGiveaway> PARSER = new GiveawayTableRowParser<ProfileGiveaway>() {
+        private final Field entries = field(Selectors.Table.SMALL_COLUMNS);
+        private final Field end = field(Selectors.Table.ENTERED_END_TIME);
+        private final Field deleted = field(Selectors.Table.DELETED);
 
-    @Override
-    protected IEndlessAdaptable load(Element element) {
-        Element firstColumn = element.select(".table__column--width-fill").first();
-        Element link = firstColumn.select("a.table__column__heading").first();
-
-        Uri linkUri = Uri.parse(link.attr("href"));
-        String giveawayLink = linkUri.getPathSegments().get(1);
-        String giveawayName = linkUri.getPathSegments().get(2);
-
-        ProfileGiveaway giveaway = new ProfileGiveaway(giveawayLink);
-        giveaway.setName(giveawayName);
-        giveaway.setTitle(link.text());
-
-
-        Element image = element.select(".global__image-inner-wrap").first();
-        if (image != null) {
-            Uri uri = Uri.parse(Utils.extractAvatar(image.attr("style")));
-            List<String> pathSegments = uri.getPathSegments();
-            if (pathSegments.size() >= 3) {
-                giveaway.setGame(new Game("apps".equals(pathSegments.get(1)) ? Game.Type.APP : Game.Type.SUB, Integer.parseInt(pathSegments.get(2))));
-            }
+        @Override
+        protected ProfileGiveaway newGiveaway(String giveawayId) {
+            return new ProfileGiveaway(giveawayId);
         }
 
-        giveaway.setPoints(-1);
-        giveaway.setEntries(Utils.parseInt(element.select(".table__column--width-small").first().text()));
+        @Override
+        protected void load(ProfileGiveaway giveaway, Row row) {
+            giveaway.setEntries(Utils.parseInt(row.first(entries).text()));
 
-        Element end = firstColumn.select("p > span").first();
-        if (end != null)
-            giveaway.setEndTime(Integer.valueOf(end.attr("data-timestamp")), end.parent().text().trim());
+            Element end = row.first(this.end);
+            if (end != null)
+                giveaway.setEndTime(Integer.valueOf(end.attr("data-timestamp")), end.parent().text().trim());
 
-        giveaway.setEntered(giveaway.isOpen());
-        giveaway.setDeleted(!element.select(".table__column__deleted").isEmpty());
+            giveaway.setEntered(giveaway.isOpen());
+            giveaway.setDeleted(row.exists(deleted));
+        }
+    };
+
+    public LoadEnteredGameListTask(ListFragment listFragment, int page) {
+        super(listFragment, listFragment.getContext(), "giveaways/entered", page, null);
+    }
 
-        return giveaway;
+    @Override
+    protected TableRowParser<? extends IEndlessAdaptable> getParser() {
+        return PARSER;
     }
 }
@@ -26,6 +26,7 @@ import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.receivers.CheckForNewMessages;
 import net.mabako.steamgifts.tasks.LoadMessagesTask;
 import net.mabako.steamgifts.tasks.MarkMessagesReadTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.io.Serializable;
 import java.util.List;
@@ -113,7 +114,7 @@ public class MessageListFragment extends ListFragment<MessageAdapter> implements
             showProfile(SteamGiftsUserData.getCurrent(getContext()).getName());
             return true;
         } else if (itemId == R.id.mark_read) {
-            new MarkMessagesReadTask(this, adapter.getXsrfToken()).execute();
+            TaskExecutor.execute(new MarkMessagesReadTask(this, adapter.getXsrfToken()), TaskExecutor.Priority.USER_ACTION);
             return true;
         } else {
             return super.onOptionsItemSelected(item);
@@ -2,6 +2,7 @@ package net.mabako.steamgifts.fragments.profile;
 
 import android.content.Context;
 
+import net.mabako.steamgifts.adapters.IStableIdAdaptable;
 import net.mabako.steamgifts.data.Giveaway;
 
 /**
@@ -35,6 +36,11 @@ public class ProfileGiveaway extends Giveaway {
         return !deleted && super.isEntered();
     }
 
+    @Override
+    public boolean contentEquals(IStableIdAdaptable other) {
+        return super.contentEquals(other) && deleted == ((ProfileGiveaway) other).deleted;
+    }
+
     @Override
     public String getRelativeEndTime(Context context) {
         if (deleted)
@@ -0,0 +1,83 @@
+package net.mabako.steamgifts.network;
+
+import android.graphics.Bitmap;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitmaps that are no longer used, to be decoded into again instead of allocating new ones.
+ * <p>Only bitmaps that are never shown anywhere may be put in here, since their content is overwritten as soon as
+ * they're taken out again.</p>
+ */
+class BitmapPool {
+    private final long maxSize;
+    private long size = 0;
+
+    private final Map<String, List<Bitmap>> bitmaps = new HashMap<>();
+
+    /**
+     * Bitmaps in the order they were put in, so the oldest are dropped first.
+     */
+    private final LinkedList<Bitmap> order = new LinkedList<>();
+
+    /**
+     * @param maxSize size of all pooled bitmaps in bytes
+     */
+    BitmapPool(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Takes a bitmap with exactly the given dimensions out of the pool.
+     *
+     * @return the bitmap, or null if there is none
+     */
+    @Nullable
+    synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        List<Bitmap> list = bitmaps.get(getKey(width, height, config));
+        if (list == null || list.isEmpty())
+            return null;
+
+        Bitmap bitmap = list.remove(list.size() - 1);
+        order.remove(bitmap);
+        size -= bitmap.getRowBytes() * bitmap.getHeight();
+        return bitmap;
+    }
+
+    /**
+     * Puts a bitmap in the pool, or recycles it if it can't be reused.
+     */
+    synchronized void put(Bitmap bitmap) {
+        long bitmapSize = bitmap.getRowBytes() * bitmap.getHeight();
+        if (bitmap.isRecycled() || !bitmap.isMutable() || bitmap.getConfig() == null || bitmapSize > maxSize) {
+            bitmap.recycle();
+            return;
+        }
+
+        String key = getKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        List<Bitmap> list = bitmaps.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            bitmaps.put(key, list);
+        }
+        list.add(bitmap);
+        order.add(bitmap);
+        size += bitmapSize;
+
+        while (size > maxSize) {
+            Bitmap oldest = order.removeFirst();
+            bitmaps.get(getKey(oldest.getWidth(), oldest.getHeight(), oldest.getConfig())).remove(oldest);
+            size -= oldest.getRowBytes() * oldest.getHeight();
+            oldest.recycle();
+        }
+    }
+
+    private static String getKey(int width, int height, Bitmap.Config config) {
+        return width + "x" + height + "-" + config;
+    }
+}
@@ -0,0 +1,328 @@
+package net.mabako.steamgifts.network;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded on-disk cache for full-sized images, such as attached images and screenshots.
+ * <p>Images are streamed to a file as they're downloaded, and are then decoded from that file, so they never have to
+ * be held in memory as a whole.</p>
+ */
+public final class ImageFileCache {
+    private static final String TAG = ImageFileCache.class.getSimpleName();
+
+    private static final String DIRECTORY = "fullimages";
+    private static final long MAX_SIZE = 30 * 1024 * 1024;
+
+    /**
+     * Suffix for images that are currently being downloaded.
+     */
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    /**
+     * Passed as max length to download images of any size.
+     */
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private static ImageFileCache instance;
+
+    private final File directory;
+    private long size = -1;
+
+    /**
+     * Keys of all images currently being downloaded.
+     */
+    private final Set<String> downloading = new HashSet<>();
+
+    /**
+     * Keys of all images currently shown, and how often each of them is shown.
+     * <p>These are never evicted, even if they haven't been used in a while.</p>
+     */
+    private final Map<String, Integer> pinned = new HashMap<>();
+
+    private ImageFileCache(File directory) {
+        this.directory = directory;
+    }
+
+    @Nullable
+    public static synchronized ImageFileCache getInstance(@Nullable Context context) {
+        if (instance == null) {
+            if (context == null)
+                return null;
+
+            File directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                Log.w(TAG, "Unable to create cache directory " + directory);
+                return null;
+            }
+
+            // Whatever was being downloaded the last time the app was running won't ever be finished.
+            File[] files = directory.listFiles();
+            if (files != null)
+                for (File file : files)
+                    if (file.getName().endsWith(PARTIAL_SUFFIX))
+                        file.delete();
+
+            instance = new ImageFileCache(directory);
+        }
+        return instance;
+    }
+
+    /**
+     * @return the key to store an image with the given url as
+     */
+    public static String getKey(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(url.getBytes("UTF-8"));
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash)
+                sb.append(String.format(Locale.ENGLISH, "%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Keeps the image with the given key from being evicted until {@link #unpin(String)} is called, for example while
+     * it is shown on screen.
+     * <p>The image doesn't have to be cached yet; if it is downloaded later on, it is kept from then on.</p>
+     *
+     * @param key key of the image
+     */
+    public synchronized void pin(String key) {
+        Integer count = pinned.get(key);
+        pinned.put(key, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Allows the image with the given key to be evicted again, once every {@link #pin(String)} has been undone.
+     *
+     * @param key key of the image
+     */
+    public synchronized void unpin(String key) {
+        Integer count = pinned.get(key);
+        if (count == null)
+            return;
+
+        if (count > 1)
+            pinned.put(key, count - 1);
+        else
+            pinned.remove(key);
+    }
+
+    /**
+     * Returns the file a completely downloaded image was saved in.
+     *
+     * @param key key of the image
+     * @return the file, or null if the image isn't cached
+     */
+    @Nullable
+    public synchronized File get(String key) {
+        File file = new File(directory, key);
+        if (!file.isFile())
+            return null;
+
+        // Least recently used images are evicted first.
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Downloads an image into the cache, unless it already is cached.
+     *
+     * @param context context used to fetch the current session, if any
+     * @param url     url of the image
+     * @return the file the image was saved in
+     */
+    public File download(Context context, String url) throws IOException {
+        File file = download(context, url, NO_LIMIT);
+        if (file == null)
+            throw new IOException("Unable to download " + url);
+        return file;
+    }
+
+    /**
+     * Downloads an image into the cache, unless it already is cached.
+     * <p>If the same image is already being downloaded, this waits for that download to finish instead of starting
+     * another one.</p>
+     *
+     * @param context   context used to fetch the current session, if any
+     * @param url       url of the image
+     * @param maxLength largest image to download, in bytes
+     * @return the file the image was saved in, or null if the image is larger than <code>maxLength</code>
+     */
+    @Nullable
+    public File download(Context context, String url, long maxLength) throws IOException {
+        String key = getKey(url);
+        synchronized (this) {
+            File file;
+            while ((file = get(key)) == null && downloading.contains(key)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for " + url);
+                }
+            }
+
+            if (file != null)
+                return file;
+
+            downloading.add(key);
+        }
+
+        try {
+            return fetch(context, url, key, maxLength);
+        } finally {
+            synchronized (this) {
+                downloading.remove(key);
+                notifyAll();
+            }
+        }
+    }
+
+    @Nullable
+    private File fetch(Context context, String url, String key, long maxLength) throws IOException {
+        SteamGiftsHttpClient.Response response = SteamGiftsHttpClient.get(context, url).execute();
+        if (response.statusCode() != 200) {
+            response.close();
+            throw new IOException("HTTP error fetching image, status " + response.statusCode() + ", url " + url);
+        }
+
+        if (getContentLength(response) > maxLength) {
+            response.close();
+            return null;
+        }
+
+        // Write everything to a file of its own first, so nobody reads a partially downloaded image.
+        File partialFile = File.createTempFile(key, PARTIAL_SUFFIX, directory);
+        InputStream in = response.bodyStream();
+        try {
+            OutputStream out = new FileOutputStream(partialFile);
+            try {
+                byte[] buffer = new byte[8192];
+                long length = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    length += read;
+                    if (length > maxLength) {
+                        // The server didn't tell us how large the image was.
+                        out.close();
+                        partialFile.delete();
+                        return null;
+                    }
+
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            partialFile.delete();
+            throw e;
+        } finally {
+            in.close();
+        }
+
+        return put(key, partialFile);
+    }
+
+    /**
+     * @return the length of the response body in bytes, or -1 if the server didn't say
+     */
+    private static long getContentLength(SteamGiftsHttpClient.Response response) {
+        String contentLength = response.header("Content-Length");
+        if (contentLength == null)
+            return -1;
+
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private synchronized File put(String key, File partialFile) throws IOException {
+        File file = new File(directory, key);
+        long previousLength = file.length();
+
+        if (!partialFile.renameTo(file)) {
+            partialFile.delete();
+            throw new IOException("Unable to save " + file);
+        }
+
+        size = getSize() - previousLength + file.length();
+        trimToSize(file);
+        return file;
+    }
+
+    private long getSize() {
+        if (size < 0) {
+            size = 0;
+            File[] files = directory.listFiles();
+            if (files != null)
+                for (File file : files)
+                    size += file.length();
+        }
+        return size;
+    }
+
+    /**
+     * Removes the least recently used images until the cache is small enough again.
+     *
+     * <p>Pinned images are never removed.</p>
+     *
+     * @param keep the image that was just added, which is kept even if it is larger than the cache itself
+     */
+    private void trimToSize(File keep) {
+        if (getSize() <= MAX_SIZE)
+            return;
+
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long l = lhs.lastModified(), r = rhs.lastModified();
+                return l < r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < files.length && size > MAX_SIZE; ++i) {
+            String name = files[i].getName();
+            if (!files[i].equals(keep) && !name.endsWith(PARTIAL_SUFFIX) && !pinned.containsKey(name))
+                remove(files[i]);
+        }
+    }
+
+    private void remove(File file) {
+        long length = file.length();
+        if (file.delete() && size >= 0)
+            size -= length;
+    }
+}
@@ -0,0 +1,149 @@
+package net.mabako.steamgifts.network;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.squareup.okhttp.Cache;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.OkHttpDownloader;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+
+import net.mabako.steamgifts.core.R;
+import net.mabako.steamgifts.data.Game;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Configures how images are loaded and cached.
+ * <p>Game capsules and avatars are shown in long lists, and each get their own {@link Picasso} instance with a memory
+ * cache of their own, so scrolling through a few hundred giveaways doesn't evict every avatar (and vice versa). All
+ * other images, such as game headers or store screenshots, go through the default instance.</p>
+ * <p>The memory caches hold the images as they are displayed, i.e. already scaled down and with rounded corners,
+ * while the downloaded images are kept in a single disk cache shared by all instances. Avatars in lists are rounded by
+ * {@link RoundedAvatarRequestHandler}, which reuses the bitmaps they're decoded into.</p>
+ */
+public final class ImageLoader {
+    private static final String TAG = ImageLoader.class.getSimpleName();
+
+    private static final String DISK_CACHE_DIRECTORY = "images";
+    private static final long DISK_CACHE_SIZE = 50 * 1024 * 1024;
+
+    /**
+     * Which part of the app's memory class is used for each memory cache. Picasso uses 1/7th by default for a single
+     * instance, which is about what all of these add up to.
+     */
+    private static final int DEFAULT_MEMORY_DIVISOR = 12;
+    private static final int CAPSULE_MEMORY_DIVISOR = 24;
+    private static final int AVATAR_MEMORY_DIVISOR = 48;
+
+    /**
+     * Size of the full avatars loaded from Steam, in pixels.
+     */
+    private static final int FULL_AVATAR_SIZE = 184;
+
+    /**
+     * Radius of the rounded corners on a full avatar.
+     */
+    private static final int FULL_AVATAR_CORNER_RADIUS = 20;
+
+    /**
+     * Size of all decoded avatars kept around to be decoded into again, in bytes.
+     */
+    private static final long AVATAR_POOL_SIZE = 512 * 1024;
+
+    private static OkHttpClient client;
+    private static Picasso capsules;
+    private static Picasso avatars;
+
+    private ImageLoader() {
+    }
+
+    /**
+     * Replaces the instance returned by {@link Picasso#with(Context)} with one using our disk cache.
+     */
+    public static synchronized void install(Context context) {
+        context = context.getApplicationContext();
+        try {
+            Picasso.setSingletonInstance(create(context, DEFAULT_MEMORY_DIVISOR, Bitmap.Config.ARGB_8888));
+        } catch (IllegalStateException e) {
+            Log.w(TAG, "Picasso was used before configuring it", e);
+        }
+    }
+
+    /**
+     * Instance used for game capsules, which are decoded without any alpha channel.
+     */
+    public static synchronized Picasso getCapsules(Context context) {
+        if (capsules == null)
+            capsules = create(context.getApplicationContext(), CAPSULE_MEMORY_DIVISOR, Bitmap.Config.RGB_565);
+        return capsules;
+    }
+
+    /**
+     * Instance used for avatars of users and groups in lists, which are all loaded at the same size and with rounded
+     * corners.
+     */
+    private static synchronized Picasso getAvatars(Context context) {
+        if (avatars == null) {
+            context = context.getApplicationContext();
+
+            // Keep the corners as round as they were on the full-sized avatar.
+            int size = context.getResources().getDimensionPixelSize(R.dimen.list_avatar_size);
+            float radius = FULL_AVATAR_CORNER_RADIUS * Math.min(size, FULL_AVATAR_SIZE) / (float) FULL_AVATAR_SIZE;
+
+            avatars = new Picasso.Builder(context)
+                    .addRequestHandler(new RoundedAvatarRequestHandler(getClient(context), new BitmapPool(AVATAR_POOL_SIZE), size, radius))
+                    .memoryCache(new LruCache(getMemoryCacheSize(context, AVATAR_MEMORY_DIVISOR)))
+                    .build();
+        }
+        return avatars;
+    }
+
+    /**
+     * Loads the capsule image of a game, as shown in lists. Capsules are decoded at most at the size of the image views
+     * in lists, but never scaled up.
+     */
+    public static RequestCreator loadCapsule(Context context, Game.Type type, int gameId) {
+        return getCapsules(context)
+                .load("http://cdn.akamai.steamstatic.com/steam/" + type.name().toLowerCase(Locale.ENGLISH) + "s/" + gameId + "/capsule_184x69.jpg")
+                .resizeDimen(R.dimen.list_capsule_width, R.dimen.list_capsule_height)
+                .centerInside()
+                .onlyScaleDown();
+    }
+
+    /**
+     * Loads an avatar as shown in lists, which is decoded to the size it is displayed at rather than the size it is
+     * loaded in.
+     */
+    public static RequestCreator loadListAvatar(Context context, String url) {
+        return getAvatars(context)
+                .load(url)
+                .placeholder(R.drawable.default_avatar_mask);
+    }
+
+    private static Picasso create(Context context, int memoryDivisor, Bitmap.Config config) {
+        return new Picasso.Builder(context)
+                .downloader(new OkHttpDownloader(getClient(context)))
+                .memoryCache(new LruCache(getMemoryCacheSize(context, memoryDivisor)))
+                .defaultBitmapConfig(config)
+                .build();
+    }
+
+    private static synchronized OkHttpClient getClient(Context context) {
+        if (client == null) {
+            client = new OkHttpClient();
+            client.setCache(new Cache(new File(context.getCacheDir(), DISK_CACHE_DIRECTORY), DISK_CACHE_SIZE));
+        }
+        return client;
+    }
+
+    private static int getMemoryCacheSize(Context context, int divisor) {
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        return (int) (1024L * 1024L * am.getMemoryClass() / divisor);
+    }
+}
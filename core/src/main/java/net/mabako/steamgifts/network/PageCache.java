@@ -0,0 +1,379 @@
+package net.mabako.steamgifts.network;
+
+import android.content.Context;
+import android.preference.PreferenceManager;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded on-disk cache for HTML pages.
+ * <p>Pages are keyed by their full url (including all filter parameters) and the session they were loaded with. Entries
+ * younger than their {@link Policy}'s max age are returned without touching the network, older entries are revalidated
+ * through a conditional GET using their <code>ETag</code> and <code>Last-Modified</code> headers.</p>
+ */
+public final class PageCache {
+    private static final String TAG = PageCache.class.getSimpleName();
+
+    private static final String DIRECTORY = "pages";
+    private static final long MAX_SIZE = 10 * 1024 * 1024;
+
+    /**
+     * Written at the start of every entry, so entries of a different layout are dropped rather than misread.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Offset of {@link Entry#fetchedAt} within each entry, right after the {@link #FORMAT_VERSION}.
+     */
+    private static final long FETCHED_AT_OFFSET = 4;
+
+    private static PageCache instance;
+
+    /**
+     * Entries fetched before this point of time are never considered fresh, but always revalidated.
+     */
+    private static volatile long staleBefore = 0;
+
+    private final File directory;
+    private long size = -1;
+
+    /**
+     * How long pages of a certain type are used without revalidating them, as configured in the preferences.
+     */
+    public enum Policy {
+        GIVEAWAY_LIST("preference_cache_giveaway_list", TimeUnit.MINUTES.toSeconds(2)),
+        DISCUSSION_LIST("preference_cache_discussion_list", TimeUnit.MINUTES.toSeconds(5)),
+        GIVEAWAY_DETAILS("preference_cache_giveaway_details", TimeUnit.MINUTES.toSeconds(1));
+
+        private final String preferenceKey;
+        private final long defaultMaxAgeSeconds;
+
+        Policy(String preferenceKey, long defaultMaxAgeSeconds) {
+            this.preferenceKey = preferenceKey;
+            this.defaultMaxAgeSeconds = defaultMaxAgeSeconds;
+        }
+
+        /**
+         * @return max age in milliseconds, 0 to always revalidate
+         */
+        public long getMaxAge(Context context) {
+            String maxAge = PreferenceManager.getDefaultSharedPreferences(context).getString(preferenceKey, null);
+            try {
+                return TimeUnit.SECONDS.toMillis(maxAge != null ? Long.parseLong(maxAge) : defaultMaxAgeSeconds);
+            } catch (NumberFormatException e) {
+                return TimeUnit.SECONDS.toMillis(defaultMaxAgeSeconds);
+            }
+        }
+    }
+
+    private PageCache(File directory) {
+        this.directory = directory;
+    }
+
+    @Nullable
+    public static synchronized PageCache getInstance(@Nullable Context context) {
+        if (instance == null) {
+            if (context == null)
+                return null;
+
+            File directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                Log.w(TAG, "Unable to create cache directory " + directory);
+                return null;
+            }
+            instance = new PageCache(directory);
+        }
+        return instance;
+    }
+
+    /**
+     * Forces all currently cached pages to be revalidated the next time they're requested, for example after a giveaway
+     * has been entered or a comment has been posted.
+     */
+    public static void markAllStale() {
+        staleBefore = System.currentTimeMillis();
+    }
+
+    static String getKey(String url, @Nullable String sessionId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(url.getBytes("UTF-8"));
+            if (sessionId != null) {
+                digest.update((byte) '\n');
+                digest.update(sessionId.getBytes("UTF-8"));
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest())
+                sb.append(String.format(Locale.ENGLISH, "%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nullable
+    synchronized Entry get(String key) {
+        File file = new File(directory, key);
+        if (!file.isFile())
+            return null;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+            if (in.readInt() != FORMAT_VERSION)
+                throw new IOException("Unknown format");
+
+            Entry entry = new Entry();
+            entry.fetchedAt = in.readLong();
+            entry.url = in.readUTF();
+            entry.charset = emptyToNull(in.readUTF());
+            entry.etag = emptyToNull(in.readUTF());
+            entry.lastModified = emptyToNull(in.readUTF());
+            entry.body = readFully(in);
+
+            // Least recently used entries are evicted first.
+            file.setLastModified(System.currentTimeMillis());
+            return entry;
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read cache entry " + key, e);
+            remove(file);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    synchronized void put(String key, Entry entry) {
+        File file = new File(directory, key);
+        long previousLength = file.length();
+
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(entry.fetchedAt);
+            out.writeUTF(entry.url);
+            out.writeUTF(nullToEmpty(entry.charset));
+            out.writeUTF(nullToEmpty(entry.etag));
+            out.writeUTF(nullToEmpty(entry.lastModified));
+            out.write(entry.body);
+            out.close();
+            out = null;
+
+            size = getSize() - previousLength + file.length();
+            trimToSize();
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write cache entry " + key, e);
+            closeQuietly(out);
+            remove(file);
+        }
+    }
+
+    /**
+     * Wraps the body of a page that's being loaded, so the page is cached as soon as it's been read entirely.
+     * <p>Pages that are only read in part, or fail to load, are not cached.</p>
+     *
+     * @param entry the page without its body, which is filled in once the stream ends
+     */
+    InputStream writeThrough(String key, Entry entry, InputStream in) {
+        return new WriteThroughInputStream(key, entry, in);
+    }
+
+    /**
+     * Updates when an entry was fetched, for pages that were revalidated without any change, without writing the
+     * (unchanged) body all over again.
+     */
+    synchronized void touch(String key, long fetchedAt) {
+        File file = new File(directory, key);
+        if (!file.isFile())
+            return;
+
+        RandomAccessFile out = null;
+        try {
+            out = new RandomAccessFile(file, "rw");
+            out.seek(FETCHED_AT_OFFSET);
+            out.writeLong(fetchedAt);
+            out.close();
+            out = null;
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to update cache entry " + key, e);
+            closeQuietly(out);
+            remove(file);
+        }
+    }
+
+    /**
+     * Removes all cached pages, for example once the user logged out.
+     */
+    public synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                remove(file);
+        size = 0;
+    }
+
+    private long getSize() {
+        if (size < 0) {
+            size = 0;
+            File[] files = directory.listFiles();
+            if (files != null)
+                for (File file : files)
+                    size += file.length();
+        }
+        return size;
+    }
+
+    private void trimToSize() {
+        if (getSize() <= MAX_SIZE)
+            return;
+
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long l = lhs.lastModified(), r = rhs.lastModified();
+                return l < r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < files.length && size > MAX_SIZE; ++i)
+            remove(files[i]);
+    }
+
+    private void remove(File file) {
+        long length = file.length();
+        if (file.delete() && size >= 0)
+            size -= length;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // nothing to do here
+            }
+        }
+    }
+
+    private static String emptyToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    /**
+     * Keeps a copy of everything read, and puts it into the cache once the end of the stream is reached.
+     */
+    private class WriteThroughInputStream extends FilterInputStream {
+        private final String key;
+        private final Entry entry;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private WriteThroughInputStream(String key, Entry entry, InputStream in) {
+            super(in);
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1)
+                finish();
+            else if (copy != null)
+                copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read == -1)
+                finish();
+            else if (copy != null)
+                copy.write(buffer, offset, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Whatever is skipped is missing from the copy.
+            copy = null;
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void finish() {
+            if (copy == null)
+                return;
+
+            entry.body = copy.toByteArray();
+            copy = null;
+            put(key, entry);
+        }
+    }
+
+    /**
+     * A single cached page.
+     */
+    static class Entry {
+        /**
+         * Final url of the page, after following all redirects.
+         */
+        String url;
+        String charset;
+        String etag;
+        String lastModified;
+        long fetchedAt;
+        byte[] body;
+
+        boolean isFresh(long maxAge) {
+            return fetchedAt >= staleBefore && System.currentTimeMillis() - fetchedAt < maxAge;
+        }
+    }
+}
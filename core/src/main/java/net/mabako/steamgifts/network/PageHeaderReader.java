@@ -0,0 +1,109 @@
+package net.mabako.steamgifts.network;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Passes a page through unchanged, while picking out the markup of its <code>&lt;header&gt;</code> on the way.
+ * <p>The header holds the navigation bar with the current user's points, level and notifications, and comes before
+ * anything else on the page. As soon as it's been read, it is handed to the {@link Listener}, even though the rest of
+ * the page is still being downloaded.</p>
+ */
+class PageHeaderReader extends FilterReader {
+    private static final String START_TAG = "<header";
+    private static final String END_TAG = "</header>";
+
+    /**
+     * How many characters of header markup are kept at most, in case the header is never closed.
+     */
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    private final Listener listener;
+
+    /**
+     * Markup of the header read so far, or null if the header didn't start yet.
+     */
+    private StringBuilder header = null;
+
+    /**
+     * How many characters of {@link #START_TAG} were just read.
+     */
+    private int matched = 0;
+
+    private boolean done = false;
+
+    PageHeaderReader(Reader in, Listener listener) {
+        super(in);
+        this.listener = listener;
+    }
+
+    /**
+     * @return whether the header was read in its entirety, or will never be
+     */
+    boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c != -1 && !done)
+            scan((char) c);
+        return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        for (int i = 0; i < read && !done; ++i)
+            scan(buffer[offset + i]);
+        return read;
+    }
+
+    private void scan(char c) {
+        if (header == null) {
+            matched = c == START_TAG.charAt(matched) ? matched + 1 : (c == '<' ? 1 : 0);
+            if (matched == START_TAG.length())
+                header = new StringBuilder(START_TAG);
+            return;
+        }
+
+        // Anything like <headers> isn't what we're looking for.
+        if (header.length() == START_TAG.length() && c != '>' && !Character.isWhitespace(c)) {
+            header = null;
+            matched = 0;
+            return;
+        }
+
+        header.append(c);
+        if (c == '>' && endsWith(header, END_TAG)) {
+            done = true;
+            listener.onHeader(header.toString());
+            header = null;
+        } else if (header.length() > MAX_HEADER_LENGTH) {
+            done = true;
+            header = null;
+        }
+    }
+
+    private static boolean endsWith(StringBuilder text, String suffix) {
+        int start = text.length() - suffix.length();
+        if (start < 0)
+            return false;
+
+        for (int i = 0; i < suffix.length(); ++i)
+            if (text.charAt(start + i) != suffix.charAt(i))
+                return false;
+        return true;
+    }
+
+    interface Listener {
+        /**
+         * Called once the header has been read, on the thread reading the page.
+         *
+         * @param html markup of the header, from its start tag up to and including its end tag
+         */
+        void onHeader(String html);
+    }
+}
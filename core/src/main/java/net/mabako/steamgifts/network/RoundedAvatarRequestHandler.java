@@ -0,0 +1,199 @@
+package net.mabako.steamgifts.network;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+import com.squareup.okhttp.CacheControl;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Response;
+import com.squareup.picasso.Downloader;
+import com.squareup.picasso.NetworkPolicy;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Request;
+import com.squareup.picasso.RequestHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads avatars, scaled and cropped to a fixed size and with rounded corners.
+ * <p>This does what <code>resize(...).centerCrop().transform(new RoundedCornersTransformation(...))</code> would,
+ * except that the decoded avatar is never handed to Picasso: once the rounded avatar has been drawn, the decoded one
+ * is put into a {@link BitmapPool} and the next avatar of the same size is decoded into it. Almost all avatars on Steam
+ * have the same size, so after a few avatars the rounded avatar is the only bitmap allocated.</p>
+ * <p>Picasso caches the rounded avatar by its url, so each avatar is only rounded once.</p>
+ */
+class RoundedAvatarRequestHandler extends RequestHandler {
+    private static final String TAG = RoundedAvatarRequestHandler.class.getSimpleName();
+
+    private final OkHttpClient client;
+    private final BitmapPool pool;
+    private final int size;
+    private final float radius;
+
+    /**
+     * Canvas, paint and such used to draw avatars, one for each of Picasso's threads.
+     */
+    private final ThreadLocal<DrawingState> drawingState = new ThreadLocal<DrawingState>() {
+        @Override
+        protected DrawingState initialValue() {
+            return new DrawingState();
+        }
+    };
+
+    /**
+     * @param client client to load avatars with
+     * @param pool   pool for decoded avatars
+     * @param size   width and height of the rounded avatars, in pixels
+     * @param radius radius of the rounded corners, in pixels
+     */
+    RoundedAvatarRequestHandler(OkHttpClient client, BitmapPool pool, int size, float radius) {
+        this.client = client;
+        this.pool = pool;
+        this.size = size;
+        this.radius = radius;
+    }
+
+    @Override
+    public boolean canHandleRequest(Request data) {
+        String scheme = data.uri.getScheme();
+        return "http".equals(scheme) || "https".equals(scheme);
+    }
+
+    @Override
+    public Result load(Request request, int networkPolicy) throws IOException {
+        Response response = client.newCall(createRequest(request.uri, networkPolicy)).execute();
+        if (!response.isSuccessful()) {
+            response.body().close();
+            throw new Downloader.ResponseException(response.code() + " " + response.message(), networkPolicy, response.code());
+        }
+
+        boolean cached = response.cacheResponse() != null;
+        InputStream stream = response.body().byteStream();
+
+        Bitmap decoded;
+        try {
+            decoded = decode(readFully(stream));
+        } finally {
+            stream.close();
+        }
+
+        if (decoded == null)
+            throw new IOException("Unable to decode " + request.uri);
+
+        Bitmap rounded = round(decoded);
+        pool.put(decoded);
+        return new Result(rounded, cached ? Picasso.LoadedFrom.DISK : Picasso.LoadedFrom.NETWORK);
+    }
+
+    /**
+     * Builds the request for an avatar the same way {@link com.squareup.picasso.OkHttpDownloader} does, so the network
+     * policy of Picasso's request is followed.
+     * <p>The downloader itself isn't used, as it doesn't tell whether the avatar was loaded from the disk cache.</p>
+     */
+    private static com.squareup.okhttp.Request createRequest(Uri uri, int networkPolicy) {
+        com.squareup.okhttp.Request.Builder builder = new com.squareup.okhttp.Request.Builder().url(uri.toString());
+        if (networkPolicy != 0) {
+            if (NetworkPolicy.isOfflineOnly(networkPolicy)) {
+                builder.cacheControl(CacheControl.FORCE_CACHE);
+            } else {
+                CacheControl.Builder cacheControl = new CacheControl.Builder();
+                if (!NetworkPolicy.shouldReadFromDiskCache(networkPolicy))
+                    cacheControl.noCache();
+                if (!NetworkPolicy.shouldWriteToDiskCache(networkPolicy))
+                    cacheControl.noStore();
+                builder.cacheControl(cacheControl.build());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Decodes the avatar at the smallest size that is still at least as large as the rounded avatar, into a pooled
+     * bitmap if possible.
+     */
+    private Bitmap decode(byte[] data) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0)
+            return null;
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= size && options.outHeight / (sampleSize * 2) >= size)
+            sampleSize *= 2;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+
+        // Before KitKat, bitmaps can only be reused when decoding at full size.
+        if (sampleSize == 1 || Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            int width = (options.outWidth + sampleSize - 1) / sampleSize;
+            int height = (options.outHeight + sampleSize - 1) / sampleSize;
+            options.inBitmap = pool.get(width, height, Bitmap.Config.ARGB_8888);
+        }
+
+        try {
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap didn't fit after all.
+            Log.v(TAG, "Unable to reuse bitmap", e);
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+    }
+
+    /**
+     * Draws the center of the avatar with rounded corners.
+     */
+    private Bitmap round(Bitmap source) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+
+        float scale = Math.max(size / (float) source.getWidth(), size / (float) source.getHeight());
+
+        DrawingState state = drawingState.get();
+        state.matrix.setScale(scale, scale);
+        state.matrix.postTranslate((size - source.getWidth() * scale) / 2f, (size - source.getHeight() * scale) / 2f);
+
+        BitmapShader shader = new BitmapShader(source, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+        shader.setLocalMatrix(state.matrix);
+        state.paint.setShader(shader);
+
+        state.canvas.setBitmap(bitmap);
+        state.canvas.drawRoundRect(state.rect, radius, radius, state.paint);
+
+        // Don't keep either bitmap around.
+        state.canvas.setBitmap(null);
+        state.paint.setShader(null);
+
+        return bitmap;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+    private class DrawingState {
+        private final Canvas canvas = new Canvas();
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        private final Matrix matrix = new Matrix();
+        private final RectF rect = new RectF(0, 0, size, size);
+    }
+}
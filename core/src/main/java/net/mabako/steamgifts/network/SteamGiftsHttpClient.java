@@ -0,0 +1,483 @@
+package net.mabako.steamgifts.network;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Dispatcher;
+import com.squareup.okhttp.FormEncodingBuilder;
+import com.squareup.okhttp.HttpUrl;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.OkHttpClient;
+
+import net.mabako.Constants;
+import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.tasks.TaskExecutor;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP client for all requests made against SteamGifts.
+ * <p>All tasks go through a single {@link OkHttpClient}, so they share one connection pool (and with that keep-alive,
+ * HTTP/2 and gzip) instead of opening a new connection for every single page.</p>
+ */
+public final class SteamGiftsHttpClient {
+    private static final String TAG = SteamGiftsHttpClient.class.getSimpleName();
+
+    /**
+     * Name of the cookie holding the session id.
+     */
+    private static final String SESSION_COOKIE = "PHPSESSID";
+
+    /**
+     * Host for which the session cookie is sent along.
+     */
+    private static final String STEAMGIFTS_HOST = "www.steamgifts.com";
+
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final int CHUNK_SIZE = 8192;
+    private static final long KEEP_ALIVE_DURATION_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static OkHttpClient client;
+    private static OkHttpClient clientWithoutRedirects;
+
+    private SteamGiftsHttpClient() {
+    }
+
+    /**
+     * Returns the shared client, creating it if necessary.
+     */
+    static synchronized OkHttpClient getClient(boolean followRedirects) {
+        if (client == null) {
+            client = new OkHttpClient();
+            client.setConnectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MS));
+            client.setDispatcher(new Dispatcher());
+            client.setConnectTimeout(Constants.JSOUP_TIMEOUT, TimeUnit.MILLISECONDS);
+            client.setReadTimeout(Constants.JSOUP_TIMEOUT, TimeUnit.MILLISECONDS);
+            client.setWriteTimeout(Constants.JSOUP_TIMEOUT, TimeUnit.MILLISECONDS);
+
+            // Shares both the connection pool and the dispatcher with the client above.
+            clientWithoutRedirects = client.clone();
+            clientWithoutRedirects.setFollowRedirects(false);
+            clientWithoutRedirects.setFollowSslRedirects(false);
+        }
+        return followRedirects ? client : clientWithoutRedirects;
+    }
+
+    /**
+     * Creates a new GET request.
+     *
+     * @param context context used to fetch the current session, if any
+     * @param url     url to load
+     */
+    public static Request get(@Nullable Context context, @NonNull String url) {
+        return new Request(context, url, false);
+    }
+
+    /**
+     * Creates a new POST request, with all {@link Request#data(String, String)} being sent as form data.
+     *
+     * @param context context used to fetch the current session, if any
+     * @param url     url to post to
+     */
+    public static Request post(@Nullable Context context, @NonNull String url) {
+        return new Request(context, url, true);
+    }
+
+    /**
+     * A single request to be made, roughly resembling Jsoup's {@link org.jsoup.Connection}.
+     */
+    public static class Request {
+        private final Context context;
+        private final String url;
+        private final boolean post;
+
+        private final List<String[]> data = new ArrayList<>();
+        private boolean followRedirects = true;
+        private String sessionId;
+
+        private PageCache.Policy cachePolicy;
+        private boolean revalidate;
+
+        private Request(Context context, String url, boolean post) {
+            this.context = context;
+            this.url = url;
+            this.post = post;
+        }
+
+        /**
+         * Adds a query parameter (GET) or form field (POST).
+         */
+        public Request data(String key, String value) {
+            data.add(new String[]{key, value});
+            return this;
+        }
+
+        public Request followRedirects(boolean followRedirects) {
+            this.followRedirects = followRedirects;
+            return this;
+        }
+
+        /**
+         * Overrides the session id sent along with this request, instead of using the currently logged in user's session.
+         */
+        public Request sessionId(String sessionId) {
+            this.sessionId = sessionId;
+            return this;
+        }
+
+        /**
+         * Allows this page to be served from and stored in the {@link PageCache}.
+         *
+         * @param cachePolicy type of the page, determining how long a cached copy may be used without checking back
+         * @param revalidate  whether to always check back with the server, for example if the user explicitly refreshed
+         */
+        public Request cache(PageCache.Policy cachePolicy, boolean revalidate) {
+            this.cachePolicy = cachePolicy;
+            this.revalidate = revalidate;
+            return this;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Executes the request. The response body is streamed, and must be consumed by either {@link Response#parse()},
+         * {@link Response#buffer()} or {@link Response#readUserData()}.
+         */
+        public Response execute() throws IOException {
+            com.squareup.okhttp.Request.Builder builder = new com.squareup.okhttp.Request.Builder()
+                    .header("User-Agent", Constants.JSOUP_USER_AGENT);
+
+            HttpUrl httpUrl = HttpUrl.parse(url);
+            if (httpUrl == null)
+                throw new IOException("Invalid url " + url);
+
+            if (post) {
+                FormEncodingBuilder form = new FormEncodingBuilder();
+                for (String[] keyValue : data)
+                    form.add(keyValue[0], keyValue[1]);
+                builder.url(httpUrl).post(form.build());
+            } else {
+                HttpUrl.Builder urlBuilder = httpUrl.newBuilder();
+                for (String[] keyValue : data)
+                    urlBuilder.addQueryParameter(keyValue[0], keyValue[1]);
+                builder.url(urlBuilder.build()).get();
+            }
+
+            String session = getSessionId();
+            if (session != null && STEAMGIFTS_HOST.equals(httpUrl.host()))
+                builder.header("Cookie", SESSION_COOKIE + "=" + session);
+
+            // Only pages (rather than ajax requests) show the current user's points and notifications.
+            boolean hasUserData = !post && STEAMGIFTS_HOST.equals(httpUrl.host());
+
+            PageCache cache = cachePolicy != null && !post ? PageCache.getInstance(context) : null;
+            if (cache == null)
+                return new Response(getClient(followRedirects).newCall(builder.build()).execute(), context, hasUserData);
+
+            com.squareup.okhttp.Request request = builder.build();
+            String key = PageCache.getKey(request.urlString(), session);
+            PageCache.Entry entry = cache.get(key);
+            if (entry != null) {
+                if (!revalidate && entry.isFresh(cachePolicy.getMaxAge(context))) {
+                    Log.v(TAG, "Using cached page for " + request.urlString());
+                    return new Response(entry, context, false);
+                }
+
+                // Only ask for the page if it actually changed.
+                com.squareup.okhttp.Request.Builder conditional = request.newBuilder();
+                if (entry.etag != null)
+                    conditional.header("If-None-Match", entry.etag);
+                if (entry.lastModified != null)
+                    conditional.header("If-Modified-Since", entry.lastModified);
+                request = conditional.build();
+            }
+
+            com.squareup.okhttp.Response response = getClient(followRedirects).newCall(request).execute();
+            if (response.code() == 304 && entry != null) {
+                Log.v(TAG, "Cached page for " + request.urlString() + " not modified");
+                response.body().close();
+
+                entry.fetchedAt = System.currentTimeMillis();
+                String etag = response.header("ETag");
+                if (etag == null || etag.equals(entry.etag)) {
+                    cache.touch(key, entry.fetchedAt);
+                } else {
+                    entry.etag = etag;
+                    cache.put(key, entry);
+                }
+                return new Response(entry, context, false);
+            } else if (response.code() == 200) {
+                PageCache.Entry newEntry = new PageCache.Entry();
+                newEntry.url = response.request().urlString();
+                newEntry.charset = Response.getCharset(response);
+                newEntry.etag = response.header("ETag");
+                newEntry.lastModified = response.header("Last-Modified");
+                newEntry.fetchedAt = System.currentTimeMillis();
+
+                // The page is cached while it's read, so its header is still handled before the rest arrived.
+                Response cachedResponse = new Response(response, context, hasUserData);
+                cachedResponse.cache = cache;
+                cachedResponse.cacheKey = key;
+                cachedResponse.pendingEntry = newEntry;
+                return cachedResponse;
+            } else {
+                return new Response(response, context, hasUserData);
+            }
+        }
+
+        /**
+         * Executes the request and parses the result, failing for any non-successful status code.
+         */
+        public Document get() throws IOException {
+            Response response = execute();
+            if (response.statusCode() >= 400) {
+                response.close();
+                throw new IOException("HTTP error fetching URL, status " + response.statusCode() + ", url " + response.url());
+            }
+            return response.parse();
+        }
+
+        private String getSessionId() {
+            if (sessionId != null)
+                return sessionId;
+
+            SteamGiftsUserData userData = SteamGiftsUserData.getCurrent(context);
+            return userData.isLoggedIn() ? userData.getSessionId() : null;
+        }
+    }
+
+    /**
+     * Response to a {@link Request}, either read from the network or from the {@link PageCache}.
+     */
+    public static class Response {
+        private final com.squareup.okhttp.Response response;
+        private final PageCache.Entry cacheEntry;
+        private String body;
+
+        private final Context context;
+
+        /**
+         * Whether the page's header is read for the current user's points and notifications.
+         */
+        private final boolean hasUserData;
+        private boolean userDataExtracted = false;
+
+        /**
+         * Entry the body is written to once it's been read entirely, for pages loaded from the network that should be
+         * cached.
+         */
+        private PageCache cache;
+        private String cacheKey;
+        private PageCache.Entry pendingEntry;
+
+        private Response(com.squareup.okhttp.Response response, Context context, boolean hasUserData) {
+            this.response = response;
+            this.cacheEntry = null;
+            this.context = context;
+            this.hasUserData = hasUserData;
+        }
+
+        private Response(PageCache.Entry cacheEntry, Context context, boolean hasUserData) {
+            this.response = null;
+            this.cacheEntry = cacheEntry;
+            this.context = context;
+            this.hasUserData = hasUserData;
+        }
+
+        public int statusCode() {
+            return response != null ? response.code() : 200;
+        }
+
+        public String statusMessage() {
+            return response != null ? response.message() : "OK";
+        }
+
+        /**
+         * The final url of this response, after following all redirects.
+         */
+        public String url() {
+            return response != null ? response.request().urlString() : cacheEntry.url;
+        }
+
+        @Nullable
+        public String header(String name) {
+            return response != null ? response.header(name) : null;
+        }
+
+        /**
+         * Whether or not this response was served from the {@link PageCache}, including pages revalidated through
+         * <code>304 Not Modified</code>.
+         */
+        public boolean isFromCache() {
+            return cacheEntry != null;
+        }
+
+        /**
+         * Stream of the response body, to be closed by the caller.
+         */
+        public InputStream bodyStream() {
+            if (response == null)
+                return new ByteArrayInputStream(cacheEntry.body);
+
+            InputStream in = response.body().byteStream();
+            return pendingEntry != null ? cache.writeThrough(cacheKey, pendingEntry, in) : in;
+        }
+
+        /**
+         * Reader for the response body, to be closed by the caller.
+         * <p>For pages on SteamGifts, the current user's points and notifications are updated through
+         * {@link SteamGiftsUserData#extract(Context, String)} as soon as the page's header has been read, before the
+         * rest of the page is. Pages served from the {@link PageCache} are skipped, since their header is outdated
+         * anyway.</p>
+         */
+        public Reader charStream() {
+            String charset = getCharset();
+            Reader reader = new InputStreamReader(bodyStream(), Charset.forName(charset != null ? charset : "UTF-8"));
+            if (!hasUserData || statusCode() != 200)
+                return reader;
+
+            return new PageHeaderReader(reader, new PageHeaderReader.Listener() {
+                @Override
+                public void onHeader(String html) {
+                    userDataExtracted = true;
+                    SteamGiftsUserData.extract(context, html);
+                }
+            });
+        }
+
+        /**
+         * Reads only as much of the page as needed to update the current user's points and notifications, and closes
+         * the response. Nothing else of the page is parsed.
+         *
+         * @return whether the current user's data was found on this page
+         */
+        public boolean readUserData() throws IOException {
+            Reader reader = charStream();
+            try {
+                if (reader instanceof PageHeaderReader) {
+                    PageHeaderReader headerReader = (PageHeaderReader) reader;
+                    char[] chunk = new char[CHUNK_SIZE];
+                    while (!headerReader.isDone() && headerReader.read(chunk, 0, chunk.length) != -1) {
+                        // keep reading until the header's been handled
+                    }
+                }
+                return userDataExtracted;
+            } finally {
+                reader.close();
+            }
+        }
+
+        /**
+         * Parses the response body as HTML document.
+         * <p>The open body is handed to the parse pool of the {@link TaskExecutor}, which reads and parses it there;
+         * the page's text is only kept until the document is built.</p>
+         */
+        public Document parse() throws IOException {
+            final String baseUri = url();
+            try {
+                return TaskExecutor.parse(new Callable<Document>() {
+                    @Override
+                    public Document call() throws IOException {
+                        return Jsoup.parse(body != null ? body : read(), baseUri);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while parsing " + baseUri);
+            } catch (IOException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Unable to parse " + baseUri, e);
+            }
+        }
+
+        /**
+         * Reads the entire response body, so it may be accessed through {@link #body()} on the UI thread afterwards.
+         */
+        public Response buffer() throws IOException {
+            if (body == null)
+                body = read();
+            return this;
+        }
+
+        /**
+         * Reads the entire response body, and closes it.
+         */
+        private String read() throws IOException {
+            // Read in chunks, so the user's data is updated while the rest of the page is still loading.
+            Reader reader = charStream();
+            try {
+                StringBuilder text = new StringBuilder(cacheEntry != null ? cacheEntry.body.length : CHUNK_SIZE);
+                char[] chunk = new char[CHUNK_SIZE];
+                int read;
+                while ((read = reader.read(chunk, 0, chunk.length)) != -1)
+                    text.append(chunk, 0, read);
+                return text.toString();
+            } finally {
+                reader.close();
+            }
+        }
+
+        /**
+         * Returns the response body, if it was read through {@link #buffer()}.
+         */
+        @Nullable
+        public String body() {
+            return body;
+        }
+
+        public void close() {
+            if (response == null)
+                return;
+
+            try {
+                response.body().close();
+            } catch (IOException e) {
+                Log.v(TAG, "Unable to close response body", e);
+            }
+        }
+
+        private String getCharset() {
+            if (response == null)
+                return cacheEntry.charset;
+
+            return getCharset(response);
+        }
+
+        @Nullable
+        private static String getCharset(com.squareup.okhttp.Response response) {
+            MediaType contentType = response.body().contentType();
+            if (contentType != null) {
+                Charset charset = contentType.charset();
+                if (charset != null)
+                    return charset.name();
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return response != null ? response.toString() : "Response{cached, url=" + cacheEntry.url + "}";
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package net.mabako.steamgifts.persistentdata;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import net.mabako.steamgifts.data.Discussion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local index of all discussions seen on discussion lists, to search them without asking SteamGifts first.
+ */
+public final class DiscussionIndex extends SQLiteOpenHelper {
+    private static final String TAG = DiscussionIndex.class.getSimpleName();
+
+    private static final String DB_NAME = "discussionindex";
+    private static final int DB_VERSION = 1;
+
+    private static final String TABLE_DISCUSSIONS = "discussions";
+    private static final String TABLE_SEARCH = "discussions_search";
+
+    private static final String KEY_ROW_ID = "_id";
+    private static final String KEY_DESCRIPTION = "description";
+    private static final String KEY_SEEN_AT = "seen_at";
+    private static final String KEY_DOCID = "docid";
+
+    /**
+     * How long discussions are kept after they were last seen.
+     */
+    private static final long KEEP_SECONDS = TimeUnit.DAYS.toSeconds(30);
+
+    private static DiscussionIndex instance;
+
+    private DiscussionIndex(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Nullable
+    public static synchronized DiscussionIndex getInstance(@Nullable Context context) {
+        if (instance == null) {
+            if (context == null)
+                return null;
+
+            instance = new DiscussionIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_DISCUSSIONS + "(" +
+                KEY_ROW_ID + " integer primary key, " +
+                SavedElements.KEY_ID + " text unique not null, " +
+                SavedDiscussions.COLUMN_DEFINITIONS + ", " +
+                KEY_DESCRIPTION + " text, " +
+                KEY_SEEN_AT + " integer)");
+
+        db.execSQL("CREATE INDEX " + TABLE_DISCUSSIONS + "_" + KEY_SEEN_AT + " ON " + TABLE_DISCUSSIONS + "(" + KEY_SEEN_AT + ")");
+
+        // The docid of each row is the row id of the discussion.
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_SEARCH + " USING fts3(" + SavedDiscussions.KEY_TITLE + ", " + KEY_DESCRIPTION + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Log.w(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
+
+        // Everything in here is loaded again anyway.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_DISCUSSIONS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SEARCH);
+        onCreate(db);
+    }
+
+    /**
+     * Adds or updates all discussions, keeping any description we've already seen.
+     */
+    public void update(@NonNull List<Discussion> discussions) {
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Discussion discussion : discussions) {
+                if (discussion.getDiscussionId() != null)
+                    put(db, discussion, now);
+            }
+
+            prune(db, now);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void put(SQLiteDatabase db, Discussion discussion, long now) {
+        String[] discussionId = new String[]{discussion.getDiscussionId()};
+
+        ContentValues values = SavedDiscussions.getContentValues(discussion);
+        values.put(KEY_SEEN_AT, now);
+
+        long rowId = -1;
+        String description = null;
+        if (db.update(TABLE_DISCUSSIONS, values, SavedElements.KEY_ID + " = ?", discussionId) > 0) {
+            Cursor cursor = db.query(TABLE_DISCUSSIONS, new String[]{KEY_ROW_ID, KEY_DESCRIPTION}, SavedElements.KEY_ID + " = ?", discussionId, null, null, null);
+            try {
+                if (cursor.moveToFirst()) {
+                    rowId = cursor.getLong(0);
+                    description = cursor.getString(1);
+                }
+            } finally {
+                cursor.close();
+            }
+        } else {
+            values.put(SavedElements.KEY_ID, discussion.getDiscussionId());
+            rowId = db.insert(TABLE_DISCUSSIONS, null, values);
+        }
+
+        if (rowId != -1)
+            updateSearch(db, rowId, discussion.getTitle(), description);
+    }
+
+    /**
+     * Sets the description of a discussion that is already in the index, so it can be searched for as well.
+     *
+     * @param discussionId id of the discussion
+     * @param description  the description as plain text
+     */
+    public void setDescription(@NonNull String discussionId, @NonNull String description) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Cursor cursor = db.query(TABLE_DISCUSSIONS, new String[]{KEY_ROW_ID, SavedDiscussions.KEY_TITLE}, SavedElements.KEY_ID + " = ?", new String[]{discussionId}, null, null, null);
+            try {
+                if (!cursor.moveToFirst())
+                    return;
+
+                ContentValues values = new ContentValues();
+                values.put(KEY_DESCRIPTION, description);
+                db.update(TABLE_DISCUSSIONS, values, KEY_ROW_ID + " = ?", new String[]{String.valueOf(cursor.getLong(0))});
+
+                updateSearch(db, cursor.getLong(0), cursor.getString(1), description);
+            } finally {
+                cursor.close();
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void updateSearch(SQLiteDatabase db, long rowId, String title, String description) {
+        db.delete(TABLE_SEARCH, KEY_DOCID + " = ?", new String[]{String.valueOf(rowId)});
+
+        ContentValues search = new ContentValues();
+        search.put(KEY_DOCID, rowId);
+        search.put(SavedDiscussions.KEY_TITLE, title);
+        search.put(KEY_DESCRIPTION, description);
+        db.insert(TABLE_SEARCH, null, search);
+    }
+
+    /**
+     * Removes all discussions, for example once the user logged out.
+     */
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_DISCUSSIONS, null, null);
+            db.delete(TABLE_SEARCH, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Removes all discussions that were not seen for a while.
+     */
+    private static void prune(SQLiteDatabase db, long now) {
+        int deleted = db.delete(TABLE_DISCUSSIONS, KEY_SEEN_AT + " < ?", new String[]{String.valueOf(now - KEEP_SECONDS)});
+        if (deleted > 0) {
+            Log.v(TAG, "Removed " + deleted + " old discussions");
+            db.delete(TABLE_SEARCH, KEY_DOCID + " NOT IN (SELECT " + KEY_ROW_ID + " FROM " + TABLE_DISCUSSIONS + ")", null);
+        }
+    }
+
+    /**
+     * Searches the titles and descriptions of all discussions.
+     *
+     * @param query what the user searched for, with every word matched as prefix
+     * @param limit how many discussions to return at most
+     * @return discussions, the most recently seen first
+     */
+    @NonNull
+    public List<Discussion> search(@NonNull String query, int limit) {
+        List<Discussion> discussions = new ArrayList<>();
+
+        String matchQuery = FullTextSearch.toMatchQuery(query);
+        if (matchQuery == null)
+            return discussions;
+
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT * FROM " + TABLE_DISCUSSIONS + " " +
+                        "WHERE " + KEY_ROW_ID + " IN (SELECT " + KEY_DOCID + " FROM " + TABLE_SEARCH + " WHERE " + TABLE_SEARCH + " MATCH ?) " +
+                        "ORDER BY " + KEY_SEEN_AT + " DESC LIMIT " + limit,
+                new String[]{matchQuery});
+        try {
+            while (cursor.moveToNext())
+                discussions.add(SavedDiscussions.readDiscussion(cursor));
+        } finally {
+            cursor.close();
+        }
+        return discussions;
+    }
+}
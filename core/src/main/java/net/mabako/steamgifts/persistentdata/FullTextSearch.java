@@ -0,0 +1,42 @@
+package net.mabako.steamgifts.persistentdata;
+
+import android.support.annotation.Nullable;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for searching the local FTS tables.
+ */
+final class FullTextSearch {
+    /**
+     * Anything that is not part of a word; this also strips all FTS operators like quotes or <code>-</code>.
+     */
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private FullTextSearch() {
+    }
+
+    /**
+     * Turns whatever the user typed into a <code>MATCH</code> expression matching all words by prefix, so that
+     * "half li" finds "Half-Life 2".
+     *
+     * @return the expression, or null if the query has no words at all
+     */
+    @Nullable
+    static String toMatchQuery(@Nullable String query) {
+        if (query == null)
+            return null;
+
+        StringBuilder sb = new StringBuilder();
+        for (String word : SEPARATORS.split(query.toLowerCase(Locale.ENGLISH))) {
+            if (word.isEmpty())
+                continue;
+
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append(word).append('*');
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+}
@@ -0,0 +1,276 @@
+package net.mabako.steamgifts.persistentdata;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import net.mabako.steamgifts.data.Giveaway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local index of all giveaways seen on giveaway lists.
+ * <p>The first page of each list is remembered as well, so it can be shown right away the next time the list is opened,
+ * while the current page is still being loaded.</p>
+ */
+public final class GiveawayIndex extends SQLiteOpenHelper {
+    private static final String TAG = GiveawayIndex.class.getSimpleName();
+
+    private static final String DB_NAME = "giveawayindex";
+    private static final int DB_VERSION = 1;
+
+    private static final String TABLE_GIVEAWAYS = "giveaways";
+    private static final String TABLE_SEARCH = "giveaways_search";
+    private static final String TABLE_LISTS = "lists";
+
+    private static final String KEY_ROW_ID = "_id";
+    private static final String KEY_ENTRIES = "entries";
+    private static final String KEY_ENTERED = "entered";
+    private static final String KEY_SEEN_AT = "seen_at";
+    private static final String KEY_DOCID = "docid";
+    private static final String KEY_LIST = "list";
+    private static final String KEY_POSITION = "position";
+    private static final String KEY_GIVEAWAY_ID = "giveaway_id";
+
+    /**
+     * How long giveaways are kept after they've ended, unless they're still on one of the lists.
+     */
+    private static final long KEEP_ENDED_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+    private static GiveawayIndex instance;
+
+    private GiveawayIndex(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Nullable
+    public static synchronized GiveawayIndex getInstance(@Nullable Context context) {
+        if (instance == null) {
+            if (context == null)
+                return null;
+
+            instance = new GiveawayIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_GIVEAWAYS + "(" +
+                KEY_ROW_ID + " integer primary key, " +
+                SavedElements.KEY_ID + " text unique not null, " +
+                SavedGiveaways.COLUMN_DEFINITIONS + ", " +
+                KEY_ENTRIES + " integer, " +
+                KEY_ENTERED + " integer, " +
+                KEY_SEEN_AT + " integer)");
+
+        db.execSQL("CREATE INDEX " + TABLE_GIVEAWAYS + "_" + SavedGiveaways.KEY_END_TIME + " ON " + TABLE_GIVEAWAYS + "(" + SavedGiveaways.KEY_END_TIME + ")");
+        db.execSQL("CREATE INDEX " + TABLE_GIVEAWAYS + "_" + SavedGiveaways.KEY_GAME_ID + " ON " + TABLE_GIVEAWAYS + "(" + SavedGiveaways.KEY_GAME_ID + ")");
+        db.execSQL("CREATE INDEX " + TABLE_GIVEAWAYS + "_" + SavedGiveaways.KEY_INTERNAL_GAME_ID + " ON " + TABLE_GIVEAWAYS + "(" + SavedGiveaways.KEY_INTERNAL_GAME_ID + ")");
+
+        // The docid of each row is the row id of the giveaway.
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_SEARCH + " USING fts3(" + SavedGiveaways.KEY_TITLE + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_LISTS + "(" +
+                KEY_LIST + " text, " +
+                KEY_POSITION + " integer, " +
+                KEY_GIVEAWAY_ID + " text, " +
+                "primary key (" + KEY_LIST + ", " + KEY_POSITION + "))");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Log.w(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
+
+        // Everything in here is loaded again anyway.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_GIVEAWAYS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SEARCH);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_LISTS);
+        onCreate(db);
+    }
+
+    /**
+     * Adds or updates all giveaways.
+     *
+     * @param list      key of the list these giveaways are the first page of, or null if they're from any other page
+     * @param giveaways giveaways to add
+     */
+    public void update(@Nullable String list, @NonNull List<Giveaway> giveaways) {
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Giveaway giveaway : giveaways) {
+                if (giveaway.getGiveawayId() != null)
+                    put(db, giveaway, now);
+            }
+
+            if (list != null) {
+                db.delete(TABLE_LISTS, KEY_LIST + " = ?", new String[]{list});
+
+                int position = 0;
+                for (Giveaway giveaway : giveaways) {
+                    if (giveaway.getGiveawayId() == null)
+                        continue;
+
+                    ContentValues values = new ContentValues();
+                    values.put(KEY_LIST, list);
+                    values.put(KEY_POSITION, position++);
+                    values.put(KEY_GIVEAWAY_ID, giveaway.getGiveawayId());
+                    db.insert(TABLE_LISTS, null, values);
+                }
+
+                prune(db, now);
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void put(SQLiteDatabase db, Giveaway giveaway, long now) {
+        String[] giveawayId = new String[]{giveaway.getGiveawayId()};
+
+        ContentValues values = SavedGiveaways.getContentValues(giveaway);
+        values.put(KEY_ENTRIES, giveaway.getEntries());
+        values.put(KEY_ENTERED, giveaway.isEntered());
+        values.put(KEY_SEEN_AT, now);
+
+        long rowId = -1;
+        if (db.update(TABLE_GIVEAWAYS, values, SavedElements.KEY_ID + " = ?", giveawayId) > 0) {
+            Cursor cursor = db.query(TABLE_GIVEAWAYS, new String[]{KEY_ROW_ID}, SavedElements.KEY_ID + " = ?", giveawayId, null, null, null);
+            try {
+                if (cursor.moveToFirst())
+                    rowId = cursor.getLong(0);
+            } finally {
+                cursor.close();
+            }
+        } else {
+            values.put(SavedElements.KEY_ID, giveaway.getGiveawayId());
+            rowId = db.insert(TABLE_GIVEAWAYS, null, values);
+        }
+
+        if (rowId == -1)
+            return;
+
+        // Keep the title searchable.
+        db.delete(TABLE_SEARCH, KEY_DOCID + " = ?", new String[]{String.valueOf(rowId)});
+        if (giveaway.getTitle() != null) {
+            ContentValues search = new ContentValues();
+            search.put(KEY_DOCID, rowId);
+            search.put(SavedGiveaways.KEY_TITLE, giveaway.getTitle());
+            db.insert(TABLE_SEARCH, null, search);
+        }
+    }
+
+    /**
+     * Removes all giveaways that ended a while ago, and are not on any list.
+     */
+    private static void prune(SQLiteDatabase db, long now) {
+        int deleted = db.delete(TABLE_GIVEAWAYS,
+                SavedGiveaways.KEY_END_TIME + " < ? AND " + SavedGiveaways.KEY_BEGINNING + " = 0 AND " +
+                        SavedElements.KEY_ID + " NOT IN (SELECT " + KEY_GIVEAWAY_ID + " FROM " + TABLE_LISTS + ")",
+                new String[]{String.valueOf(now - KEEP_ENDED_SECONDS)});
+
+        if (deleted > 0) {
+            Log.v(TAG, "Removed " + deleted + " ended giveaways");
+            db.delete(TABLE_SEARCH, KEY_DOCID + " NOT IN (SELECT " + KEY_ROW_ID + " FROM " + TABLE_GIVEAWAYS + ")", null);
+        }
+    }
+
+    /**
+     * Returns the first page of a list as it was last seen, without any giveaways that have ended since.
+     *
+     * @param list key of the list
+     * @return giveaways on the list, which may be empty if the list was never loaded
+     */
+    @NonNull
+    public List<Giveaway> getList(@NonNull String list) {
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        List<Giveaway> giveaways = new ArrayList<>();
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT g.* FROM " + TABLE_LISTS + " l " +
+                        "JOIN " + TABLE_GIVEAWAYS + " g ON g." + SavedElements.KEY_ID + " = l." + KEY_GIVEAWAY_ID + " " +
+                        "WHERE l." + KEY_LIST + " = ? AND (g." + SavedGiveaways.KEY_END_TIME + " IS NULL OR g." + SavedGiveaways.KEY_BEGINNING + " != 0 OR g." + SavedGiveaways.KEY_END_TIME + " > ?) " +
+                        "ORDER BY l." + KEY_POSITION,
+                new String[]{list, String.valueOf(now)});
+        try {
+            while (cursor.moveToNext())
+                giveaways.add(readGiveaway(cursor));
+        } finally {
+            cursor.close();
+        }
+        return giveaways;
+    }
+
+    /**
+     * Searches the titles of all giveaways that have not ended yet.
+     *
+     * @param query what the user searched for, with every word matched as prefix
+     * @param limit how many giveaways to return at most
+     * @return giveaways ordered by when they end
+     */
+    @NonNull
+    public List<Giveaway> search(@NonNull String query, int limit) {
+        List<Giveaway> giveaways = new ArrayList<>();
+
+        String matchQuery = FullTextSearch.toMatchQuery(query);
+        if (matchQuery == null)
+            return giveaways;
+
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT * FROM " + TABLE_GIVEAWAYS + " " +
+                        "WHERE " + KEY_ROW_ID + " IN (SELECT " + KEY_DOCID + " FROM " + TABLE_SEARCH + " WHERE " + TABLE_SEARCH + " MATCH ?) " +
+                        "AND (" + SavedGiveaways.KEY_END_TIME + " IS NULL OR " + SavedGiveaways.KEY_BEGINNING + " != 0 OR " + SavedGiveaways.KEY_END_TIME + " > ?) " +
+                        "ORDER BY " + SavedGiveaways.KEY_END_TIME + " LIMIT " + limit,
+                new String[]{matchQuery, String.valueOf(now)});
+        try {
+            while (cursor.moveToNext())
+                giveaways.add(readGiveaway(cursor));
+        } finally {
+            cursor.close();
+        }
+        return giveaways;
+    }
+
+    /**
+     * Updates whether or not we've entered a giveaway.
+     */
+    public void setEntered(@NonNull String giveawayId, boolean entered) {
+        ContentValues values = new ContentValues();
+        values.put(KEY_ENTERED, entered);
+        getWritableDatabase().update(TABLE_GIVEAWAYS, values, SavedElements.KEY_ID + " = ?", new String[]{giveawayId});
+    }
+
+    /**
+     * Removes all giveaways and lists, for example once the user logged out.
+     */
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_GIVEAWAYS, null, null);
+            db.delete(TABLE_SEARCH, null, null);
+            db.delete(TABLE_LISTS, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static Giveaway readGiveaway(Cursor cursor) {
+        Giveaway giveaway = SavedGiveaways.readGiveaway(cursor);
+        giveaway.setEntries(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_ENTRIES)));
+        giveaway.setEntered(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_ENTERED)) != 0);
+        return giveaway;
+    }
+}
@@ -1,25 +1,94 @@
 package net.mabako.steamgifts.persistentdata;
 
+import android.content.ContentValues;
 import android.content.Context;
-
-import com.google.gson.Gson;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
 import net.mabako.steamgifts.data.Discussion;
 
+import java.util.Calendar;
+
 public class SavedDiscussions extends SavedElements<Discussion> {
     static final String DB_TABLE = "discussions";
 
+    static final String KEY_TITLE = "title";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_CREATOR = "creator";
+    private static final String KEY_CREATOR_AVATAR = "creator_avatar";
+    private static final String KEY_CREATED_TIME = "created_time";
+    private static final String KEY_LOCKED = "locked";
+    private static final String KEY_POLL = "poll";
+
+    /**
+     * All columns describing a discussion, except for its id.
+     */
+    static final String COLUMN_DEFINITIONS =
+            KEY_TITLE + " text, " +
+            KEY_NAME + " text, " +
+            KEY_CREATOR + " text, " +
+            KEY_CREATOR_AVATAR + " text, " +
+            KEY_CREATED_TIME + " integer, " +
+            KEY_LOCKED + " integer, " +
+            KEY_POLL + " integer";
+
     public SavedDiscussions(Context context) {
         super(context, DB_TABLE);
     }
 
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + DB_TABLE + "(" + KEY_ID + " text primary key, " + COLUMN_DEFINITIONS + ")");
+
+        db.execSQL("CREATE INDEX " + DB_TABLE + "_" + KEY_TITLE + " ON " + DB_TABLE + "(" + KEY_TITLE + ")");
+    }
+
+    static ContentValues getContentValues(Discussion discussion) {
+        ContentValues values = new ContentValues();
+        values.put(KEY_TITLE, discussion.getTitle());
+        values.put(KEY_NAME, discussion.getName());
+        values.put(KEY_CREATOR, discussion.getCreator());
+        values.put(KEY_CREATOR_AVATAR, discussion.getCreatorAvatar());
+
+        Calendar createdTime = discussion.getCreatedTime();
+        if (createdTime != null)
+            values.put(KEY_CREATED_TIME, createdTime.getTimeInMillis() / 1000);
+
+        values.put(KEY_LOCKED, discussion.isLocked());
+        values.put(KEY_POLL, discussion.isPoll());
+        return values;
+    }
+
+    @Override
+    protected ContentValues toContentValues(Discussion discussion) {
+        return getContentValues(discussion);
+    }
+
     @Override
-    protected Discussion getElement(Gson gson, String json) {
-        return gson.fromJson(json, Discussion.class);
+    protected Discussion fromCursor(Cursor cursor) {
+        return readDiscussion(cursor);
+    }
+
+    /**
+     * Reads all columns in {@link #COLUMN_DEFINITIONS}, as well as the id, from the current row of the cursor.
+     */
+    static Discussion readDiscussion(Cursor cursor) {
+        Discussion discussion = new Discussion(cursor.getString(cursor.getColumnIndexOrThrow(KEY_ID)));
+        discussion.setTitle(cursor.getString(cursor.getColumnIndexOrThrow(KEY_TITLE)));
+        discussion.setName(cursor.getString(cursor.getColumnIndexOrThrow(KEY_NAME)));
+        discussion.setCreator(cursor.getString(cursor.getColumnIndexOrThrow(KEY_CREATOR)));
+        discussion.setCreatorAvatar(cursor.getString(cursor.getColumnIndexOrThrow(KEY_CREATOR_AVATAR)));
+
+        int createdTime = cursor.getColumnIndexOrThrow(KEY_CREATED_TIME);
+        if (!cursor.isNull(createdTime))
+            discussion.setCreatedTime(cursor.getInt(createdTime));
+
+        discussion.setLocked(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_LOCKED)) != 0);
+        discussion.setPoll(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_POLL)) != 0);
+        return discussion;
     }
 
     @Override
-    public int compare(Discussion lhs, Discussion rhs) {
-        return lhs.getTitle().compareTo(rhs.getTitle());
+    protected String getOrderBy() {
+        return KEY_TITLE + ", " + KEY_ID;
     }
 }
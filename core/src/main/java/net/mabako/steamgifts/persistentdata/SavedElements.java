@@ -11,39 +11,62 @@ import android.util.Log;
 
 import com.google.gson.Gson;
 
+import net.mabako.steamgifts.data.Discussion;
+import net.mabako.steamgifts.data.Giveaway;
+
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Any giveaways the user wishes to save for a long(er) time.
+ * <p>Each element is stored with one column per field, so lists can be sorted and paged by the database instead of
+ * loading every single element at once.</p>
  */
-public abstract class SavedElements<T> implements Comparator<T> {
+public abstract class SavedElements<T> {
     private static final String TAG = SavedElements.class.getSimpleName();
 
     private final String table;
     private final Context context;
 
-    private static final String KEY_ID = "id";
+    static final String KEY_ID = "id";
+
+    /**
+     * Column holding the serialized element, prior to database version 4.
+     */
     private static final String KEY_VALUE = "value";
 
-    protected final GiveawayOpenHelper<T> helper;
+    protected final SavedElementsOpenHelper helper;
 
     public SavedElements(Context context, String table) {
-        helper = new GiveawayOpenHelper<T>(context, this);
+        helper = new SavedElementsOpenHelper(context);
 
         this.context = context;
         this.table = table;
     }
 
     /**
-     * Returns a list of saved elements.
+     * Returns a range of saved elements, sorted by {@link #getOrderBy()}.
      *
-     * @return list of savedelements
+     * @param offset how many elements to skip, usually the number of elements already shown
+     * @param limit  how many elements to return at most
+     * @return list of saved elements
      */
-    public List<T> all() {
-        return helper.all();
+    public List<T> list(int offset, int limit) {
+        List<T> elements = new ArrayList<T>();
+
+        String limitClause = offset + "," + limit;
+        Cursor cursor = helper.getReadableDatabase().query(table, null, null, null, null, null, getOrderBy(), limitClause);
+        try {
+            while (cursor.moveToNext()) {
+                elements.add(fromCursor(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return elements;
     }
 
     /**
@@ -54,7 +77,10 @@ public abstract class SavedElements<T> implements Comparator<T> {
      * @return true if the element was saved, false otherwise
      */
     public boolean add(@NonNull T element, @NonNull String elementId) {
-        return helper.add(element, elementId);
+        ContentValues values = toContentValues(element);
+        values.put(KEY_ID, elementId);
+
+        return helper.getWritableDatabase().replace(table, null, values) != -1;
     }
 
     /**
@@ -65,7 +91,15 @@ public abstract class SavedElements<T> implements Comparator<T> {
      */
     @Nullable
     public T get(@NonNull String elementId) {
-        return helper.get(elementId);
+        Cursor cursor = helper.getReadableDatabase().query(table, null, KEY_ID + " = ?", new String[]{elementId}, null, null, null, null);
+        try {
+            if (cursor.moveToFirst())
+                return fromCursor(cursor);
+
+            return null;
+        } finally {
+            cursor.close();
+        }
     }
 
     /**
@@ -75,7 +109,7 @@ public abstract class SavedElements<T> implements Comparator<T> {
      * @return true if the element was deleted, false otherwise
      */
     public boolean remove(@NonNull String elementId) {
-        return helper.remove(elementId);
+        return helper.getWritableDatabase().delete(table, KEY_ID + " = ?", new String[]{elementId}) > 0;
     }
 
     /**
@@ -85,10 +119,28 @@ public abstract class SavedElements<T> implements Comparator<T> {
      * @return true if the element is saved, false otherwise
      */
     public boolean exists(@NonNull String elementId) {
-        return helper.exists(elementId);
+        Cursor cursor = helper.getReadableDatabase().query(table, new String[]{KEY_ID}, KEY_ID + " = ?", new String[]{elementId}, null, null, null, null);
+        boolean exists = cursor.getCount() > 0;
+        cursor.close();
+
+        return exists;
     }
 
-    protected abstract T getElement(Gson gson, String json);
+    /**
+     * Returns the columns for a single element, except for its id.
+     */
+    protected abstract ContentValues toContentValues(T element);
+
+    /**
+     * Creates an element from the current row of the cursor.
+     */
+    protected abstract T fromCursor(Cursor cursor);
+
+    /**
+     * Returns the <code>ORDER BY</code> clause elements are listed by.
+     * <p>Elements are loaded page by page, so the order must be unique; end with {@link #KEY_ID} to break ties.</p>
+     */
+    protected abstract String getOrderBy();
 
     public void close() {
         helper.close();
@@ -98,82 +150,70 @@ public abstract class SavedElements<T> implements Comparator<T> {
         return context;
     }
 
-    private static class GiveawayOpenHelper<T> extends SQLiteOpenHelper {
-        private final SavedElements<T> parent;
-
-        public GiveawayOpenHelper(Context context, SavedElements<T> parent) {
-            super(context, "savedelements", null, 3);
-            this.parent = parent;
+    protected static class SavedElementsOpenHelper extends SQLiteOpenHelper {
+        public SavedElementsOpenHelper(Context context) {
+            super(context, "savedelements", null, 4);
         }
 
         @Override
         public void onCreate(SQLiteDatabase db) {
-            db.execSQL("CREATE TABLE " + SavedGiveaways.DB_TABLE + "(" + KEY_ID + " text primary key, " + KEY_VALUE + " text)");
-            db.execSQL("CREATE TABLE " + SavedDiscussions.DB_TABLE + "(" + KEY_ID + " text primary key, " + KEY_VALUE + " text)");
+            SavedGiveaways.createTable(db);
+            SavedDiscussions.createTable(db);
         }
 
-        private boolean add(T element, String elementId) {
-            ContentValues values = new ContentValues();
-            values.put(KEY_ID, elementId);
-            values.put(KEY_VALUE, new Gson().toJson(element));
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            Log.w(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
+
+            // Delete all saved giveawys
+            if (oldVersion < 2)
+                db.delete(SavedGiveaways.DB_TABLE, null, null);
 
-            SQLiteDatabase db = getWritableDatabase();
-            return db.replace(parent.table, null, values) != -1;
-        }
+            // Create a new table for saved discussions
+            if (oldVersion < 3)
+                db.execSQL("CREATE TABLE " + SavedDiscussions.DB_TABLE + "(" + KEY_ID + " text primary key, " + KEY_VALUE + " text)");
 
-        public List<T> all() {
-            List<T> elements = new ArrayList<T>();
-            Gson gson = new Gson();
+            // Move from serialized elements to one column per field
+            if (oldVersion < 4) {
+                Gson gson = new Gson();
+
+                Map<String, Giveaway> giveaways = readSerializedElements(db, SavedGiveaways.DB_TABLE, Giveaway.class, gson);
+                db.execSQL("DROP TABLE " + SavedGiveaways.DB_TABLE);
+                SavedGiveaways.createTable(db);
+                for (Map.Entry<String, Giveaway> giveaway : giveaways.entrySet()) {
+                    ContentValues values = SavedGiveaways.getContentValues(giveaway.getValue());
+                    values.put(KEY_ID, giveaway.getKey());
+                    db.insert(SavedGiveaways.DB_TABLE, null, values);
+                }
 
-            Cursor cursor = getReadableDatabase().query(parent.table, new String[]{KEY_VALUE}, null, null, null, null, null, null);
-            try {
-                while (cursor.moveToNext()) {
-                    elements.add(parent.getElement(gson, cursor.getString(0)));
+                Map<String, Discussion> discussions = readSerializedElements(db, SavedDiscussions.DB_TABLE, Discussion.class, gson);
+                db.execSQL("DROP TABLE " + SavedDiscussions.DB_TABLE);
+                SavedDiscussions.createTable(db);
+                for (Map.Entry<String, Discussion> discussion : discussions.entrySet()) {
+                    ContentValues values = SavedDiscussions.getContentValues(discussion.getValue());
+                    values.put(KEY_ID, discussion.getKey());
+                    db.insert(SavedDiscussions.DB_TABLE, null, values);
                 }
-            } finally {
-                cursor.close();
             }
-
-            Collections.sort(elements, parent);
-
-            return elements;
         }
 
-        public T get(String elementId) {
-            Cursor cursor = getReadableDatabase().query(parent.table, new String[]{KEY_VALUE}, KEY_ID + " = ?", new String[]{elementId}, null, null, null, null);
-            try {
-                if (cursor.moveToFirst())
-                    return parent.getElement(new Gson(), cursor.getString(0));
+        private static <E> Map<String, E> readSerializedElements(SQLiteDatabase db, String table, Class<E> type, Gson gson) {
+            Map<String, E> elements = new LinkedHashMap<String, E>();
 
-                return null;
+            Cursor cursor = db.query(table, new String[]{KEY_ID, KEY_VALUE}, null, null, null, null, null, null);
+            try {
+                while (cursor.moveToNext()) {
+                    try {
+                        elements.put(cursor.getString(0), gson.fromJson(cursor.getString(1), type));
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Unable to read saved element from " + table, e);
+                    }
+                }
             } finally {
                 cursor.close();
             }
-        }
-
-        public boolean exists(String elementId) {
-            Cursor cursor = getReadableDatabase().query(parent.table, new String[]{KEY_ID}, KEY_ID + " = ?", new String[]{elementId}, null, null, null, null);
-            boolean exists = cursor.getCount() > 0;
-            cursor.close();
 
-            return exists;
-        }
-
-        public boolean remove(String elementId) {
-            return getWritableDatabase().delete(parent.table, KEY_ID + " = ?", new String[]{elementId}) > 0;
-        }
-
-        @Override
-        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-            Log.w(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
-
-            // Delete all saved giveawys
-            if (oldVersion < 2)
-                db.delete(SavedGiveaways.DB_TABLE, null, null);
-
-            // Create a new table for saved discussions
-            if (oldVersion < 3)
-                db.execSQL("CREATE TABLE " + SavedDiscussions.DB_TABLE + "(" + KEY_ID + " text primary key, " + KEY_VALUE + " text)");
+            return elements;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,30 +1,153 @@
 package net.mabako.steamgifts.persistentdata;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
-import com.google.gson.Gson;
-
+import net.mabako.steamgifts.data.Game;
 import net.mabako.steamgifts.data.Giveaway;
 
+import java.util.Calendar;
+
 public class SavedGiveaways extends SavedElements<Giveaway> {
     static final String DB_TABLE = "giveaways";
 
+    static final String KEY_TITLE = "title";
+    static final String KEY_NAME = "name";
+    private static final String KEY_GAME_TYPE = "game_type";
+    static final String KEY_GAME_ID = "game_id";
+    static final String KEY_INTERNAL_GAME_ID = "internal_game_id";
+    private static final String KEY_CREATOR = "creator";
+    private static final String KEY_COPIES = "copies";
+    private static final String KEY_POINTS = "points";
+    private static final String KEY_LEVEL = "level";
+    private static final String KEY_CREATED_TIME = "created_time";
+    static final String KEY_END_TIME = "end_time";
+    static final String KEY_BEGINNING = "beginning";
+    private static final String KEY_WHITELIST = "whitelist";
+    private static final String KEY_GROUP = "is_group";
+    private static final String KEY_PRIVATE = "is_private";
+    private static final String KEY_REGION_RESTRICTED = "region_restricted";
+
+    /**
+     * All columns describing a giveaway, except for its id.
+     */
+    static final String COLUMN_DEFINITIONS =
+            KEY_TITLE + " text, " +
+            KEY_NAME + " text, " +
+            KEY_GAME_TYPE + " text, " +
+            KEY_GAME_ID + " integer, " +
+            KEY_INTERNAL_GAME_ID + " integer, " +
+            KEY_CREATOR + " text, " +
+            KEY_COPIES + " integer, " +
+            KEY_POINTS + " integer, " +
+            KEY_LEVEL + " integer, " +
+            KEY_CREATED_TIME + " integer, " +
+            KEY_END_TIME + " integer, " +
+            KEY_BEGINNING + " integer, " +
+            KEY_WHITELIST + " integer, " +
+            KEY_GROUP + " integer, " +
+            KEY_PRIVATE + " integer, " +
+            KEY_REGION_RESTRICTED + " integer";
+
     public SavedGiveaways(Context context) {
         super(context, DB_TABLE);
     }
 
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + DB_TABLE + "(" + KEY_ID + " text primary key, " + COLUMN_DEFINITIONS + ")");
+
+        db.execSQL("CREATE INDEX " + DB_TABLE + "_" + KEY_END_TIME + " ON " + DB_TABLE + "(" + KEY_END_TIME + ")");
+        db.execSQL("CREATE INDEX " + DB_TABLE + "_" + KEY_TITLE + " ON " + DB_TABLE + "(" + KEY_TITLE + ")");
+        db.execSQL("CREATE INDEX " + DB_TABLE + "_" + KEY_GAME_ID + " ON " + DB_TABLE + "(" + KEY_GAME_ID + ")");
+    }
+
+    static ContentValues getContentValues(Giveaway giveaway) {
+        ContentValues values = new ContentValues();
+        values.put(KEY_TITLE, giveaway.getTitle());
+        values.put(KEY_NAME, giveaway.getName());
+
+        Game game = giveaway.getGame();
+        if (game != null) {
+            values.put(KEY_GAME_TYPE, game.getType().name());
+            values.put(KEY_GAME_ID, game.getGameId());
+        }
+
+        values.put(KEY_INTERNAL_GAME_ID, giveaway.getInternalGameId());
+        values.put(KEY_CREATOR, giveaway.getCreator());
+        values.put(KEY_COPIES, giveaway.getCopies());
+        values.put(KEY_POINTS, giveaway.getPoints());
+        values.put(KEY_LEVEL, giveaway.getLevel());
+
+        Calendar createdTime = giveaway.getCreatedTime();
+        if (createdTime != null)
+            values.put(KEY_CREATED_TIME, createdTime.getTimeInMillis() / 1000);
+
+        Calendar endTime = giveaway.getEndTime();
+        if (endTime != null) {
+            values.put(KEY_END_TIME, endTime.getTimeInMillis() / 1000);
+            values.put(KEY_BEGINNING, giveaway.isBeginning());
+        }
+
+        values.put(KEY_WHITELIST, giveaway.isWhitelist());
+        values.put(KEY_GROUP, giveaway.isGroup());
+        values.put(KEY_PRIVATE, giveaway.isPrivate());
+        values.put(KEY_REGION_RESTRICTED, giveaway.isRegionRestricted());
+        return values;
+    }
+
+    @Override
+    protected ContentValues toContentValues(Giveaway giveaway) {
+        return getContentValues(giveaway);
+    }
+
     @Override
-    protected Giveaway getElement(Gson gson, String json) {
-        Giveaway giveaway = gson.fromJson(json, Giveaway.class);
+    protected Giveaway fromCursor(Cursor cursor) {
+        Giveaway giveaway = readGiveaway(cursor);
 
+        // Neither of these are saved, since they're outdated anyway.
         giveaway.setEntries(-1);
         giveaway.setEntered(false);
 
         return giveaway;
     }
 
+    /**
+     * Reads all columns in {@link #COLUMN_DEFINITIONS}, as well as the id, from the current row of the cursor.
+     */
+    static Giveaway readGiveaway(Cursor cursor) {
+        Giveaway giveaway = new Giveaway(cursor.getString(cursor.getColumnIndexOrThrow(KEY_ID)));
+        giveaway.setTitle(cursor.getString(cursor.getColumnIndexOrThrow(KEY_TITLE)));
+        giveaway.setName(cursor.getString(cursor.getColumnIndexOrThrow(KEY_NAME)));
+
+        int gameType = cursor.getColumnIndexOrThrow(KEY_GAME_TYPE);
+        if (!cursor.isNull(gameType))
+            giveaway.setGame(new Game(Game.Type.valueOf(cursor.getString(gameType)), cursor.getInt(cursor.getColumnIndexOrThrow(KEY_GAME_ID))));
+
+        giveaway.setInternalGameId(cursor.getLong(cursor.getColumnIndexOrThrow(KEY_INTERNAL_GAME_ID)));
+        giveaway.setCreator(cursor.getString(cursor.getColumnIndexOrThrow(KEY_CREATOR)));
+        giveaway.setCopies(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_COPIES)));
+        giveaway.setPoints(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_POINTS)));
+        giveaway.setLevel(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_LEVEL)));
+
+        int createdTime = cursor.getColumnIndexOrThrow(KEY_CREATED_TIME);
+        if (!cursor.isNull(createdTime))
+            giveaway.setCreatedTime(cursor.getInt(createdTime));
+
+        int endTime = cursor.getColumnIndexOrThrow(KEY_END_TIME);
+        if (!cursor.isNull(endTime))
+            giveaway.setEndTime(cursor.getInt(endTime), cursor.getInt(cursor.getColumnIndexOrThrow(KEY_BEGINNING)) != 0);
+
+        giveaway.setWhitelist(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_WHITELIST)) != 0);
+        giveaway.setGroup(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_GROUP)) != 0);
+        giveaway.setPrivate(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_PRIVATE)) != 0);
+        giveaway.setRegionRestricted(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_REGION_RESTRICTED)) != 0);
+        return giveaway;
+    }
+
     @Override
-    public int compare(Giveaway lhs, Giveaway rhs) {
-        return lhs.getEndTime().compareTo(rhs.getEndTime());
+    protected String getOrderBy() {
+        return KEY_END_TIME + ", " + KEY_ID;
     }
 }
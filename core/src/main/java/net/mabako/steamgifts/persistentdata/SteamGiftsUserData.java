@@ -6,10 +6,12 @@ import android.content.SharedPreferences;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
-import android.util.Log;
 
+import net.mabako.common.Logger;
+import net.mabako.steamgifts.tasks.Selectors;
 import net.mabako.steamgifts.tasks.Utils;
 
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -49,7 +51,7 @@ public class SteamGiftsUserData {
         if (current == null) {
             if (context == null) {
                 // do not keep the data, though, so anything here is pretty much a no-op
-                Log.w(TAG, "Instantiiating no-op SteamGiftsUserData");
+                Logger.w(TAG, "Instantiiating no-op SteamGiftsUserData");
                 return new SteamGiftsUserData();
             }
             current = new SteamGiftsUserData();
@@ -74,32 +76,32 @@ public class SteamGiftsUserData {
         if (document == null)
             return;
 
-        Elements navbar = document.select(".nav__button-container");
+        Elements navbar = Selectors.Navigation.BUTTON_CONTAINERS.select(document);
 
-        Element userContainer = navbar.last().select("a").first();
+        Element userContainer = Selectors.LINKS.first(navbar.last());
         String link = userContainer.attr("href");
 
         if (link.startsWith("/user/")) {
             current.setName(link.substring(6));
 
             // fetch the image
-            String style = userContainer.select("div").first().attr("style");
+            String style = Selectors.Navigation.AVATAR.first(userContainer).attr("style");
             style = Utils.extractAvatar(style);
             current.setImageUrl(style);
 
             // points
-            Element accountContainer = navbar.select("a[href=/account]").first();
-            current.setPoints(Utils.parseInt(accountContainer.select(".nav__points").text()));
+            Element accountContainer = Selectors.Navigation.ACCOUNT.first(navbar);
+            current.setPoints(Utils.parseInt(Selectors.Navigation.POINTS.select(accountContainer).text()));
 
             // Level
-            float level = Float.parseFloat(accountContainer.select("span").last().attr("title"));
+            float level = Float.parseFloat(Selectors.SPANS.select(accountContainer).last().attr("title"));
             current.setLevel((int) level);
 
             // Notifications
-            Elements notifications = navbar.select(".nav__button-container--notification");
-            current.setCreatedNotification(getInt(notifications.select("a[href=/giveaways/created]").first().text()));
-            current.setWonNotification(getInt(notifications.select("a[href=/giveaways/won]").first().text()));
-            current.setMessageNotification(getInt(notifications.select("a[href=/messages]").first().text()));
+            Elements notifications = Selectors.Navigation.NOTIFICATIONS.select(navbar);
+            current.setCreatedNotification(getInt(Selectors.Navigation.CREATED_NOTIFICATION.first(notifications).text()));
+            current.setWonNotification(getInt(Selectors.Navigation.WON_NOTIFICATION.first(notifications).text()));
+            current.setMessageNotification(getInt(Selectors.Navigation.MESSAGE_NOTIFICATION.first(notifications).text()));
         } else if (link.startsWith("/?login") && current.isLoggedIn()) {
             current = new SteamGiftsUserData();
             if (context != null)
@@ -107,6 +109,16 @@ public class SteamGiftsUserData {
         }
     }
 
+    /**
+     * Updates the current user's points and notifications from only the header of a page, as read by
+     * {@link net.mabako.steamgifts.network.SteamGiftsHttpClient.Response#charStream()} before the rest of the page is.
+     *
+     * @param headerHtml markup of the page's <code>&lt;header&gt;</code>
+     */
+    public static void extract(@Nullable Context context, @NonNull String headerHtml) {
+        extract(context, Jsoup.parse(headerHtml));
+    }
+
     private static int getInt(String text) {
         text = text.trim();
         if (TextUtils.isEmpty(text))
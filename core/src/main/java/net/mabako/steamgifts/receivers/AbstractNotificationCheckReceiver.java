@@ -5,6 +5,7 @@ import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.preference.PreferenceManager;
@@ -15,6 +16,7 @@ import android.util.Log;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 
 import java.util.List;
+import java.util.Locale;
 
 public abstract class AbstractNotificationCheckReceiver extends BroadcastReceiver {
     private static final String DEFAULT_PREF_NOTIFICATIONS_ENABLED = "preference_notifications";
@@ -24,6 +26,11 @@ public abstract class AbstractNotificationCheckReceiver extends BroadcastReceive
      */
     protected static final String PREFS_NOTIFICATIONS_SERVICE = "notification-service";
 
+    /**
+     * Prefix of the preference holding the number of notifications of each type the last check has seen.
+     */
+    private static final String PREF_KEY_LAST_NOTIFICATION_COUNT = "last-notification-count-";
+
     /**
      * Number of notifications we display at most.
      */
@@ -63,6 +70,45 @@ public abstract class AbstractNotificationCheckReceiver extends BroadcastReceive
         return true;
     }
 
+    /**
+     * Checks whether there are more notifications of a type than when they were last looked at through
+     * {@link #setLastNotificationCount(Context, NotificationId, int)}. Fewer notifications are remembered right away,
+     * so any new ones are noticed the next time.
+     *
+     * @param context        receiver context
+     * @param notificationId type of the notifications
+     * @param count          the current number of notifications
+     * @return true if there are more notifications than before, false otherwise
+     */
+    protected static boolean hasMoreNotifications(Context context, NotificationId notificationId, int count) {
+        int lastCount = getPreferences(context).getInt(getLastNotificationCountKey(notificationId), 0);
+        if (count > lastCount)
+            return true;
+
+        if (count < lastCount)
+            setLastNotificationCount(context, notificationId, count);
+        return false;
+    }
+
+    /**
+     * Remembers how many notifications of a type there were when they were last looked at.
+     *
+     * @param context        receiver context
+     * @param notificationId type of the notifications
+     * @param count          the number of notifications
+     */
+    protected static void setLastNotificationCount(Context context, NotificationId notificationId, int count) {
+        getPreferences(context).edit().putInt(getLastNotificationCountKey(notificationId), count).apply();
+    }
+
+    private static String getLastNotificationCountKey(NotificationId notificationId) {
+        return PREF_KEY_LAST_NOTIFICATION_COUNT + notificationId.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getSharedPreferences(PREFS_NOTIFICATIONS_SERVICE, Context.MODE_PRIVATE);
+    }
+
     /**
      * Display a notification for a single item.
      *
@@ -21,6 +21,8 @@ import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.fragments.interfaces.ILoadItemsListener;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.tasks.LoadMessagesTask;
+import net.mabako.steamgifts.tasks.LoadUserDataTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +30,9 @@ import java.util.List;
 /**
  * Check for new messages at <a href="https://www.steamgifts.com/messages">steamgifts.com/messages</a>
  * and display a notification if any exists.
+ * <p>Most of the time, nothing changed since the last check. So rather than loading all messages right away, only the
+ * number of messages and won giveaways is checked first; messages are only loaded if there are more of them than
+ * the last time they were loaded, and likewise {@link CheckForWonGiveaways} is only run for more won giveaways.</p>
  */
 public class CheckForNewMessages extends AbstractNotificationCheckReceiver {
     private static NotificationId NOTIFICATION_ID = NotificationId.MESSAGES;
@@ -46,7 +51,7 @@ public class CheckForNewMessages extends AbstractNotificationCheckReceiver {
         if (TextUtils.isEmpty(action)) {
             Log.v(TAG, "Checking for new messages...");
             if (shouldRunNetworkTask(TAG, context)) {
-                new LoadMessagesTask(new Check(context), context, 1).execute();
+                TaskExecutor.execute(new CheckNotificationCounts(context), TaskExecutor.Priority.BACKGROUND);
             }
         } else if (ACTION_DELETE.equals(action)) {
             // If we explicitly dismiss this notification, we want to stop this message from re-appearing ever.
@@ -67,12 +72,57 @@ public class CheckForNewMessages extends AbstractNotificationCheckReceiver {
         context.getSharedPreferences(PREFS_NOTIFICATIONS_SERVICE, Context.MODE_PRIVATE).edit().putString(PREF_KEY_LAST_DISMISSED_NOTIFICATION, commentId).apply();
     }
 
+    private static void loadMessages(Context context, boolean checkWonGiveaways) {
+        TaskExecutor.execute(new LoadMessagesTask(new Check(context, checkWonGiveaways), context, 1), TaskExecutor.Priority.BACKGROUND);
+    }
+
+    /**
+     * Only escalates to loading messages or won giveaways if there are more of them than when last checked.
+     */
+    private static class CheckNotificationCounts extends LoadUserDataTask {
+        private final Context context;
+
+        public CheckNotificationCounts(Context context) {
+            super(context);
+            this.context = context;
+        }
+
+        @Override
+        protected void onPostExecute(Boolean success) {
+            if (!success) {
+                // Without any counts to go by, look at the messages themselves.
+                Log.v(TAG, "Unable to check notification counts, loading messages instead");
+                loadMessages(context, true);
+                return;
+            }
+
+            SteamGiftsUserData userData = SteamGiftsUserData.getCurrent(context);
+            if (!userData.isLoggedIn()) {
+                Log.v(TAG, "No longer logged in");
+                return;
+            }
+
+            if (hasMoreNotifications(context, NotificationId.MESSAGES, userData.getMessageNotification())) {
+                loadMessages(context, false);
+            } else {
+                Log.v(TAG, "No new messages");
+            }
+
+            if (hasMoreNotifications(context, NotificationId.WON, userData.getWonNotification())) {
+                // Let's check which giveaways are new among the won ones.
+                context.sendBroadcast(new Intent(context, CheckForWonGiveaways.class));
+            }
+        }
+    }
+
     private static class Check implements ILoadItemsListener {
         private final Context context;
+        private final boolean checkWonGiveaways;
         private String lastCommentId;
 
-        public Check(Context context) {
+        public Check(Context context, boolean checkWonGiveaways) {
             this.context = context;
+            this.checkWonGiveaways = checkWonGiveaways;
         }
 
         /**
@@ -80,16 +130,25 @@ public class CheckForNewMessages extends AbstractNotificationCheckReceiver {
          */
         @Override
         public void addItems(List<? extends IEndlessAdaptable> items, boolean clearExistingItems, String xsrfToken) {
-            if (items == null || items.size() == 0) {
-                Log.d(TAG, "got no messages -at all-");
+            if (items == null) {
+                Log.d(TAG, "Unable to load messages");
                 return;
             }
 
-            if (SteamGiftsUserData.getCurrent(context).getWonNotification() > 0) {
-                // Do we have any won giveaways? If so, let's check if there's any new among them.
+            // The messages were looked at, so only load them again once there are more.
+            SteamGiftsUserData userData = SteamGiftsUserData.getCurrent(context);
+            setLastNotificationCount(context, NotificationId.MESSAGES, userData.getMessageNotification());
+
+            if (checkWonGiveaways && hasMoreNotifications(context, NotificationId.WON, userData.getWonNotification())) {
+                // Do we have any new won giveaways? If so, let's check which ones are new.
                 context.sendBroadcast(new Intent(context, CheckForWonGiveaways.class));
             }
 
+            if (items.size() == 0) {
+                Log.d(TAG, "got no messages -at all-");
+                return;
+            }
+
             SharedPreferences sharedPreferences = context.getSharedPreferences(PREFS_NOTIFICATIONS_SERVICE, Context.MODE_PRIVATE);
             String lastDismissedId = sharedPreferences.getString(PREF_KEY_LAST_DISMISSED_NOTIFICATION, "meow");
 
@@ -15,6 +15,7 @@ import net.mabako.steamgifts.data.Giveaway;
 import net.mabako.steamgifts.fragments.interfaces.ILoadItemsListener;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 import net.mabako.steamgifts.tasks.LoadWonGameListTask;
+import net.mabako.steamgifts.tasks.TaskExecutor;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -22,7 +23,8 @@ import java.util.List;
 import java.util.Set;
 
 /**
- * Check for won newly won giveaways. This is, eventually, only triggered if {@link CheckForNewMessages} detects any won giveaways.
+ * Check for won newly won giveaways. This is, eventually, only triggered if {@link CheckForNewMessages} detects more won giveaways than
+ * when last checked.
  */
 public class CheckForWonGiveaways extends AbstractNotificationCheckReceiver {
     private static NotificationId NOTIFICATION_ID = NotificationId.WON;
@@ -46,7 +48,7 @@ public class CheckForWonGiveaways extends AbstractNotificationCheckReceiver {
         if (TextUtils.isEmpty(action)) {
             Log.v(TAG, "Checking for newly won giveaways...");
             if (shouldRunNetworkTask(TAG, context)) {
-                new LoadWonGameListTask(new Check(context), context, 1).execute();
+                TaskExecutor.execute(new LoadWonGameListTask(new Check(context), context, 1), TaskExecutor.Priority.BACKGROUND);
             }
         } else if (ACTION_DELETE.equals(action)) {
             // If we explicitly dismiss this notification, we want to stop this message from re-appearing ever.
@@ -77,7 +79,15 @@ public class CheckForWonGiveaways extends AbstractNotificationCheckReceiver {
 
         @Override
         public void addItems(List<? extends IEndlessAdaptable> items, boolean clearExistingItems, String xsrfToken) {
-            if (items == null || items.size() == 0) {
+            if (items == null) {
+                Log.d(TAG, "Unable to load won games");
+                return;
+            }
+
+            // The won games were looked at, so only load them again once there are more.
+            setLastNotificationCount(context, NOTIFICATION_ID, SteamGiftsUserData.getCurrent(context).getWonNotification());
+
+            if (items.size() == 0) {
                 Log.d(TAG, "got no won games -at all-");
                 return;
             }
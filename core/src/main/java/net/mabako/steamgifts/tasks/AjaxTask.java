@@ -5,15 +5,12 @@ import android.os.AsyncTask;
 import android.text.TextUtils;
 import android.util.Log;
 
-import net.mabako.Constants;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
-
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
+import net.mabako.steamgifts.network.PageCache;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 import java.io.IOException;
 
-public abstract class AjaxTask<FragmentType> extends AsyncTask<Void, Void, Connection.Response> {
+public abstract class AjaxTask<FragmentType> extends AsyncTask<Void, Void, SteamGiftsHttpClient.Response> {
     private static final String TAG = AjaxTask.class.getSimpleName();
 
     private String url = "https://www.steamgifts.com/ajax.php";
@@ -38,24 +35,25 @@ public abstract class AjaxTask<FragmentType> extends AsyncTask<Void, Void, Conne
     }
 
     @Override
-    protected Connection.Response doInBackground(Void... params) {
+    protected SteamGiftsHttpClient.Response doInBackground(Void... params) {
         try {
             Log.v(TAG, "Connecting to " + url);
-            Connection connection = Jsoup
-                    .connect(url)
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT)
+            SteamGiftsHttpClient.Request request = SteamGiftsHttpClient
+                    .post(context, url)
                     .data("xsrf_token", xsrfToken)
                     .data("do", what)
-                    .cookie("PHPSESSID", SteamGiftsUserData.getCurrent(context).getSessionId())
                     .followRedirects(false);
 
-            addExtraParameters(connection);
+            addExtraParameters(request);
 
-            Connection.Response response = connection.method(Connection.Method.POST).execute();
+            // Read the body here, since it is only ever looked at in onPostExecute.
+            SteamGiftsHttpClient.Response response = request.execute().buffer();
 
             Log.v(TAG, url + " returned Status Code " + response.statusCode() + " (" + response.statusMessage() + ")");
 
+            // Whatever we did probably changed some pages, such as giveaways now being entered.
+            PageCache.markAllStale();
+
             return response;
         } catch (IOException e) {
             Log.e(TAG, "Error fetching URL", e);
@@ -63,7 +61,7 @@ public abstract class AjaxTask<FragmentType> extends AsyncTask<Void, Void, Conne
         }
     }
 
-    protected abstract void addExtraParameters(Connection connection);
+    protected abstract void addExtraParameters(SteamGiftsHttpClient.Request request);
 
     protected FragmentType getFragment() {
         return fragment;
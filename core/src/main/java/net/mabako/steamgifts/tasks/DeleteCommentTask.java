@@ -5,10 +5,10 @@ import android.util.Log;
 
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.fragments.DetailFragment;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 
 public class DeleteCommentTask extends AjaxTask<DetailFragment> {
@@ -27,14 +27,14 @@ public class DeleteCommentTask extends AjaxTask<DetailFragment> {
     }
 
     @Override
-    protected void addExtraParameters(Connection connection) {
-        connection
+    protected void addExtraParameters(SteamGiftsHttpClient.Request request) {
+        request
                 .data("comment_id", String.valueOf(commentId))
                 .data("allow_replies", "1");
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         if (response != null && response.statusCode() == 200) {
             try {
                 Log.v(TAG, "Response to JSON request: " + response.body());
@@ -6,10 +6,10 @@ import android.util.Log;
 
 import net.mabako.steamgifts.activities.WriteCommentActivity;
 import net.mabako.steamgifts.data.Comment;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -28,14 +28,14 @@ public abstract class EditCommentTask extends AjaxTask<Activity> {
     }
 
     @Override
-    protected void addExtraParameters(Connection connection) {
-        connection.data("allow_replies", "1")
+    protected void addExtraParameters(SteamGiftsHttpClient.Request request) {
+        request.data("allow_replies", "1")
                 .data("comment_id", String.valueOf(comment.getId()))
                 .data("description", newText);
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         Activity activity = getFragment();
         if (response != null && response.statusCode() == 200) {
             try {
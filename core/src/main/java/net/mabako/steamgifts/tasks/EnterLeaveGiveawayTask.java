@@ -2,16 +2,19 @@ package net.mabako.steamgifts.tasks;
 
 import android.content.Context;
 import android.content.Intent;
+import android.database.sqlite.SQLiteException;
 import android.support.v4.app.Fragment;
 import android.util.Log;
 
 import net.mabako.steamgifts.activities.SyncActivity;
+import net.mabako.steamgifts.fragments.GiveawayDetailFragment;
 import net.mabako.steamgifts.fragments.interfaces.IHasEnterableGiveaways;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
+import net.mabako.steamgifts.persistentdata.GiveawayIndex;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.jsoup.Connection;
 
 /**
  * Task to enter or leave giveaways.
@@ -26,12 +29,38 @@ public class EnterLeaveGiveawayTask extends AjaxTask<IHasEnterableGiveaways> {
     }
 
     @Override
-    public void addExtraParameters(Connection connection) {
-        connection.data("code", giveawayId);
+    public void addExtraParameters(SteamGiftsHttpClient.Request request) {
+        request.data("code", giveawayId);
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected SteamGiftsHttpClient.Response doInBackground(Void... params) {
+        SteamGiftsHttpClient.Response response = super.doInBackground(params);
+        if (response != null && response.statusCode() == 200)
+            updateIndex(response);
+        return response;
+    }
+
+    /**
+     * Remembers whether the giveaway is entered now, so it's shown as such the next time the list is opened.
+     */
+    private void updateIndex(SteamGiftsHttpClient.Response response) {
+        try {
+            if (!"success".equals(new JSONObject(response.body()).getString("type")))
+                return;
+
+            GiveawayIndex index = GiveawayIndex.getInstance(getContext());
+            if (index != null)
+                index.setEntered(giveawayId, GiveawayDetailFragment.ENTRY_INSERT.equals(getWhat()));
+        } catch (JSONException e) {
+            // Reported in onPostExecute.
+        } catch (SQLiteException e) {
+            Log.w(TAG, "Unable to update giveaway index", e);
+        }
+    }
+
+    @Override
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         if (response != null && response.statusCode() == 200) {
             try {
                 Log.v(TAG, "Response to JSON request: " + response.body());
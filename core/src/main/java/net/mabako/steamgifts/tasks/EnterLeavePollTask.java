@@ -5,8 +5,7 @@ import android.util.Log;
 import android.widget.Toast;
 
 import net.mabako.steamgifts.fragments.interfaces.IHasPoll;
-
-import org.jsoup.Connection;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 public class EnterLeavePollTask extends AjaxTask<IHasPoll> {
     private static final String TAG = EnterLeavePollTask.class.getSimpleName();
@@ -22,12 +21,12 @@ public class EnterLeavePollTask extends AjaxTask<IHasPoll> {
     }
 
     @Override
-    protected void addExtraParameters(Connection connection) {
-        connection.data("poll_answer_id", String.valueOf(answerId));
+    protected void addExtraParameters(SteamGiftsHttpClient.Request request) {
+        request.data("poll_answer_id", String.valueOf(answerId));
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         super.onPostExecute(response);
 
         Log.d(TAG, "Response: " + response);
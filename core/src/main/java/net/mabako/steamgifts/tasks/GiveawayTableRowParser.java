@@ -0,0 +1,60 @@
+package net.mabako.steamgifts.tasks;
+
+import android.net.Uri;
+
+import net.mabako.steamgifts.data.Game;
+import net.mabako.steamgifts.data.Giveaway;
+
+import org.jsoup.nodes.Element;
+
+import java.util.List;
+
+/**
+ * Reads tables of giveaways, such as the giveaways a user entered, won or created.
+ * <p>The link to each giveaway and its game are the same for all of these; anything else is up to
+ * {@link #load(Giveaway, Row)}.</p>
+ *
+ * @param <T> type of the giveaways created for each row
+ */
+public abstract class GiveawayTableRowParser<T extends Giveaway> extends TableRowParser<T> {
+    private final Field link = field(Selectors.Table.GIVEAWAY_LINK);
+    private final Field image = field(Selectors.Table.IMAGE);
+
+    /**
+     * Creates a new giveaway.
+     *
+     * @param giveawayId id of the giveaway
+     */
+    protected abstract T newGiveaway(String giveawayId);
+
+    /**
+     * Reads all details particular to this table.
+     */
+    protected abstract void load(T giveaway, Row row);
+
+    @Override
+    protected final T create(Row row) {
+        Element link = row.first(this.link);
+
+        Uri linkUri = Uri.parse(link.attr("href"));
+        String giveawayLink = linkUri.getPathSegments().get(1);
+        String giveawayName = linkUri.getPathSegments().get(2);
+
+        T giveaway = newGiveaway(giveawayLink);
+        giveaway.setName(giveawayName);
+        giveaway.setTitle(link.text());
+
+        Element image = row.first(this.image);
+        if (image != null) {
+            Uri uri = Uri.parse(Utils.extractAvatar(image.attr("style")));
+            List<String> pathSegments = uri.getPathSegments();
+            if (pathSegments.size() >= 3) {
+                giveaway.setGame(new Game("apps".equals(pathSegments.get(1)) ? Game.Type.APP : Game.Type.SUB, Integer.parseInt(pathSegments.get(2))));
+            }
+        }
+
+        giveaway.setPoints(-1);
+        load(giveaway, row);
+        return giveaway;
+    }
+}
@@ -1,30 +1,39 @@
 package net.mabako.steamgifts.tasks;
 
+import android.database.sqlite.SQLiteException;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.support.annotation.NonNull;
 import android.util.Log;
 import android.widget.Toast;
 
-import net.mabako.Constants;
+import net.mabako.steamgifts.adapters.EndlessAdapter;
+import net.mabako.steamgifts.adapters.viewholder.RenderedHtmlCache;
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.data.Discussion;
 import net.mabako.steamgifts.data.DiscussionExtras;
-import net.mabako.steamgifts.data.Poll;
 import net.mabako.steamgifts.fragments.DiscussionDetailFragment;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
+import net.mabako.steamgifts.persistentdata.DiscussionIndex;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionExtras> {
     private static final String TAG = LoadDiscussionDetailsTask.class.getSimpleName();
 
+    /**
+     * How many of the last pages are loaded at once when starting from the end of a discussion.
+     */
+    private static final int PAGES_FROM_THE_END = 3;
+
     private final DiscussionDetailFragment fragment;
     private String discussionId;
     private int page;
@@ -33,6 +42,11 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
     private Discussion loadedDetails = null;
     private boolean lastPage = false;
 
+    /**
+     * The description without any formatting, for the {@link DiscussionIndex}.
+     */
+    private String descriptionText = null;
+
     public LoadDiscussionDetailsTask(DiscussionDetailFragment fragment, String discussionId, int page, boolean loadDetails) {
         this.fragment = fragment;
         this.discussionId = discussionId;
@@ -44,9 +58,9 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
     @Override
     protected DiscussionExtras doInBackground(Void... params) {
         try {
-            Connection.Response response = connect();
+            SteamGiftsHttpClient.Response response = connect();
             if (response.statusCode() == 200) {
-                Uri uri = Uri.parse(response.url().toURI().toString());
+                Uri uri = Uri.parse(response.url());
                 Log.v(TAG, "Current URI -> " + uri);
                 if (uri.getPathSegments().size() < 2)
                     throw new Exception("Could actually not find the discussion, we're at URI " + uri.toString());
@@ -55,27 +69,36 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
                 if (!"search".equals(uri.getLastPathSegment())) {
                     // Let's just try again.
                     discussionId = uri.getPathSegments().get(1) + "/" + uri.getPathSegments().get(2);
+                    response.close();
                     response = connect();
                 }
 
 
                 Document document = response.parse();
 
-                // Update user details
-                SteamGiftsUserData.extract(fragment.getContext(), document);
-
                 DiscussionExtras extras = loadExtras(document);
+
+                // Render the description and comments now, rather than each time they're scrolled into view.
+                RenderedHtmlCache.render(fragment.getContext(), extras.getDescription());
+                RenderedHtmlCache.render(fragment.getContext(), extras.getComments());
                 if (loadDetails) {
                     loadedDetails = loadDiscussion(document, uri);
                 }
 
+                if (descriptionText != null)
+                    updateIndex(uri.getPathSegments().get(1));
+
                 // Do we have a page?
                 Element pagination = document.select(".pagination__navigation a").last();
                 if (pagination != null) {
+                    boolean fromTheEnd = page == EndlessAdapter.LAST_PAGE;
+
                     lastPage = !"Last".equalsIgnoreCase(pagination.text());
                     if (lastPage)
                         page = Integer.parseInt(pagination.attr("data-page-number"));
 
+                    if (fromTheEnd && lastPage && fragment.getAdapter().isViewInReverse())
+                        loadPreviousPages(extras);
                 } else {
                     // no pagination
                     lastPage = true;
@@ -90,18 +113,79 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
         return null;
     }
 
-    private Connection.Response connect() throws IOException {
-        String url = "https://www.steamgifts.com/discussion/" + discussionId + "/search?page=" + page;
-        Log.v(TAG, "Fetching discussion details for " + url);
-        Connection connection = Jsoup.connect(url)
-                .userAgent(Constants.JSOUP_USER_AGENT)
-                .timeout(Constants.JSOUP_TIMEOUT)
-                .followRedirects(true);
+    /**
+     * Loads the pages before the last page at the same time, instead of waiting for each to be scrolled to.
+     * <p>Comments are added in reverse order, i.e. all comments on the page before the last page follow the comments on
+     * the last page. {@link #page} is set to the earliest page loaded, so the adapter continues with the page before.</p>
+     *
+     * @param extras the extras of the last page
+     */
+    private void loadPreviousPages(DiscussionExtras extras) throws Exception {
+        List<Future<List<Comment>>> pages = new ArrayList<>();
+        for (int previousPage = page - 1; previousPage >= 1 && previousPage > page - PAGES_FROM_THE_END; --previousPage) {
+            final int pageToLoad = previousPage;
+            pages.add(TaskExecutor.fork(new Callable<List<Comment>>() {
+                @Override
+                public List<Comment> call() throws Exception {
+                    return loadComments(pageToLoad);
+                }
+            }));
+        }
+
+        try {
+            for (Future<List<Comment>> future : pages) {
+                List<Comment> comments;
+                try {
+                    comments = TaskExecutor.join(future);
+                } catch (IOException e) {
+                    // Whatever we couldn't load is loaded again once scrolled to.
+                    Log.w(TAG, "Unable to load page " + (page - 1), e);
+                    break;
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Unable to parse page " + (page - 1), e);
+                    break;
+                } catch (InterruptedException e) {
+                    // This task was cancelled, nothing it loaded is going to be shown.
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                for (Comment comment : comments)
+                    extras.addComment(comment);
+                --page;
+            }
+        } finally {
+            // Nobody is waiting for the remaining pages anymore if one failed, or if this task was cancelled.
+            for (Future<List<Comment>> remaining : pages)
+                remaining.cancel(true);
+        }
+    }
 
-        if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn())
-            connection.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
+    /**
+     * Loads only the comments on a single page.
+     */
+    private List<Comment> loadComments(int pageToLoad) throws IOException {
+        Document document = connect(pageToLoad).parse();
+
+        DiscussionExtras extras = new DiscussionExtras();
+        Elements commentsNode = document.select(".comments");
+        if (commentsNode.size() > 1)
+            Utils.loadComments(commentsNode.last(), extras, 0, true, false, Comment.Type.COMMENT);
+
+        RenderedHtmlCache.render(fragment.getContext(), extras.getComments());
+        return extras.getComments();
+    }
 
-        return connection.execute();
+    private SteamGiftsHttpClient.Response connect() throws IOException {
+        return connect(page);
+    }
+
+    private SteamGiftsHttpClient.Response connect(int page) throws IOException {
+        String url = "https://www.steamgifts.com/discussion/" + discussionId + "/search?page=" + page;
+        Log.v(TAG, "Fetching discussion details for " + url);
+        return SteamGiftsHttpClient.get(fragment.getContext(), url)
+                .followRedirects(true)
+                .execute();
     }
 
     private Discussion loadDiscussion(Document document, Uri linkUri) {
@@ -130,6 +214,18 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
         return discussion;
     }
 
+    private void updateIndex(String discussionId) {
+        DiscussionIndex index = DiscussionIndex.getInstance(fragment.getContext());
+        if (index == null)
+            return;
+
+        try {
+            index.setDescription(discussionId, descriptionText);
+        } catch (SQLiteException e) {
+            Log.w(TAG, "Unable to update discussion index", e);
+        }
+    }
+
     @NonNull
     private DiscussionExtras loadExtras(Document document) {
         DiscussionExtras extras = new DiscussionExtras();
@@ -138,6 +234,7 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
         Element description = document.select(".comment__display-state .markdown").first();
         if (description != null) {
             // This will be null if no description is given.
+            descriptionText = description.text();
             description.select("blockquote").tagName("custom_quote");
             extras.setDescription(Utils.loadAttachedImages(extras, description));
         }
@@ -160,7 +257,7 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
         Element pollElement = document.select(".poll").first();
         if (pollElement != null) {
             try {
-                extras.setPoll(loadPoll(pollElement));
+                extras.setPoll(Utils.loadPoll(pollElement));
             } catch (Exception e) {
                 Log.w(TAG, "unable to load poll", e);
             }
@@ -169,38 +266,6 @@ public class LoadDiscussionDetailsTask extends AsyncTask<Void, Void, DiscussionE
         return extras;
     }
 
-    private Poll loadPoll(Element pollElement) {
-        Poll poll = new Poll();
-
-        // Question and Description are actually both within the same element, which makes it a tad confusing.
-        // Fetch the question and description
-        Elements pollHeader = pollElement.select(".table__heading .table__column--width-fill p");
-
-        // Set the description only, and remove that from the question element
-        poll.setDescription(pollHeader.select("span.poll__description").text());
-        pollHeader.select("span.poll__description").html("");
-
-        // the remaining text is the question.
-        poll.setQuestion(pollHeader.text());
-
-        poll.setClosed(pollElement.select("form").isEmpty());
-
-        Elements answerElements = pollElement.select(".table__rows div[data-id]");
-        for (Element thisAnswer : answerElements) {
-            Poll.Answer answer = new Poll.Answer();
-
-            answer.setId(Integer.valueOf(thisAnswer.attr("data-id")));
-            answer.setVoteCount(Integer.valueOf(thisAnswer.attr("data-votes")));
-            answer.setText(thisAnswer.select(".table__column__heading").text());
-
-            poll.addAnswer(answer, thisAnswer.hasClass("is-selected"));
-        }
-
-        Log.d(TAG, poll.toString());
-
-        return poll;
-    }
-
     @Override
     protected void onPostExecute(DiscussionExtras discussionExtras) {
         super.onPostExecute(discussionExtras);
@@ -1,16 +1,16 @@
 package net.mabako.steamgifts.tasks;
 
+import android.database.sqlite.SQLiteException;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.data.Discussion;
 import net.mabako.steamgifts.fragments.DiscussionListFragment;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.PageCache;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
+import net.mabako.steamgifts.persistentdata.DiscussionIndex;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -29,12 +29,14 @@ public class LoadDiscussionListTask extends AsyncTask<Void, Void, List<Discussio
     private final int page;
     private final DiscussionListFragment.Type type;
     private final String searchQuery;
+    private final boolean reloading;
 
     public LoadDiscussionListTask(DiscussionListFragment fragment, int page, DiscussionListFragment.Type type, String searchQuery) {
         this.fragment = fragment;
         this.page = page;
         this.type = type;
         this.searchQuery = searchQuery;
+        this.reloading = fragment.isReloading();
     }
 
     @Override
@@ -48,9 +50,7 @@ public class LoadDiscussionListTask extends AsyncTask<Void, Void, List<Discussio
 
             Log.d(TAG, "Fetching discussions for page " + page + " and URL " + url);
 
-            Connection jsoup = Jsoup.connect(url)
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request jsoup = SteamGiftsHttpClient.get(fragment.getContext(), url);
             jsoup.data("page", Integer.toString(page));
 
             if (searchQuery != null)
@@ -61,19 +61,16 @@ public class LoadDiscussionListTask extends AsyncTask<Void, Void, List<Discussio
             if (type == DiscussionListFragment.Type.CREATED)
                 jsoup.followRedirects(false);
 
-            if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn())
-                jsoup.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
+            jsoup.cache(PageCache.Policy.DISCUSSION_LIST, reloading);
             Document document = jsoup.get();
 
-            SteamGiftsUserData.extract(fragment.getContext(), document);
-
             // Parse all rows of discussions
-            Elements discussions = document.select(".table__row-inner-wrap");
+            Elements discussions = Selectors.DiscussionList.ROWS.select(document);
             Log.d(TAG, "Found inner " + discussions.size() + " elements");
 
             List<Discussion> discussionList = new ArrayList<>();
             for (Element element : discussions) {
-                Element link = element.select("h3 a").first();
+                Element link = Selectors.DiscussionList.LINK.first(element);
 
                 // Basic information
                 Uri uri = Uri.parse(link.attr("href"));
@@ -84,19 +81,21 @@ public class LoadDiscussionListTask extends AsyncTask<Void, Void, List<Discussio
                 discussion.setTitle(link.text());
                 discussion.setName(discussionName);
 
-                Element p = element.select(".table__column--width-fill p").first();
-                discussion.setCreatedTime(Integer.valueOf(p.select("span").first().attr("data-timestamp")));
-                discussion.setCreator(p.select("a").last().text());
+                Element p = Selectors.DiscussionList.SUMMARY.first(element);
+                discussion.setCreatedTime(Integer.valueOf(Selectors.SPANS.first(p).attr("data-timestamp")));
+                discussion.setCreator(Selectors.LINKS.select(p).last().text());
 
                 // The creator's avatar
-                Element avatarNode = element.select(".table_image_avatar").first();
+                Element avatarNode = Selectors.DiscussionList.AVATAR.first(element);
                 if (avatarNode != null)
                     discussion.setCreatorAvatar(Utils.extractAvatar(avatarNode.attr("style")));
 
                 discussion.setLocked(element.hasClass("is-faded"));
-                discussion.setPoll(!element.select("h3 i.fa-align-left").isEmpty());
+                discussion.setPoll(Selectors.DiscussionList.POLL.exists(element));
                 discussionList.add(discussion);
             }
+
+            updateIndex(discussionList);
             return discussionList;
         } catch (Exception e) {
             Log.e(TAG, "Error fetching URL", e);
@@ -104,9 +103,24 @@ public class LoadDiscussionListTask extends AsyncTask<Void, Void, List<Discussio
         }
     }
 
+    /**
+     * Remembers all discussions in the {@link DiscussionIndex}, so they can be searched for locally.
+     */
+    private void updateIndex(List<Discussion> discussions) {
+        DiscussionIndex index = DiscussionIndex.getInstance(fragment.getContext());
+        if (index == null)
+            return;
+
+        try {
+            index.update(discussions);
+        } catch (SQLiteException e) {
+            Log.w(TAG, "Unable to update discussion index", e);
+        }
+    }
+
     @Override
     protected void onPostExecute(List<Discussion> result) {
         super.onPostExecute(result);
-        fragment.addItems(result, page == 1);
+        fragment.addItems(this, result, page == 1, null);
     }
 }
@@ -4,16 +4,12 @@ import android.content.Context;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.adapters.IEndlessAdaptable;
 import net.mabako.steamgifts.fragments.interfaces.ILoadItemsListener;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -44,30 +40,24 @@ public abstract class LoadGameListTask extends AsyncTask<Void, Void, List<IEndle
         try {
             // Fetch the Giveaway page
 
-            Connection jsoup = Jsoup.connect("https://www.steamgifts.com/" + pathSegment + "/search")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request jsoup = SteamGiftsHttpClient.get(context, "https://www.steamgifts.com/" + pathSegment + "/search");
             jsoup.data("page", Integer.toString(page));
 
             if (searchQuery != null)
                 jsoup.data("q", searchQuery);
 
-            jsoup.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(context).getSessionId());
-
             Document document = jsoup.get();
 
-            SteamGiftsUserData.extract(context, document);
-
             // Fetch the xsrf token
-            Element xsrfToken = document.select("input[name=xsrf_token]").first();
+            Element xsrfToken = Selectors.XSRF_TOKEN.first(document);
             if (xsrfToken != null)
                 foundXsrfToken = xsrfToken.attr("value");
 
             // Do away with pinned giveaways.
-            document.select(".pinned-giveaways__outer-wrap").html("");
+            Selectors.Table.PINNED_GIVEAWAYS.select(document).html("");
 
             // Parse all rows of giveaways
-            return loadAll(document);
+            return new ArrayList<IEndlessAdaptable>(getParser().parse(document));
         } catch (Exception e) {
             Log.e(TAG, "Error fetching URL", e);
             return null;
@@ -80,17 +70,10 @@ public abstract class LoadGameListTask extends AsyncTask<Void, Void, List<IEndle
         listener.addItems(result, page == 1, foundXsrfToken);
     }
 
-    private List<IEndlessAdaptable> loadAll(Document document) {
-        Elements games = document.select(".table__row-inner-wrap");
-        List<IEndlessAdaptable> gameList = new ArrayList<>();
-
-        for (Element element : games) {
-            gameList.add(load(element));
-        }
-        return gameList;
-    }
-
-    protected abstract IEndlessAdaptable load(Element element);
+    /**
+     * @return the parser creating an item for each row of the list
+     */
+    protected abstract TableRowParser<? extends IEndlessAdaptable> getParser();
 
     public int getPage() {
         return page;
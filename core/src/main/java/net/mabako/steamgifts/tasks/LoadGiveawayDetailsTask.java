@@ -6,19 +6,17 @@ import android.support.annotation.NonNull;
 import android.util.Log;
 import android.widget.Toast;
 
-import net.mabako.Constants;
+import net.mabako.steamgifts.adapters.viewholder.RenderedHtmlCache;
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.data.Giveaway;
 import net.mabako.steamgifts.data.GiveawayExtras;
 import net.mabako.steamgifts.fragments.GiveawayDetailFragment;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.PageCache;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
-import java.net.URISyntaxException;
 import java.util.Locale;
 
 public class LoadGiveawayDetailsTask extends AsyncTask<Void, Void, GiveawayExtras> {
@@ -29,6 +27,7 @@ public class LoadGiveawayDetailsTask extends AsyncTask<Void, Void, GiveawayExtra
     private final int page;
 
     private final boolean loadDetails;
+    private final boolean reloading;
     private Giveaway loadedDetails = null;
     private String error;
 
@@ -37,6 +36,7 @@ public class LoadGiveawayDetailsTask extends AsyncTask<Void, Void, GiveawayExtra
         this.giveawayId = giveawayId;
         this.page = page;
         this.loadDetails = loadDetails;
+        this.reloading = fragment.isReloading();
     }
 
     @Override
@@ -45,18 +45,11 @@ public class LoadGiveawayDetailsTask extends AsyncTask<Void, Void, GiveawayExtra
         Log.d(TAG, "Fetching giveaway details for " + url);
 
         try {
-            Connection connection = Jsoup.connect(url)
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
-            if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn())
-                connection.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
-
-            Connection.Response response = connection.execute();
+            SteamGiftsHttpClient.Response response = SteamGiftsHttpClient.get(fragment.getContext(), url)
+                    .cache(PageCache.Policy.GIVEAWAY_DETAILS, reloading)
+                    .execute();
             Document document = response.parse();
 
-            // Update user details
-            SteamGiftsUserData.extract(fragment.getContext(), document);
-
             // Check if we have an error page showing...
             Element breadcrumbs = document.select(".page__heading__breadcrumbs").first();
             if (breadcrumbs != null && "Error".equals(breadcrumbs.text())) {
@@ -70,13 +63,13 @@ public class LoadGiveawayDetailsTask extends AsyncTask<Void, Void, GiveawayExtra
             } else {
                 GiveawayExtras extras = loadExtras(document);
                 if (loadDetails) {
-                    try {
-                        loadedDetails = loadGiveaway(document, Uri.parse(response.url().toURI().toString()));
-                    } catch (URISyntaxException e) {
-                        Log.w(TAG, "say what - invalid url???", e);
-                    }
+                    loadedDetails = loadGiveaway(document, Uri.parse(response.url()));
                 }
 
+                // Render the description and comments now, rather than each time they're scrolled into view.
+                RenderedHtmlCache.render(fragment.getContext(), extras.getDescription());
+                RenderedHtmlCache.render(fragment.getContext(), extras.getComments());
+
                 return extras;
             }
         } catch (Exception e) {
@@ -119,7 +112,7 @@ public class LoadGiveawayDetailsTask extends AsyncTask<Void, Void, GiveawayExtra
         Element icon = element.select(".global__image-outer-wrap--game-large").first();
         Uri uriIcon = icon.hasClass("global__image-outer-wrap--missing-image") ? null : Uri.parse(icon.attr("href"));
 
-        Utils.loadGiveaway(giveaway, element, "featured", "featured__heading__small", uriIcon);
+        Utils.loadGiveaway(giveaway, element, Selectors.GiveawaySummary.FEATURED, uriIcon);
         return giveaway;
     }
 
@@ -3,25 +3,40 @@ package net.mabako.steamgifts.tasks;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.data.GiveawayGroup;
 import net.mabako.steamgifts.fragments.GiveawayGroupListFragment;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
-
 public class LoadGiveawayGroupsTask extends AsyncTask<Void, Void, List<GiveawayGroup>> {
     private static final String TAG = LoadGiveawayGroupsTask.class.getSimpleName();
 
+    private static final TableRowParser<GiveawayGroup> PARSER = new TableRowParser<GiveawayGroup>() {
+        private final Field link = field(Selectors.Table.HEADING);
+        private final Field avatar = field(Selectors.Table.IMAGE);
+
+        @Override
+        protected GiveawayGroup create(Row row) {
+            Element link = row.first(this.link);
+
+            // Basic information
+            String title = link.text();
+            String id = link.attr("href").substring(7, 12);
+
+            String avatar = null;
+            Element avatarNode = row.first(this.avatar);
+            if (avatarNode != null)
+                avatar = Utils.extractAvatar(avatarNode.attr("style"));
+
+            return new GiveawayGroup(id, title, avatar);
+        }
+    };
+
     private final GiveawayGroupListFragment fragment;
     private final int page;
     private final String path;
@@ -39,37 +54,14 @@ public class LoadGiveawayGroupsTask extends AsyncTask<Void, Void, List<GiveawayG
         try {
             // Fetch the Giveaway page
 
-            Connection jsoup = Jsoup.connect("https://www.steamgifts.com/giveaway/" + path + "/groups/search")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request jsoup = SteamGiftsHttpClient.get(fragment.getContext(), "https://www.steamgifts.com/giveaway/" + path + "/groups/search");
             jsoup.data("page", Integer.toString(page));
 
-            if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn())
-                jsoup.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
             Document document = jsoup.get();
 
-            SteamGiftsUserData.extract(fragment.getContext(), document);
-
             // Parse all rows of groups
-            Elements groups = document.select(".table__row-inner-wrap");
-            Log.d(TAG, "Found inner " + groups.size() + " elements");
-
-            List<GiveawayGroup> groupList = new ArrayList<>();
-            for (Element element : groups) {
-                Element link = element.select(".table__column__heading").first();
-
-                // Basic information
-                String title = link.text();
-                String id = link.attr("href").substring(7, 12);
-
-                String avatar = null;
-                Element avatarNode = element.select(".global__image-inner-wrap").first();
-                if (avatarNode != null)
-                    avatar = Utils.extractAvatar(avatarNode.attr("style"));
-
-                GiveawayGroup group = new GiveawayGroup(id, title, avatar);
-                groupList.add(group);
-            }
+            List<GiveawayGroup> groupList = PARSER.parse(document);
+            Log.d(TAG, "Found inner " + groupList.size() + " elements");
 
             return groupList;
         } catch (IOException e) {
@@ -1,20 +1,22 @@
 package net.mabako.steamgifts.tasks;
 
+import android.database.sqlite.SQLiteException;
 import android.os.AsyncTask;
 import android.text.TextUtils;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.data.Giveaway;
 import net.mabako.steamgifts.fragments.GiveawayListFragment;
+import net.mabako.steamgifts.network.PageCache;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 import net.mabako.steamgifts.persistentdata.FilterData;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.persistentdata.GiveawayIndex;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 import java.util.Locale;
 
@@ -26,15 +28,19 @@ public class LoadGiveawayListTask extends AsyncTask<Void, Void, List<Giveaway>>
     private final GiveawayListFragment.Type type;
     private final String searchQuery;
     private final boolean showPinnedGiveaways;
+    private final boolean useStreamingParser;
+    private final boolean reloading;
 
     private String foundXsrfToken = null;
 
-    public LoadGiveawayListTask(GiveawayListFragment activity, int page, GiveawayListFragment.Type type, String searchQuery, boolean showPinnedGiveaways) {
+    public LoadGiveawayListTask(GiveawayListFragment activity, int page, GiveawayListFragment.Type type, String searchQuery, boolean showPinnedGiveaways, boolean useStreamingParser) {
         this.fragment = activity;
         this.page = page;
         this.type = type;
         this.searchQuery = searchQuery;
         this.showPinnedGiveaways = showPinnedGiveaways && type == GiveawayListFragment.Type.ALL && TextUtils.isEmpty(searchQuery);
+        this.useStreamingParser = useStreamingParser;
+        this.reloading = activity.isReloading();
     }
 
     @Override
@@ -44,9 +50,7 @@ public class LoadGiveawayListTask extends AsyncTask<Void, Void, List<Giveaway>>
         try {
             // Fetch the Giveaway page
 
-            Connection jsoup = Jsoup.connect("https://www.steamgifts.com/giveaways/search")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request jsoup = SteamGiftsHttpClient.get(fragment.getContext(), "https://www.steamgifts.com/giveaways/search");
             jsoup.data("page", Integer.toString(page));
 
             if (searchQuery != null)
@@ -70,41 +74,88 @@ public class LoadGiveawayListTask extends AsyncTask<Void, Void, List<Giveaway>>
             if (type != GiveawayListFragment.Type.ALL)
                 jsoup.data("type", type.name().toLowerCase(Locale.ENGLISH));
 
-            if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn())
-                jsoup.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
-            Document document = jsoup.get();
+            jsoup.cache(PageCache.Policy.GIVEAWAY_LIST, reloading);
+            List<Giveaway> giveaways = useStreamingParser ? loadWithStreamingParser(jsoup) : loadWithDocument(jsoup);
 
-            SteamGiftsUserData.extract(fragment.getContext(), document);
-
-            // Fetch the xsrf token
-            Element xsrfToken = document.select("input[name=xsrf_token]").first();
-            if (xsrfToken != null)
-                foundXsrfToken = xsrfToken.attr("value");
-
-            // Do away with pinned giveaways.
-            if (!showPinnedGiveaways)
-                document.select(".pinned-giveaways__outer-wrap").html("");
-
-            // Parse all rows of giveaways
-            return Utils.loadGiveawaysFromList(document);
+            updateIndex(giveaways, filterData);
+            return giveaways;
         } catch (Exception e) {
             Log.e(TAG, "Error fetching URL", e);
             return null;
         }
     }
 
+    /**
+     * Parses the page by building the whole {@link Document}.
+     */
+    private List<Giveaway> loadWithDocument(SteamGiftsHttpClient.Request request) throws IOException {
+        Document document = request.get();
+
+        // Fetch the xsrf token
+        Element xsrfToken = document.select("input[name=xsrf_token]").first();
+        if (xsrfToken != null)
+            foundXsrfToken = xsrfToken.attr("value");
+
+        // Do away with pinned giveaways.
+        if (!showPinnedGiveaways)
+            document.select(".pinned-giveaways__outer-wrap").html("");
+
+        // Parse all rows of giveaways
+        return Utils.loadGiveawaysFromList(document);
+    }
+
+    /**
+     * Parses the page without building a DOM for it, see {@link StreamingGiveawayListParser}.
+     */
+    private List<Giveaway> loadWithStreamingParser(SteamGiftsHttpClient.Request request) throws IOException {
+        SteamGiftsHttpClient.Response response = request.execute();
+        if (response.statusCode() != 200) {
+            response.close();
+            throw new IOException("HTTP error fetching URL, status " + response.statusCode());
+        }
+
+        StreamingGiveawayListParser parser;
+        List<Giveaway> giveaways;
+
+        Reader reader = response.charStream();
+        try {
+            parser = new StreamingGiveawayListParser(reader, showPinnedGiveaways);
+            giveaways = parser.parse();
+        } finally {
+            reader.close();
+        }
+
+        foundXsrfToken = parser.getXsrfToken();
+        return giveaways;
+    }
+
+    /**
+     * Remembers all giveaways in the {@link GiveawayIndex}, so the first page can be shown immediately the next time.
+     */
+    private void updateIndex(List<Giveaway> giveaways, FilterData filterData) {
+        GiveawayIndex index = GiveawayIndex.getInstance(fragment.getContext());
+        if (index == null)
+            return;
+
+        try {
+            index.update(page == 1 ? GiveawayListFragment.getIndexKey(type, searchQuery, showPinnedGiveaways, filterData) : null, giveaways);
+        } catch (SQLiteException e) {
+            Log.w(TAG, "Unable to update giveaway index", e);
+        }
+    }
+
     @Override
     protected void onPostExecute(List<Giveaway> result) {
         super.onPostExecute(result);
-        fragment.addItems(result, page == 1, foundXsrfToken);
+        fragment.addItems(this, result, page == 1, foundXsrfToken);
     }
 
-    private void addFilterParameter(Connection jsoup, String parameterName, int value) {
+    private void addFilterParameter(SteamGiftsHttpClient.Request jsoup, String parameterName, int value) {
         if (value >= 0)
             jsoup.data(parameterName, String.valueOf(value));
     }
 
-    private void addFilterParameter(Connection jsoup, String parameterName, boolean value) {
+    private void addFilterParameter(SteamGiftsHttpClient.Request jsoup, String parameterName, boolean value) {
         if (value)
             jsoup.data(parameterName, "true");
     }
@@ -3,25 +3,35 @@ package net.mabako.steamgifts.tasks;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.data.Winner;
 import net.mabako.steamgifts.fragments.GiveawayWinnerListFragment;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
-
 public class LoadGiveawayWinnersTask extends AsyncTask<Void, Void, List<Winner>> {
     private static final String TAG = LoadGiveawayGroupsTask.class.getSimpleName();
 
+    private static final TableRowParser<Winner> PARSER = new TableRowParser<Winner>() {
+        private final Field name = field(Selectors.Table.HEADING);
+        private final Field avatar = field(Selectors.Table.IMAGE);
+        private final Field status = field(Selectors.Table.CENTERED_COLUMNS);
+
+        @Override
+        protected Winner create(Row row) {
+            Winner user = new Winner();
+
+            user.setName(row.text(name));
+            user.setAvatar(Utils.extractAvatar(row.attr(avatar, "style")));
+            user.setStatus(row.last(status).text());
+
+            return user;
+        }
+    };
+
     private final GiveawayWinnerListFragment fragment;
     private final int page;
     private final String path;
@@ -39,18 +49,12 @@ public class LoadGiveawayWinnersTask extends AsyncTask<Void, Void, List<Winner>>
         try {
             // Fetch the Giveaway page
 
-            Connection jsoup = Jsoup.connect("https://www.steamgifts.com/giveaway/" + path + "/winners/search")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request jsoup = SteamGiftsHttpClient.get(fragment.getContext(), "https://www.steamgifts.com/giveaway/" + path + "/winners/search");
             jsoup.data("page", Integer.toString(page));
 
-            if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn())
-                jsoup.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
             Document document = jsoup.get();
 
-            SteamGiftsUserData.extract(fragment.getContext(), document);
-
-            return loadAll(document);
+            return PARSER.parse(document);
         } catch (IOException e) {
             Log.e(TAG, "Error fetching URL", e);
             return null;
@@ -62,24 +66,4 @@ public class LoadGiveawayWinnersTask extends AsyncTask<Void, Void, List<Winner>>
         super.onPostExecute(result);
         fragment.addItems(result, page == 1);
     }
-
-    private List<Winner> loadAll(Document document) {
-        Elements users = document.select(".table__row-inner-wrap");
-        List<Winner> userList = new ArrayList<>();
-
-        for (Element element : users) {
-            userList.add(load(element));
-        }
-        return userList;
-    }
-
-    private Winner load(Element element) {
-        Winner user = new Winner();
-
-        user.setName(element.select(".table__column__heading").text());
-        user.setAvatar(Utils.extractAvatar(element.select(".global__image-inner-wrap").attr("style")));
-        user.setStatus(element.select(".table__column--width-small.text-center").last().text());
-
-        return user;
-    }
 }
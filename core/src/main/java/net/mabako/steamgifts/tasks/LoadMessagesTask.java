@@ -4,15 +4,13 @@ import android.content.Context;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.adapters.IEndlessAdaptable;
+import net.mabako.steamgifts.adapters.viewholder.RenderedHtmlCache;
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.data.MessageHeader;
 import net.mabako.steamgifts.fragments.interfaces.ILoadItemsListener;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -39,18 +37,13 @@ public class LoadMessagesTask extends AsyncTask<Void, Void, List<IEndlessAdaptab
         try {
             // Fetch the messages page
 
-            Connection jsoup = Jsoup.connect("https://www.steamgifts.com/messages/search")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request jsoup = SteamGiftsHttpClient.get(context, "https://www.steamgifts.com/messages/search");
             jsoup.data("page", Integer.toString(page));
-            jsoup.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(context).getSessionId());
 
             Document document = jsoup.get();
 
-            SteamGiftsUserData.extract(context, document);
-
             // Fetch the xsrf token
-            Element xsrfToken = document.select("input[name=xsrf_token]").first();
+            Element xsrfToken = Selectors.XSRF_TOKEN.first(document);
             if (xsrfToken != null)
                 foundXsrfToken = xsrfToken.attr("value");
 
@@ -64,15 +57,17 @@ public class LoadMessagesTask extends AsyncTask<Void, Void, List<IEndlessAdaptab
 
     private List<IEndlessAdaptable> loadMessages(Document document) {
         List<IEndlessAdaptable> list = new ArrayList<>();
-        Elements children = document.select(".comments__entity");
+        Elements children = Selectors.Messages.ENTITIES.select(document);
         for (Element element : children) {
-            Element link = element.select(".comments__entity__name a").first();
+            Element link = Selectors.Messages.NAME.first(element);
             if (link != null) {
                 MessageHeader message = new MessageHeader(link.text(), link.absUrl("href"));
 
                 Element commentElement = element.nextElementSibling();
-                if (commentElement != null)
+                if (commentElement != null) {
                     Utils.loadComments(commentElement, message, Comment.Type.COMMENT);
+                    RenderedHtmlCache.render(context, message.getComments());
+                }
 
                 // add the message & all associated comments.
                 list.add(message);
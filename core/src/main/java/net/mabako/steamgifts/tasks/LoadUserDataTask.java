@@ -0,0 +1,51 @@
+package net.mabako.steamgifts.tasks;
+
+import android.content.Context;
+import android.os.AsyncTask;
+import android.util.Log;
+
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
+import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+
+import java.io.IOException;
+
+/**
+ * Updates the current user's points and notification counts, without loading anything else.
+ * <p>Only the header of a small page is read, see {@link SteamGiftsHttpClient.Response#readUserData()}. What to do
+ * with the updated {@link SteamGiftsUserData} is up to {@link #onPostExecute(Boolean)}, which is passed whether or
+ * not the user's data could be read.</p>
+ */
+public abstract class LoadUserDataTask extends AsyncTask<Void, Void, Boolean> {
+    private static final String TAG = LoadUserDataTask.class.getSimpleName();
+
+    /**
+     * A page that never changes and hardly has any content besides the header.
+     */
+    private static final String URL = "https://www.steamgifts.com/about/brand-assets";
+
+    private final Context context;
+
+    public LoadUserDataTask(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    protected Boolean doInBackground(Void... params) {
+        try {
+            SteamGiftsHttpClient.Response response = SteamGiftsHttpClient.get(context, URL).execute();
+            if (response.statusCode() != 200) {
+                response.close();
+                Log.w(TAG, "Unable to load user data, status " + response.statusCode());
+                return false;
+            }
+
+            return response.readUserData();
+        } catch (IOException e) {
+            Log.e(TAG, "Error fetching URL", e);
+            return false;
+        }
+    }
+
+    @Override
+    protected abstract void onPostExecute(Boolean success);
+}
@@ -3,14 +3,12 @@ package net.mabako.steamgifts.tasks;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.data.Giveaway;
 import net.mabako.steamgifts.data.User;
 import net.mabako.steamgifts.fragments.UserDetailFragment;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
 import java.util.List;
@@ -37,22 +35,15 @@ public class LoadUserDetailsTask extends AsyncTask<Void, Void, List<Giveaway>> {
 
         try {
             // Fetch the Giveaway page
-            Connection connection = Jsoup.connect("https://www.steamgifts.com/user/" + path + "/search")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request connection = SteamGiftsHttpClient.get(fragment.getContext(), "https://www.steamgifts.com/user/" + path + "/search");
             connection.data("page", Integer.toString(page));
-            if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn()) {
-                connection.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
+            if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn())
                 connection.followRedirects(false);
-            }
 
-            Connection.Response response = connection.execute();
+            SteamGiftsHttpClient.Response response = connection.execute();
             Document document = response.parse();
 
             if (response.statusCode() == 200) {
-
-                SteamGiftsUserData.extract(fragment.getContext(), document);
-
                 if (!user.isLoaded())
                     foundXsrfToken = Utils.loadUserProfile(user, document);
 
@@ -3,15 +3,14 @@ package net.mabako.steamgifts.tasks;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
+import net.mabako.steamgifts.adapters.viewholder.RenderedHtmlCache;
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.data.ICommentHolder;
 import net.mabako.steamgifts.data.User;
 import net.mabako.steamgifts.fragments.UserDetailFragment;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
@@ -42,25 +41,21 @@ public class LoadUserTradeFeedbackTask extends AsyncTask<Void, Void, List<Commen
 
         try {
             // Fetch the Giveaway page
-            Connection connection = Jsoup.connect("https://www.steamtrades.com/user/" + steamID64 + "/search")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT);
+            SteamGiftsHttpClient.Request connection = SteamGiftsHttpClient.get(fragment.getContext(), "https://www.steamtrades.com/user/" + steamID64 + "/search");
             connection.data("page", Integer.toString(page));
             connection.data("rating", rating);
 
             /* FIXME broken with the split of steamtrades & steamgifts
             if (SteamGiftsUserData.getCurrent(fragment.getContext()).isLoggedIn()) {
-                connection.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
+                connection.sessionId(SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
                 connection.followRedirects(false);
             }
             */
 
-            Connection.Response response = connection.execute();
+            SteamGiftsHttpClient.Response response = connection.execute();
             Document document = response.parse();
 
             if (response.statusCode() == 200) {
-                // FIXME SteamGiftsUserData.extract(fragment.getContext(), document);
-
                 //if (!user.isLoaded())
                     //foundXsrfToken = Utils.loadUserProfile(user, document);
 
@@ -85,6 +80,7 @@ public class LoadUserTradeFeedbackTask extends AsyncTask<Void, Void, List<Commen
                         }
                     };
                     Utils.loadComments(rootCommentNode, holder, 0, false, true, Comment.Type.TRADE_FEEDBACK);
+                    RenderedHtmlCache.render(fragment.getContext(), holder.getComments());
                     return holder.getComments();
                 } else
                     return new ArrayList<>();
@@ -3,25 +3,37 @@ package net.mabako.steamgifts.tasks;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.data.BasicUser;
 import net.mabako.steamgifts.fragments.WhitelistBlacklistFragment;
 import net.mabako.steamgifts.fragments.interfaces.IHasWhitelistAndBlacklist;
-import net.mabako.steamgifts.persistentdata.SteamGiftsUserData;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
 public class LoadWhitelistBlacklistTask extends AsyncTask<Void, Void, List<BasicUser>> {
     private static final String TAG = "LoadWhitelistBlacklistT";
 
+    private static final TableRowParser<BasicUser> PARSER = new TableRowParser<BasicUser>() {
+        private final Field name = field(Selectors.Table.HEADING);
+        private final Field avatar = field(Selectors.Table.IMAGE);
+        private final Field id = field(Selectors.Table.USER_ID);
+
+        @Override
+        protected BasicUser create(Row row) {
+            BasicUser user = new BasicUser();
+
+            user.setName(row.text(name));
+            user.setAvatar(Utils.extractAvatar(row.attr(avatar, "style")));
+            user.setId(Integer.parseInt(row.first(id).attr("value")));
+
+            return user;
+        }
+    };
+
     private final WhitelistBlacklistFragment fragment;
     private final int page;
     private final IHasWhitelistAndBlacklist.What what;
@@ -43,31 +55,25 @@ public class LoadWhitelistBlacklistTask extends AsyncTask<Void, Void, List<Basic
             String url = "https://www.steamgifts.com/account/manage/" + what.name().toLowerCase(Locale.ENGLISH) + "/search";
             Log.d(TAG, "Fetching URL " + url);
 
-            Connection jsoup = Jsoup.connect(url)
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT)
+            SteamGiftsHttpClient.Request jsoup = SteamGiftsHttpClient.get(fragment.getContext(), url)
                     .followRedirects(false);
             jsoup.data("page", Integer.toString(page));
 
             if (searchQuery != null)
                 jsoup.data("q", searchQuery);
 
-            jsoup.cookie("PHPSESSID", SteamGiftsUserData.getCurrent(fragment.getContext()).getSessionId());
-
             Document document = jsoup.get();
 
-            SteamGiftsUserData.extract(fragment.getContext(), document);
-
             // Fetch the xsrf token
-            Element xsrfToken = document.select("input[name=xsrf_token]").first();
+            Element xsrfToken = Selectors.XSRF_TOKEN.first(document);
             if (xsrfToken != null)
                 foundXsrfToken = xsrfToken.attr("value");
 
             // Do away with pinned giveaways.
-            document.select(".pinned-giveaways__outer-wrap").html("");
+            Selectors.Table.PINNED_GIVEAWAYS.select(document).html("");
 
             // Parse all rows of giveaways
-            return loadAll(document);
+            return PARSER.parse(document);
         } catch (Exception e) {
             Log.e(TAG, "Error fetching URL", e);
             return null;
@@ -79,24 +85,4 @@ public class LoadWhitelistBlacklistTask extends AsyncTask<Void, Void, List<Basic
         super.onPostExecute(users);
         fragment.addItems(users, page == 1, foundXsrfToken);
     }
-
-    private List<BasicUser> loadAll(Document document) {
-        Elements users = document.select(".table__row-inner-wrap");
-        List<BasicUser> userList = new ArrayList<>();
-
-        for (Element element : users) {
-            userList.add(load(element));
-        }
-        return userList;
-    }
-
-    private BasicUser load(Element element) {
-        BasicUser user = new BasicUser();
-
-        user.setName(element.select(".table__column__heading").text());
-        user.setAvatar(Utils.extractAvatar(element.select(".global__image-inner-wrap").attr("style")));
-        user.setId(Integer.parseInt(element.select("input[name=child_user_id]").first().attr("value")));
-
-        return user;
-    }
 }
@@ -2,13 +2,15 @@ package net.mabako.steamgifts.tasks;
 
 import android.app.Activity;
 import android.app.ProgressDialog;
+import android.database.sqlite.SQLiteException;
 import android.os.AsyncTask;
 import android.util.Log;
 
-import net.mabako.Constants;
 import net.mabako.steamgifts.activities.MainActivity;
-
-import org.jsoup.Jsoup;
+import net.mabako.steamgifts.network.PageCache;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
+import net.mabako.steamgifts.persistentdata.DiscussionIndex;
+import net.mabako.steamgifts.persistentdata.GiveawayIndex;
 
 import java.io.IOException;
 
@@ -37,12 +39,12 @@ public class LogoutTask extends AsyncTask<Void, Void, Boolean> {
 
     @Override
     protected Boolean doInBackground(Void... params) {
+        clearCaches();
+
         // Mostly irrelevant since we clear the stored session id...
         try {
-            Jsoup.connect("https://www.steamgifts.com/?logout")
-                    .userAgent(Constants.JSOUP_USER_AGENT)
-                    .timeout(Constants.JSOUP_TIMEOUT)
-                    .cookie("PHPSESSID", sessionId)
+            SteamGiftsHttpClient.get(activity, "https://www.steamgifts.com/?logout")
+                    .sessionId(sessionId)
                     .get();
 
             Log.i(TAG, "Successfully logged out");
@@ -54,6 +56,28 @@ public class LogoutTask extends AsyncTask<Void, Void, Boolean> {
         }
     }
 
+    /**
+     * Forgets about all pages and giveaways seen while logged in, such as which giveaways were entered or are only
+     * visible to the user's groups.
+     */
+    private void clearCaches() {
+        PageCache pageCache = PageCache.getInstance(activity);
+        if (pageCache != null)
+            pageCache.clear();
+
+        try {
+            GiveawayIndex giveawayIndex = GiveawayIndex.getInstance(activity);
+            if (giveawayIndex != null)
+                giveawayIndex.clear();
+
+            DiscussionIndex discussionIndex = DiscussionIndex.getInstance(activity);
+            if (discussionIndex != null)
+                discussionIndex.clear();
+        } catch (SQLiteException e) {
+            Log.w(TAG, "Unable to clear indexed giveaways and discussions", e);
+        }
+    }
+
     @Override
     protected void onPostExecute(Boolean aBoolean) {
         progressDialog.dismiss();
@@ -3,8 +3,7 @@ package net.mabako.steamgifts.tasks;
 import android.widget.Toast;
 
 import net.mabako.steamgifts.fragments.profile.MessageListFragment;
-
-import org.jsoup.Connection;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 /**
  * Mark all messages read.
@@ -16,12 +15,12 @@ public class MarkMessagesReadTask extends AjaxTask<MessageListFragment> {
     }
 
     @Override
-    protected void addExtraParameters(Connection connection) {
+    protected void addExtraParameters(SteamGiftsHttpClient.Request request) {
 
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         super.onPostExecute(response);
         if (response != null && response.statusCode() == 301) {
             getFragment().onMarkedMessagesRead();
@@ -2,7 +2,7 @@ package net.mabako.steamgifts.tasks;
 
 import android.app.Activity;
 
-import org.jsoup.Connection;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 public abstract class PostCommentTask extends AjaxTask<Activity> {
     private final String description;
@@ -17,13 +17,13 @@ public abstract class PostCommentTask extends AjaxTask<Activity> {
     }
 
     @Override
-    public void addExtraParameters(Connection connection) {
-        connection.data("parent_id", parentId == 0 ? "" : String.valueOf(parentId));
-        connection.data("description", description);
+    public void addExtraParameters(SteamGiftsHttpClient.Request request) {
+        request.data("parent_id", parentId == 0 ? "" : String.valueOf(parentId));
+        request.data("description", description);
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         if (response != null && response.statusCode() == 301) {
             onSuccess();
         } else
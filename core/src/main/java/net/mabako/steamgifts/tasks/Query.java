@@ -0,0 +1,163 @@
+package net.mabako.steamgifts.tasks;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import net.mabako.common.Logger;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A CSS selector that is parsed once, rather than every time elements are selected with it.
+ * <p>A query may consist of several alternative selectors, which are tried in order until one of them matches; this
+ * allows matching both the current and the previous markup of a page while the site is changing it.</p>
+ * <p>Jsoup doesn't expose its selector parser, so it is looked up once. Should that ever fail, selectors are parsed
+ * on every use just like {@link Element#select(String)} does.</p>
+ *
+ * @see Selectors
+ */
+public final class Query {
+    private static final String TAG = Query.class.getSimpleName();
+
+    private static final Method parser = findParser();
+
+    private final String[] selectors;
+    private final Evaluator[] evaluators;
+
+    private Query(String[] selectors) {
+        this.selectors = selectors;
+        this.evaluators = new Evaluator[selectors.length];
+        for (int i = 0; i < selectors.length; ++i)
+            evaluators[i] = compile(selectors[i]);
+    }
+
+    /**
+     * Creates a new query.
+     *
+     * @param selector  the selector to match
+     * @param fallbacks selectors to try if the previous selector doesn't match anything, e.g. for older markup
+     */
+    public static Query of(@NonNull String selector, String... fallbacks) {
+        String[] selectors = new String[1 + fallbacks.length];
+        selectors[0] = selector;
+        System.arraycopy(fallbacks, 0, selectors, 1, fallbacks.length);
+        return new Query(selectors);
+    }
+
+    /**
+     * Finds all elements matching this query, including the root element itself.
+     *
+     * @return the elements matched by the first selector that matches anything, or no elements at all
+     */
+    @NonNull
+    public Elements select(@NonNull Element root) {
+        Elements elements = select(root, 0);
+        for (int i = 1; i < selectors.length && elements.isEmpty(); ++i)
+            elements = select(root, i);
+        return elements;
+    }
+
+    /**
+     * Finds all elements matching this query within any of the given elements, like {@link Elements#select(String)}.
+     */
+    @NonNull
+    public Elements select(@NonNull Iterable<Element> roots) {
+        Elements elements = select(roots, 0);
+        for (int i = 1; i < selectors.length && elements.isEmpty(); ++i)
+            elements = select(roots, i);
+        return elements;
+    }
+
+    /**
+     * @return the first element matching this query, or null if there is none
+     */
+    @Nullable
+    public Element first(@NonNull Element root) {
+        return select(root).first();
+    }
+
+    /**
+     * @return the first element matching this query within any of the given elements, or null if there is none
+     */
+    @Nullable
+    public Element first(@NonNull Iterable<Element> roots) {
+        return select(roots).first();
+    }
+
+    /**
+     * @return whether any element matches this query
+     */
+    public boolean exists(@NonNull Element root) {
+        return !select(root).isEmpty();
+    }
+
+    /**
+     * @return how many alternative selectors this query consists of
+     */
+    int size() {
+        return selectors.length;
+    }
+
+    /**
+     * @return the parsed selector at the given index, or null if it couldn't be parsed
+     */
+    @Nullable
+    Evaluator getEvaluator(int index) {
+        return evaluators[index];
+    }
+
+    /**
+     * Finds all elements matching only the selector at the given index.
+     */
+    Elements select(Element root, int index) {
+        Evaluator evaluator = evaluators[index];
+        return evaluator != null ? Collector.collect(evaluator, root) : root.select(selectors[index]);
+    }
+
+    private Elements select(Iterable<Element> roots, int index) {
+        // Just like Jsoup, only return each element once if the roots are nested.
+        Set<Element> elements = new LinkedHashSet<>();
+        for (Element root : roots)
+            elements.addAll(select(root, index));
+        return new Elements(elements);
+    }
+
+    @Override
+    public String toString() {
+        return selectors.length == 1 ? selectors[0] : Arrays.toString(selectors);
+    }
+
+    @Nullable
+    private static Evaluator compile(String selector) {
+        if (parser == null)
+            return null;
+
+        try {
+            return (Evaluator) parser.invoke(null, selector);
+        } catch (Exception e) {
+            // Selecting elements will fail the same way, but only once it's actually used.
+            Logger.w(TAG, "Unable to parse selector " + selector, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Method findParser() {
+        try {
+            Method method = Class.forName("org.jsoup.select.QueryParser").getDeclaredMethod("parse", String.class);
+            method.setAccessible(true);
+            return method;
+        } catch (Exception e) {
+            Logger.w(TAG, "Unable to find Jsoup's selector parser, selectors are parsed on every use", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package net.mabako.steamgifts.tasks;
+
+import net.mabako.steamgifts.data.Comment;
+
+/**
+ * All CSS selectors used to read the same parts of many pages (or many parts of a single page), parsed only once.
+ * <p>Selecting elements with a string parses the selector every single time, which adds up when done for every field
+ * of every row of a list. Selectors here are grouped by the page, or part of a page, they're used on.</p>
+ * <p>Should SteamGifts change its markup, the affected query can be given the new selector first and the old selector
+ * as a fallback, see {@link Query#of(String, String...)}, until the old markup is gone for good.</p>
+ */
+public final class Selectors {
+    /**
+     * Form field containing the token needed to post anything, found on most pages.
+     */
+    public static final Query XSRF_TOKEN = Query.of("input[name=xsrf_token]");
+
+    /**
+     * Descendant links, used within elements found through other queries.
+     */
+    public static final Query LINKS = Query.of("a");
+
+    /**
+     * Descendant spans, used within elements found through other queries.
+     */
+    public static final Query SPANS = Query.of("span");
+
+    private Selectors() {
+    }
+
+    /**
+     * The navigation bar at the top of each page, with the current user's points and notifications.
+     */
+    public static final class Navigation {
+        public static final Query BUTTON_CONTAINERS = Query.of(".nav__button-container");
+        public static final Query AVATAR = Query.of("div");
+        public static final Query ACCOUNT = Query.of("a[href=/account]");
+        public static final Query POINTS = Query.of(".nav__points");
+        public static final Query NOTIFICATIONS = Query.of(".nav__button-container--notification");
+        public static final Query CREATED_NOTIFICATION = Query.of("a[href=/giveaways/created]");
+        public static final Query WON_NOTIFICATION = Query.of("a[href=/giveaways/won]");
+        public static final Query MESSAGE_NOTIFICATION = Query.of("a[href=/messages]");
+
+        private Navigation() {
+        }
+    }
+
+    /**
+     * Rows of giveaway lists, such as the front page or a user's profile.
+     */
+    public static final class GiveawayList {
+        public static final Query ROWS = Query.of(".giveaway__row-inner-wrap");
+        public static final Query LINKS = Query.of("h2 a");
+        public static final Query CREATOR = Query.of(".giveaway__username");
+        public static final Query ENTRIES = Query.of(".giveaway__links a span");
+
+        private GiveawayList() {
+        }
+    }
+
+    /**
+     * Details shown for a giveaway both in lists and on its own page, although with different class names.
+     */
+    public static final class GiveawaySummary {
+        /**
+         * Giveaways in lists.
+         */
+        public static final GiveawaySummary LIST = new GiveawaySummary("giveaway", "giveaway__heading__thin");
+
+        /**
+         * The giveaway on its own page.
+         */
+        public static final GiveawaySummary FEATURED = new GiveawaySummary("featured", "featured__heading__small");
+
+        /**
+         * Copies and points, next to the giveaway's title.
+         */
+        public final Query headerHints;
+
+        /**
+         * End and creation time.
+         */
+        public final Query times;
+
+        public final Query whitelist;
+        public final Query group;
+        public final Query inviteOnly;
+        public final Query regionRestricted;
+        public final Query contributorLevel;
+
+        private GiveawaySummary(String cssNode, String headerHintCssNode) {
+            headerHints = Query.of("." + headerHintCssNode);
+            times = Query.of("." + cssNode + "__columns > div span");
+            whitelist = Query.of("." + cssNode + "__column--whitelist");
+            group = Query.of("." + cssNode + "__column--group");
+            inviteOnly = Query.of("." + cssNode + "__column--invite-only");
+            regionRestricted = Query.of("." + cssNode + "__column--region-restricted");
+            contributorLevel = Query.of("." + cssNode + "__column--contributor-level");
+        }
+    }
+
+    /**
+     * Rows of discussion lists.
+     */
+    public static final class DiscussionList {
+        public static final Query ROWS = Query.of(".table__row-inner-wrap");
+        public static final Query LINK = Query.of("h3 a");
+        public static final Query SUMMARY = Query.of(".table__column--width-fill p");
+        public static final Query AVATAR = Query.of(".table_image_avatar");
+        public static final Query POLL = Query.of("h3 i.fa-align-left");
+
+        private DiscussionList() {
+        }
+    }
+
+    /**
+     * Tables with one row per item, such as entered giveaways, hidden games or the whitelist; see
+     * {@link TableRowParser}.
+     */
+    public static final class Table {
+        public static final Query ROWS = Query.of(".table__row-inner-wrap");
+        public static final Query PINNED_GIVEAWAYS = Query.of(".pinned-giveaways__outer-wrap");
+        public static final Query HEADING = Query.of(".table__column__heading");
+        public static final Query IMAGE = Query.of(".global__image-inner-wrap");
+        public static final Query SMALL_COLUMNS = Query.of(".table__column--width-small");
+        public static final Query CENTERED_COLUMNS = Query.of(".table__column--width-small.text-center");
+        public static final Query SECONDARY_LINK = Query.of(".table__column--width-fill .table__column__secondary-link");
+        public static final Query USER_ID = Query.of("input[name=child_user_id]");
+        public static final Query GAME_ID = Query.of("input[name=game_id]");
+
+        // Giveaways a user entered, won or created
+        public static final Query GIVEAWAY_LINK = Query.of(".table__column--width-fill a.table__column__heading");
+        public static final Query WON_END_TIME = Query.of(".table__column--width-fill span");
+        public static final Query ENTERED_END_TIME = Query.of(".table__column--width-fill p > span");
+        public static final Query CREATED_END_TIME = Query.of(".table__column--width-fill span > span");
+        public static final Query FEEDBACK_GIVEN = Query.of(".table__gift-feedback-awaiting-reply.is-hidden");
+        public static final Query DELETED = Query.of(".table__column__deleted");
+
+        private Table() {
+        }
+    }
+
+    /**
+     * Comments, both on SteamGifts and SteamTrades.
+     */
+    public static final class Comments {
+        public static final Comments COMMENT = new Comments(".comment__username", ".global__image-inner-wrap", ".comment__actions > div span", ".comment__actions a[href^=/go/]", ".comment__description");
+        public static final Comments TRADE_FEEDBACK = new Comments(".author_name", ".author_avatar", ".action_list > span > span", ".action_list a[href^=/go/]", ".review_description");
+
+        // Only on SteamGifts
+        public static final Query EDITABLE_CONTENT = Query.of(".comment__edit-state.is-hidden textarea[name=description]");
+        public static final Query EDIT_STATE = Query.of(".comment__edit-state");
+        public static final Query SUMMARY = Query.of(".comment__summary");
+        public static final Query DELETE_STATE = Query.of(".comment__delete-state");
+        public static final Query HIGHLIGHTED = Query.of(".comment__parent > .comment__envelope");
+        public static final Query ROLE_NAME = Query.of(".comment__role-name");
+        public static final Query DELETE_BUTTON = Query.of(".comment__actions__button.js__comment-delete");
+        public static final Query UNDELETE_BUTTON = Query.of(".comment__actions__button.js__comment-undelete");
+
+        // Only on SteamTrades
+        public static final Query TRADE_SCORE_POSITIVE = Query.of(".is_positive");
+        public static final Query TRADE_SCORE_NEGATIVE = Query.of(".is_negative");
+
+        public final Query author;
+        public final Query avatar;
+        public final Query createdTime;
+        public final Query permalink;
+        public final Query description;
+
+        private Comments(String author, String avatar, String createdTime, String permalink, String description) {
+            this.author = Query.of(author);
+            this.avatar = Query.of(avatar);
+            this.createdTime = Query.of(createdTime);
+            this.permalink = Query.of(permalink);
+            this.description = Query.of(description);
+        }
+
+        public static Comments of(Comment.Type type) {
+            return type == Comment.Type.COMMENT ? COMMENT : TRADE_FEEDBACK;
+        }
+    }
+
+    /**
+     * Messages, each followed by the comments it is about.
+     */
+    public static final class Messages {
+        public static final Query ENTITIES = Query.of(".comments__entity");
+        public static final Query NAME = Query.of(".comments__entity__name a");
+
+        private Messages() {
+        }
+    }
+
+    /**
+     * Formatted text, such as comments and descriptions.
+     */
+    public static final class Markdown {
+        public static final Query QUOTES = Query.of("blockquote");
+        public static final Query ATTACHED_IMAGES = Query.of("div > a > img.is-hidden");
+
+        private Markdown() {
+        }
+    }
+
+    /**
+     * A user's profile page.
+     */
+    public static final class UserProfile {
+        public static final Query CHILD_USER_ID = Query.of("input[name=child_user_id]");
+        public static final Query WHITELISTED = Query.of(".sidebar__shortcut__whitelist.is-selected");
+        public static final Query BLACKLISTED = Query.of(".sidebar__shortcut__blacklist.is-selected");
+        public static final Query NAME = Query.of(".featured__heading__medium");
+        public static final Query AVATAR = Query.of(".global__image-inner-wrap");
+        public static final Query STEAM_PROFILE = Query.of(".sidebar a[data-tooltip=\"Visit Steam Profile\"]");
+        public static final Query TABLE_COLUMNS = Query.of(".featured__table__column");
+        public static final Query TABLE_VALUES = Query.of(".featured__table__row__right");
+        public static final Query ROLE = Query.of("a[href^=/roles/");
+
+        private UserProfile() {
+        }
+    }
+
+    /**
+     * Polls attached to discussions.
+     */
+    public static final class Poll {
+        public static final Query HEADER = Query.of(".table__heading .table__column--width-fill p");
+        public static final Query DESCRIPTION = Query.of("span.poll__description");
+        public static final Query FORM = Query.of("form");
+        public static final Query ANSWERS = Query.of(".table__rows div[data-id]");
+        public static final Query ANSWER_TEXT = Query.of(".table__column__heading");
+
+        private Poll() {
+        }
+    }
+}
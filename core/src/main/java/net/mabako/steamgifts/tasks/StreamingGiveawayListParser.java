@@ -0,0 +1,596 @@
+package net.mabako.steamgifts.tasks;
+
+import android.net.Uri;
+import android.support.annotation.Nullable;
+
+import net.mabako.steamgifts.data.Game;
+import net.mabako.steamgifts.data.Giveaway;
+
+import org.jsoup.parser.Parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Single-pass parser for giveaway list pages.
+ * <p>Unlike {@link Utils#loadGiveawaysFromList(org.jsoup.nodes.Document)}, this never builds a DOM or runs any CSS
+ * queries: the page is tokenized once as it is read, and each giveaway is created as soon as its row is closed.</p>
+ * <p>Only the markup relevant to giveaway rows is looked at, which means this is a lot less forgiving than Jsoup if
+ * SteamGifts changes their layout.</p>
+ */
+public class StreamingGiveawayListParser {
+    private static final String[] VOID_ELEMENTS = {"area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"};
+    private static final String[] RAW_TEXT_ELEMENTS = {"script", "style", "textarea"};
+
+    private final Reader reader;
+    private final boolean includePinnedGiveaways;
+
+    private final char[] buffer = new char[8192];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+
+    /**
+     * Reused for every tag, only valid while the tag itself is being handled.
+     */
+    private final Map<String, String> attributes = new HashMap<>();
+    private final StringBuilder token = new StringBuilder();
+
+    private final List<Giveaway> giveaways = new ArrayList<>();
+    private final List<Frame> stack = new ArrayList<>();
+
+    /**
+     * Look-ahead of a single character, or -2 if nothing was pushed back.
+     */
+    private int pushedBack = -2;
+
+    private String xsrfToken = null;
+
+    /**
+     * Game id of the row we're currently in.
+     */
+    private String currentGameId = null;
+    private Row row = null;
+
+    public StreamingGiveawayListParser(Reader reader, boolean includePinnedGiveaways) {
+        this.reader = reader;
+        this.includePinnedGiveaways = includePinnedGiveaways;
+    }
+
+    /**
+     * Reads the entire page.
+     *
+     * @return all giveaways on this page
+     */
+    public List<Giveaway> parse() throws IOException {
+        int c;
+        StringBuilder text = new StringBuilder();
+        while ((c = read()) != -1) {
+            if (c == '<') {
+                int next = read();
+                if (next == '!') {
+                    flushText(text);
+                    skipComment();
+                } else if (next == '/') {
+                    flushText(text);
+                    onEndTag(readTagName(-1));
+                    skipUntil('>');
+                } else if (isLetter(next)) {
+                    flushText(text);
+                    readStartTag(next);
+                } else {
+                    text.append('<');
+                    unread(next);
+                }
+            } else if (row != null) {
+                // Text outside of giveaways is of no interest.
+                text.append((char) c);
+            }
+        }
+        flushText(text);
+        return giveaways;
+    }
+
+    @Nullable
+    public String getXsrfToken() {
+        return xsrfToken;
+    }
+
+    /* -------------------------------------------------------------------------------------------------------------- */
+    /* Tokenizer                                                                                                      */
+    /* -------------------------------------------------------------------------------------------------------------- */
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -2) {
+            c = pushedBack;
+            pushedBack = -2;
+        } else {
+            if (bufferPosition == bufferLength) {
+                bufferLength = reader.read(buffer, 0, buffer.length);
+                bufferPosition = 0;
+            }
+            c = bufferLength > 0 ? buffer[bufferPosition++] : -1;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    private void skipComment() throws IOException {
+        int c = read();
+        if (c == '-' && (c = read()) == '-') {
+            // <!-- ... -->
+            int dashes = 0;
+            while ((c = read()) != -1) {
+                if (c == '>' && dashes >= 2)
+                    return;
+                dashes = c == '-' ? dashes + 1 : 0;
+            }
+        } else if (c != '>') {
+            // <!DOCTYPE ...>
+            skipUntil('>');
+        }
+    }
+
+    private void skipUntil(char end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && c != end);
+    }
+
+    private String readTagName(int first) throws IOException {
+        StringBuilder name = token;
+        name.setLength(0);
+        if (first != -1)
+            name.append((char) first);
+
+        int c;
+        while ((c = read()) != -1 && !isWhitespace(c) && c != '>' && c != '/')
+            name.append((char) c);
+        unread(c);
+        return name.toString().toLowerCase(Locale.ENGLISH);
+    }
+
+    private void readStartTag(int first) throws IOException {
+        String name = readTagName(first);
+        attributes.clear();
+
+        int c;
+        while (true) {
+            c = read();
+            while (isWhitespace(c))
+                c = read();
+
+            if (c == -1 || c == '>')
+                break;
+            if (c == '/')
+                continue;
+
+            // attribute name
+            StringBuilder key = token;
+            key.setLength(0);
+            while (c != -1 && !isWhitespace(c) && c != '=' && c != '>' && c != '/') {
+                key.append((char) c);
+                c = read();
+            }
+            String keyName = key.toString().toLowerCase(Locale.ENGLISH);
+            while (isWhitespace(c))
+                c = read();
+
+            String value = "";
+            if (c == '=') {
+                c = read();
+                while (isWhitespace(c))
+                    c = read();
+
+                StringBuilder v = token;
+                v.setLength(0);
+                if (c == '"' || c == '\'') {
+                    int quote = c;
+                    while ((c = read()) != -1 && c != quote)
+                        v.append((char) c);
+                } else {
+                    while (c != -1 && !isWhitespace(c) && c != '>') {
+                        v.append((char) c);
+                        c = read();
+                    }
+                    unread(c);
+                }
+                value = unescape(v.toString(), true);
+            } else {
+                unread(c);
+            }
+            attributes.put(keyName, value);
+        }
+
+        if (contains(RAW_TEXT_ELEMENTS, name)) {
+            skipRawText(name);
+        } else {
+            onStartTag(name, attributes);
+            if (contains(VOID_ELEMENTS, name))
+                onEndTag(name);
+        }
+    }
+
+    /**
+     * Skips over the contents of elements like &lt;script&gt;, which may contain '&lt;' that isn't part of any tag.
+     */
+    private void skipRawText(String name) throws IOException {
+        String end = "</" + name;
+        int matched = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (Character.toLowerCase((char) c) == end.charAt(matched)) {
+                if (++matched == end.length()) {
+                    skipUntil('>');
+                    return;
+                }
+            } else {
+                matched = c == '<' ? 1 : 0;
+            }
+        }
+    }
+
+    private void flushText(StringBuilder text) {
+        if (text.length() > 0) {
+            if (row != null)
+                row.onText(unescape(text.toString(), false));
+            text.setLength(0);
+        }
+    }
+
+    /* -------------------------------------------------------------------------------------------------------------- */
+    /* Tree construction, or the little of it we need                                                                */
+    /* -------------------------------------------------------------------------------------------------------------- */
+
+    private void onStartTag(String name, Map<String, String> attributes) {
+        String classes = attributes.get("class");
+        Frame frame = new Frame(name, classes == null ? "" : classes);
+        stack.add(frame);
+
+        if ("input".equals(name) && "xsrf_token".equals(attributes.get("name"))) {
+            xsrfToken = attributes.get("value");
+        }
+
+        if (frame.hasClass("pinned-giveaways__outer-wrap") && !includePinnedGiveaways) {
+            frame.skipped = true;
+        } else if (frame.hasClass("giveaway__row-outer-wrap")) {
+            currentGameId = attributes.get("data-game-id");
+        } else if (frame.hasClass("giveaway__row-inner-wrap") && row == null && !isSkipped()) {
+            frame.row = true;
+            row = new Row(frame, currentGameId);
+        } else if (row != null) {
+            row.onStartTag(frame, attributes);
+        }
+    }
+
+    private void onEndTag(String name) {
+        // Find the closest element with the same name, and close everything above it.
+        for (int i = stack.size() - 1; i >= 0; --i) {
+            if (stack.get(i).name.equals(name)) {
+                while (stack.size() > i)
+                    close(stack.remove(stack.size() - 1));
+                break;
+            }
+        }
+    }
+
+    private void close(Frame frame) {
+        if (row == null)
+            return;
+
+        if (frame.row) {
+            giveaways.add(row.build());
+            row = null;
+        } else {
+            row.onEndTag(frame);
+        }
+    }
+
+    private boolean isSkipped() {
+        for (Frame frame : stack)
+            if (frame.skipped)
+                return true;
+        return false;
+    }
+
+    /**
+     * Jsoup sets up an entire tokenizer to unescape entities, so this is only done if there's any entity at all.
+     */
+    private static String unescape(String s, boolean inAttribute) {
+        return s.indexOf('&') < 0 ? s : Parser.unescapeEntities(s, inAttribute);
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private static boolean contains(String[] array, String value) {
+        for (String s : array)
+            if (s.equals(value))
+                return true;
+        return false;
+    }
+
+    /**
+     * A single open element.
+     */
+    private static class Frame {
+        private final String name;
+
+        /**
+         * All classes, as found in the class attribute.
+         */
+        private final String classes;
+
+        private boolean row = false;
+        private boolean skipped = false;
+
+        /**
+         * Text content, if we're interested in it.
+         */
+        private StringBuilder text = null;
+
+        /**
+         * Whether this is a direct child of <code>.giveaway__columns</code>.
+         */
+        private boolean column = false;
+        private boolean columns = false;
+        private boolean heading = false;
+
+        private Frame(String name, String classes) {
+            this.name = name;
+            this.classes = classes;
+        }
+
+        private boolean hasClass(String className) {
+            int from = 0;
+            int index;
+            while ((index = classes.indexOf(className, from)) >= 0) {
+                int end = index + className.length();
+                if ((index == 0 || isWhitespace(classes.charAt(index - 1))) && (end == classes.length() || isWhitespace(classes.charAt(end))))
+                    return true;
+                from = end;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Everything collected for a single giveaway row.
+     */
+    private class Row {
+        private final Frame frame;
+        private final String gameId;
+
+        private String linkHref;
+        private String title;
+        private String creator;
+        private String entries;
+        private String level;
+
+        private final List<String> headingLinks = new ArrayList<>();
+        private final List<String> hints = new ArrayList<>();
+
+        private String endTime;
+        private String endTimeText;
+        private String createdTime;
+
+        private boolean whitelist, group, inviteOnly, regionRestricted;
+
+        private int headingDepth = 0;
+        private int linksDepth = 0;
+        private Frame currentColumn = null;
+
+        /**
+         * Column containing the end time.
+         */
+        private Frame endTimeColumn = null;
+
+        private final List<Frame> capturing = new ArrayList<>();
+
+        private Row(Frame frame, String gameId) {
+            this.frame = frame;
+            this.gameId = gameId;
+        }
+
+        private void onStartTag(Frame frame, Map<String, String> attributes) {
+            Frame parent = stack.size() >= 2 ? stack.get(stack.size() - 2) : null;
+
+            if ("h2".equals(frame.name)) {
+                frame.heading = true;
+                ++headingDepth;
+            } else if ("a".equals(frame.name) && headingDepth > 0) {
+                if (headingLinks.isEmpty()) {
+                    linkHref = attributes.containsKey("href") ? attributes.get("href") : null;
+                    capture(frame);
+                }
+                headingLinks.add(attributes.get("href"));
+            }
+
+            if (frame.hasClass("giveaway__heading__thin")) {
+                capture(frame);
+            } else if (frame.hasClass("giveaway__username")) {
+                capture(frame);
+            } else if (frame.hasClass("giveaway__columns")) {
+                frame.columns = true;
+            } else if (frame.hasClass("giveaway__links")) {
+                ++linksDepth;
+            }
+
+            if ("div".equals(frame.name) && parent != null && parent.columns) {
+                frame.column = true;
+                currentColumn = frame;
+                if (endTime == null)
+                    capture(frame);
+            }
+
+            if ("span".equals(frame.name)) {
+                if (currentColumn != null) {
+                    if (endTime == null) {
+                        endTime = attributes.get("data-timestamp");
+                        endTimeColumn = currentColumn;
+                    }
+                    createdTime = attributes.get("data-timestamp");
+                } else if (linksDepth > 0 && entries == null && parent != null && "a".equals(parent.name)) {
+                    capture(frame);
+                }
+            }
+
+            if (frame.hasClass("giveaway__column--whitelist"))
+                whitelist = true;
+            if (frame.hasClass("giveaway__column--group"))
+                group = true;
+            if (frame.hasClass("giveaway__column--invite-only"))
+                inviteOnly = true;
+            if (frame.hasClass("giveaway__column--region-restricted"))
+                regionRestricted = true;
+            if (frame.hasClass("giveaway__column--contributor-level") && level == null)
+                capture(frame);
+        }
+
+        private void onEndTag(Frame frame) {
+            if (frame.heading)
+                --headingDepth;
+            if (frame.hasClass("giveaway__links"))
+                --linksDepth;
+
+            if (frame.text != null) {
+                String text = normalize(frame.text);
+                capturing.remove(frame);
+
+                if ("a".equals(frame.name) && title == null) {
+                    title = text;
+                } else if (frame.hasClass("giveaway__heading__thin")) {
+                    hints.add(text);
+                } else if (frame.hasClass("giveaway__username")) {
+                    creator = creator == null ? text : creator + " " + text;
+                } else if (frame.hasClass("giveaway__column--contributor-level")) {
+                    level = text;
+                } else if (frame.column) {
+                    if (frame == endTimeColumn)
+                        endTimeText = text;
+                } else if ("span".equals(frame.name) && entries == null) {
+                    entries = text;
+                }
+            }
+
+            if (frame == currentColumn)
+                currentColumn = null;
+        }
+
+        private void capture(Frame frame) {
+            frame.text = new StringBuilder();
+            capturing.add(frame);
+        }
+
+        private void onText(String text) {
+            for (Frame frame : capturing)
+                frame.text.append(text);
+        }
+
+        /**
+         * Mirrors what {@link Utils#loadGiveawaysFromList(org.jsoup.nodes.Document)} and {@link Utils#loadGiveaway} do
+         * with the DOM.
+         */
+        private Giveaway build() {
+            List<String> linkSegments = linkHref == null ? null : Uri.parse(linkHref).getPathSegments();
+
+            Giveaway giveaway;
+            if (linkSegments != null && linkSegments.size() >= 3) {
+                giveaway = new Giveaway(linkSegments.get(1));
+                giveaway.setName(linkSegments.get(2));
+            } else {
+                giveaway = new Giveaway(null);
+                giveaway.setName(null);
+            }
+
+            giveaway.setTitle(title);
+            giveaway.setCreator(creator == null ? "" : creator);
+            if (entries != null)
+                giveaway.setEntries(Utils.parseInt(entries.split(" ")[0]));
+            giveaway.setEntered(frame.hasClass("is-faded"));
+
+            // Copies & Points
+            if (!hints.isEmpty()) {
+                String copiesT = hints.get(0);
+                String pointsT = hints.get(hints.size() - 1);
+                giveaway.setCopies(hints.size() == 1 ? 1 : Utils.parseInt(copiesT.replace("(", "").replace(" Copies)", "")));
+                giveaway.setPoints(Integer.parseInt(pointsT.replace("(", "").replace("P)", "")));
+            } else {
+                giveaway.setCopies(1);
+                giveaway.setPoints(0);
+            }
+
+            // Steam link, which is the second to last link in the heading
+            if (headingLinks.size() >= 3) {
+                String href = headingLinks.get(headingLinks.size() - 2);
+                if (href != null) {
+                    List<String> pathSegments = Uri.parse(href).getPathSegments();
+                    if (pathSegments.size() >= 2)
+                        giveaway.setGame(new Game("app".equals(pathSegments.get(0)) ? Game.Type.APP : Game.Type.SUB, Integer.parseInt(pathSegments.get(1))));
+                }
+            }
+
+            // Time remaining
+            if (endTime != null)
+                giveaway.setEndTime(Integer.valueOf(endTime), endTimeText == null ? "" : endTimeText);
+            if (createdTime != null)
+                giveaway.setCreatedTime(Integer.valueOf(createdTime));
+
+            // Flags
+            giveaway.setWhitelist(whitelist);
+            giveaway.setGroup(group);
+            giveaway.setPrivate(inviteOnly);
+            giveaway.setRegionRestricted(regionRestricted);
+
+            if (level != null)
+                giveaway.setLevel(Integer.parseInt(level.replace("Level", "").replace("+", "").trim()));
+
+            // Internal ID for blacklisting
+            try {
+                giveaway.setInternalGameId(Long.parseLong(gameId));
+            } catch (NumberFormatException e) {
+                // no game ID for us to allow hiding the game.
+            }
+
+            return giveaway;
+        }
+    }
+
+    /**
+     * Collapses whitespace the same way {@link org.jsoup.nodes.Element#text()} does.
+     */
+    private static String normalize(CharSequence text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean lastWasWhite = true;
+        for (int i = 0; i < text.length(); ++i) {
+            char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                if (!lastWasWhite) {
+                    sb.append(' ');
+                    lastWasWhite = true;
+                }
+            } else {
+                sb.append(c);
+                lastWasWhite = false;
+            }
+        }
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == ' ')
+            sb.setLength(length - 1);
+        return sb.toString();
+    }
+}
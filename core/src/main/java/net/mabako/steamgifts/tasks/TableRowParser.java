@@ -0,0 +1,201 @@
+package net.mabako.steamgifts.tasks;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the rows of a table, such as the list of entered giveaways or the whitelist, into one item per row.
+ * <p>Each kind of table declares the fields it needs once, through {@link #field(Query)}, and creates its items from
+ * the elements found for these fields in {@link #create(Row)}. Rather than searching each row once per field, every
+ * row is walked just once, and each element is matched against all fields at the same time.</p>
+ * <p>Parsers hold no state besides their fields, so a single instance can be shared by all tasks loading the same
+ * kind of table.</p>
+ *
+ * @param <T> type of the items created for each row
+ */
+public abstract class TableRowParser<T> {
+    private final List<Field> fields = new ArrayList<>();
+
+    /**
+     * Number of alternative selectors of all fields together.
+     */
+    private int slots = 0;
+
+    /**
+     * Declares a field to be found in each row. This must only be called while creating the parser.
+     */
+    protected final Field field(@NonNull Query query) {
+        Field field = new Field(query, slots);
+        fields.add(field);
+        slots += query.size();
+        return field;
+    }
+
+    /**
+     * Creates the item for a single row.
+     *
+     * @param row the elements found for each field
+     */
+    protected abstract T create(Row row);
+
+    /**
+     * Reads all rows of the table(s) within an element.
+     *
+     * @param document page, or part of a page, containing the table
+     * @return one item per row, in the order the rows are in
+     */
+    @NonNull
+    public List<T> parse(@NonNull Element document) {
+        Elements rows = Selectors.Table.ROWS.select(document);
+        List<T> items = new ArrayList<>(rows.size());
+        for (Element row : rows)
+            items.add(create(scan(row)));
+        return items;
+    }
+
+    /**
+     * Finds the elements for all fields within a single row.
+     */
+    private Row scan(final Element row) {
+        final Elements[] matches = new Elements[slots];
+
+        new NodeTraversor(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (!(node instanceof Element))
+                    return;
+
+                Element element = (Element) node;
+                for (Field field : fields) {
+                    for (int i = 0; i < field.query.size(); ++i) {
+                        Evaluator evaluator = field.query.getEvaluator(i);
+                        if (evaluator != null && evaluator.matches(row, element)) {
+                            int slot = field.slot + i;
+                            if (matches[slot] == null)
+                                matches[slot] = new Elements();
+                            matches[slot].add(element);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+            }
+        }).traverse(row);
+
+        // Selectors that couldn't be parsed once are searched for the usual way.
+        for (Field field : fields)
+            for (int i = 0; i < field.query.size(); ++i)
+                if (field.query.getEvaluator(i) == null)
+                    matches[field.slot + i] = field.query.select(row, i);
+
+        return new Row(row, matches);
+    }
+
+    /**
+     * A field found in each row, as declared through {@link #field(Query)}.
+     */
+    public static final class Field {
+        private final Query query;
+
+        /**
+         * Index of the matches for the first selector of this field within a {@link Row}.
+         */
+        private final int slot;
+
+        private Field(Query query, int slot) {
+            this.query = query;
+            this.slot = slot;
+        }
+
+        @Override
+        public String toString() {
+            return query.toString();
+        }
+    }
+
+    /**
+     * All elements found for each field within a single row.
+     */
+    public static final class Row {
+        private final Element element;
+        private final Elements[] matches;
+
+        private Row(Element element, Elements[] matches) {
+            this.element = element;
+            this.matches = matches;
+        }
+
+        /**
+         * @return the row itself
+         */
+        public Element getElement() {
+            return element;
+        }
+
+        /**
+         * @return all elements found for the field, in document order
+         */
+        @NonNull
+        public Elements all(Field field) {
+            // Just like Query, use the first alternative selector that matched anything.
+            for (int i = 0; i < field.query.size(); ++i) {
+                Elements elements = matches[field.slot + i];
+                if (elements != null && !elements.isEmpty())
+                    return elements;
+            }
+            return new Elements();
+        }
+
+        /**
+         * @return the first element found for the field, or null if there is none
+         */
+        @Nullable
+        public Element first(Field field) {
+            return all(field).first();
+        }
+
+        /**
+         * @return the last element found for the field, or null if there is none
+         */
+        @Nullable
+        public Element last(Field field) {
+            return all(field).last();
+        }
+
+        /**
+         * @return whether any element was found for the field
+         */
+        public boolean exists(Field field) {
+            return !all(field).isEmpty();
+        }
+
+        /**
+         * @return the combined text of all elements found for the field, like {@link Elements#text()}
+         */
+        @NonNull
+        public String text(Field field) {
+            return all(field).text();
+        }
+
+        /**
+         * @return the attribute's value on the first element found for the field having it, like
+         * {@link Elements#attr(String)}
+         */
+        @NonNull
+        public String attr(Field field, String attributeKey) {
+            return all(field).attr(attributeKey);
+        }
+    }
+}
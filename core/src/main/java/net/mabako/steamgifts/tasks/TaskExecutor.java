@@ -0,0 +1,285 @@
+package net.mabako.steamgifts.tasks;
+
+import android.os.AsyncTask;
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs all background tasks.
+ * <p>{@link AsyncTask#execute(Object[])} runs every task one after another on a single thread, so entering a giveaway
+ * would have to wait for any page that is currently being loaded. Instead, tasks are run on a small pool of threads for
+ * network requests, and are started by {@link Priority}: anything the user explicitly did comes first, followed by
+ * whatever is currently shown and lastly anything loaded in the background.</p>
+ * <p>Parsing large pages is CPU bound, and is handed off to a separate pool through {@link #parse(Callable)}, which
+ * has one thread per core (but at least two, and at most four).</p>
+ * <p>A task may load several pages at once by calling {@link #fork(Callable)} for each of them, and waiting for them
+ * with {@link #join(Future)}.</p>
+ * <p>Tasks that only update a fragment are started through {@link #execute(Object, AsyncTask, Priority, Object[])},
+ * and cancelled through {@link #cancel(Object)} once the fragment's view is gone.</p>
+ */
+public final class TaskExecutor {
+    private static final int NETWORK_THREADS = 4;
+    private static final int PARSE_THREADS = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    public enum Priority {
+        /**
+         * Something the user explicitly did, such as entering a giveaway or posting a comment.
+         */
+        USER_ACTION,
+
+        /**
+         * Content that is currently shown, or about to be.
+         */
+        FOREGROUND,
+
+        /**
+         * Anything that may not be needed at all, such as prefetching pages or checking for notifications.
+         */
+        BACKGROUND
+    }
+
+    private static final ThreadPoolExecutor NETWORK = createPool("network", NETWORK_THREADS);
+    private static final ThreadPoolExecutor PARSE = createPool("parse", PARSE_THREADS);
+
+    /**
+     * Sequence number for all tasks, so tasks of the same priority are run in the order they were started.
+     */
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    /**
+     * Priority of the task the current thread is running, if any.
+     */
+    private static final ThreadLocal<Priority> CURRENT_PRIORITY = new ThreadLocal<>();
+
+    /**
+     * Tasks started on behalf of an owner, which are cancelled along with it.
+     */
+    private static final Map<Object, List<AsyncTask<?, ?, ?>>> OWNED_TASKS = new WeakHashMap<>();
+
+    private TaskExecutor() {
+    }
+
+    /**
+     * Starts the task on the network pool.
+     *
+     * @param task     task to start
+     * @param priority priority of the task
+     * @return the task itself
+     */
+    @SafeVarargs
+    public static <Params, Progress, Result> AsyncTask<Params, Progress, Result> execute(@NonNull AsyncTask<Params, Progress, Result> task, @NonNull Priority priority, Params... params) {
+        return task.executeOnExecutor(getExecutor(priority), params);
+    }
+
+    /**
+     * Starts the task on the network pool, to be cancelled by {@link #cancel(Object)} with its owner.
+     *
+     * @param owner    whom the task is run for, usually a fragment
+     * @param task     task to start
+     * @param priority priority of the task
+     * @return the task itself
+     */
+    @SafeVarargs
+    public static <Params, Progress, Result> AsyncTask<Params, Progress, Result> execute(@NonNull Object owner, @NonNull AsyncTask<Params, Progress, Result> task, @NonNull Priority priority, Params... params) {
+        synchronized (OWNED_TASKS) {
+            List<AsyncTask<?, ?, ?>> tasks = OWNED_TASKS.get(owner);
+            if (tasks == null) {
+                tasks = new ArrayList<>();
+                OWNED_TASKS.put(owner, tasks);
+            }
+
+            // Forget about whatever is done already.
+            for (Iterator<AsyncTask<?, ?, ?>> iterator = tasks.iterator(); iterator.hasNext(); )
+                if (iterator.next().getStatus() == AsyncTask.Status.FINISHED)
+                    iterator.remove();
+
+            tasks.add(task);
+        }
+        return execute(task, priority, params);
+    }
+
+    /**
+     * Cancels all tasks started for the owner that are still running.
+     *
+     * @param owner whom the tasks were started for
+     */
+    public static void cancel(@NonNull Object owner) {
+        List<AsyncTask<?, ?, ?>> tasks;
+        synchronized (OWNED_TASKS) {
+            tasks = OWNED_TASKS.remove(owner);
+        }
+
+        if (tasks != null)
+            for (AsyncTask<?, ?, ?> task : tasks)
+                task.cancel(true);
+    }
+
+    /**
+     * Returns an executor that runs everything on the network pool with the given priority.
+     */
+    public static Executor getExecutor(@NonNull final Priority priority) {
+        return new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                NETWORK.execute(new PrioritizedTask<>(command, null, priority));
+            }
+        };
+    }
+
+    /**
+     * Parses something on the parse pool, and waits for the result.
+     * <p>This uses the priority of the task calling this, so parsing a page the user is waiting for is done before
+     * parsing a prefetched page.</p>
+     *
+     * @param parser what to run
+     * @return the result of the parser
+     * @throws Exception whatever the parser throws
+     */
+    public static <T> T parse(@NonNull Callable<T> parser) throws Exception {
+        if (Thread.currentThread() instanceof ParseThread)
+            return parser.call();
+
+        Priority priority = CURRENT_PRIORITY.get();
+        PrioritizedTask<T> task = new PrioritizedTask<>(null, parser, priority != null ? priority : Priority.FOREGROUND);
+        PARSE.execute(task);
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            // The calling task was cancelled, which we pass on.
+            task.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Starts loading something on the network pool, with the priority of the task calling this.
+     *
+     * @param callable what to run
+     * @return the future to pass to {@link #join(Future)}
+     */
+    public static <T> Future<T> fork(@NonNull Callable<T> callable) {
+        Priority priority = CURRENT_PRIORITY.get();
+        PrioritizedTask<T> task = new PrioritizedTask<>(null, callable, priority != null ? priority : Priority.FOREGROUND);
+        NETWORK.execute(task);
+        return task;
+    }
+
+    /**
+     * Waits for something started by {@link #fork(Callable)}.
+     * <p>If it hasn't been started yet, it is run on the calling thread instead, so tasks on the network pool waiting for
+     * each other never block all of its threads.</p>
+     *
+     * @param future what to wait for
+     * @return the result
+     * @throws Exception whatever was thrown while running it
+     */
+    public static <T> T join(@NonNull Future<T> future) throws Exception {
+        if (future instanceof PrioritizedTask && NETWORK.remove((Runnable) future))
+            ((PrioritizedTask<T>) future).run();
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    private static ThreadPoolExecutor createPool(final String name, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                String threadName = "TaskExecutor-" + name + " #" + count.getAndIncrement();
+                return "parse".equals(name) ? new ParseThread(r, threadName) : new BackgroundThread(r, threadName);
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Thread running at background priority, as {@link AsyncTask}'s own threads do.
+     */
+    private static class BackgroundThread extends Thread {
+        private BackgroundThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+
+        @Override
+        public void run() {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            super.run();
+        }
+    }
+
+    private static class ParseThread extends BackgroundThread {
+        private ParseThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+    /**
+     * A single task in either pool, ordered by priority first and by the time it was started second.
+     */
+    private static class PrioritizedTask<T> extends FutureTask<T> implements Comparable<PrioritizedTask<?>> {
+        private final Priority priority;
+        private final long sequence = SEQUENCE.getAndIncrement();
+
+        private PrioritizedTask(Runnable runnable, Callable<T> callable, Priority priority) {
+            super(callable != null ? callable : Executors.<T>callable(runnable, null));
+            this.priority = priority;
+        }
+
+        @Override
+        public void run() {
+            Priority previous = CURRENT_PRIORITY.get();
+            CURRENT_PRIORITY.set(priority);
+            try {
+                super.run();
+            } finally {
+                CURRENT_PRIORITY.set(previous);
+            }
+        }
+
+        @Override
+        public int compareTo(@NonNull PrioritizedTask<?> other) {
+            int result = priority.compareTo(other.priority);
+            if (result == 0)
+                result = sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+            return result;
+        }
+    }
+}
@@ -5,8 +5,7 @@ import android.support.v4.app.Fragment;
 import net.mabako.steamgifts.fragments.GiveawayListFragment;
 import net.mabako.steamgifts.fragments.HiddenGamesFragment;
 import net.mabako.steamgifts.fragments.interfaces.IHasHideableGiveaways;
-
-import org.jsoup.Connection;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 public class UpdateGiveawayFilterTask<FragmentType extends Fragment> extends AjaxTask<FragmentType> {
     public static final String HIDE = "hide_giveaways_by_game_id";
@@ -28,12 +27,12 @@ public class UpdateGiveawayFilterTask<FragmentType extends Fragment> extends Aja
     }
 
     @Override
-    protected void addExtraParameters(Connection connection) {
-        connection.data("game_id", String.valueOf(internalGameId));
+    protected void addExtraParameters(SteamGiftsHttpClient.Request request) {
+        request.data("game_id", String.valueOf(internalGameId));
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         if (response == null) {
             // TODO Socket timed out or some stupid shit like that.
             return;
@@ -5,8 +5,7 @@ import android.widget.Toast;
 
 import net.mabako.steamgifts.data.BasicUser;
 import net.mabako.steamgifts.fragments.interfaces.IHasWhitelistAndBlacklist;
-
-import org.jsoup.Connection;
+import net.mabako.steamgifts.network.SteamGiftsHttpClient;
 
 import java.util.Locale;
 
@@ -27,13 +26,13 @@ public class UpdateWhitelistBlacklistTask extends AjaxTask<IHasWhitelistAndBlack
     }
 
     @Override
-    protected void addExtraParameters(Connection connection) {
-        connection.data("action", adding ? "insert" : "delete");
-        connection.data("child_user_id", String.valueOf(user.getId()));
+    protected void addExtraParameters(SteamGiftsHttpClient.Request request) {
+        request.data("action", adding ? "insert" : "delete");
+        request.data("child_user_id", String.valueOf(user.getId()));
     }
 
     @Override
-    protected void onPostExecute(Connection.Response response) {
+    protected void onPostExecute(SteamGiftsHttpClient.Response response) {
         if (response != null && response.statusCode() == 200 && STATUS_SUCCESS.equals(response.body())) {
             getFragment().onUserWhitelistOrBlacklistUpdated(user, IHasWhitelistAndBlacklist.What.valueOf(getWhat().toUpperCase(Locale.ENGLISH)), adding);
         } else {
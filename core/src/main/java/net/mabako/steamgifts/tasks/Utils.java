@@ -3,14 +3,15 @@ package net.mabako.steamgifts.tasks;
 import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
-import android.util.Log;
 
+import net.mabako.common.Logger;
 import net.mabako.steamgifts.data.Comment;
 import net.mabako.steamgifts.data.Game;
 import net.mabako.steamgifts.data.Giveaway;
 import net.mabako.steamgifts.data.ICommentHolder;
 import net.mabako.steamgifts.data.IImageHolder;
 import net.mabako.steamgifts.data.Image;
+import net.mabako.steamgifts.data.Poll;
 import net.mabako.steamgifts.data.TradeComment;
 import net.mabako.steamgifts.data.User;
 
@@ -20,8 +21,10 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 
 public final class Utils {
@@ -31,7 +34,7 @@ public final class Utils {
     }
 
     /**
-     * Extract comments recursively.
+     * Extract all comments, including replies.
      *
      * @param commentNode Jsoup-Node of the parent node.
      * @param parent
@@ -40,6 +43,15 @@ public final class Utils {
         loadComments(commentNode, parent, 0, false, false, type);
     }
 
+    /**
+     * Extract all comments, including replies, in the order they're displayed in.
+     * <p>This walks the comment tree with a stack of its own rather than recursively, and only ever looks at the direct
+     * children of each comment to find its replies, so each comment is visited exactly once regardless of how deeply
+     * it is nested.</p>
+     *
+     * @param commentNode Jsoup-Node of the parent node.
+     * @param reversed    whether to add the top-level comments in reverse order; replies are always in order
+     */
     public static void loadComments(Element commentNode, ICommentHolder parent, int depth, boolean reversed, boolean includeTradeScore, Comment.Type type) {
         if (commentNode == null)
             return;
@@ -49,7 +61,17 @@ public final class Utils {
         if (reversed)
             Collections.reverse(children);
 
-        for (Element c : children) {
+        Deque<CommentLevel> levels = new ArrayDeque<>();
+        levels.push(new CommentLevel(children, depth));
+
+        while (!levels.isEmpty()) {
+            CommentLevel level = levels.peek();
+            if (!level.hasNext()) {
+                levels.pop();
+                continue;
+            }
+
+            Element c = level.next();
             long commentId = 0;
             try {
                 commentId = Integer.parseInt(c.attr("data-comment-id"));
@@ -57,13 +79,50 @@ public final class Utils {
                 /* do nothing */
             }
 
-            Comment comment = loadComment(c.child(0), commentId, depth, includeTradeScore, type);
+            Comment comment = loadComment(c.child(0), commentId, level.depth, includeTradeScore, type);
 
             // add this
             parent.addComment(comment);
 
-            // Add all children
-            loadComments(c.select(".comment__children").first(), parent, depth + 1, false, includeTradeScore, type);
+            // Add all children before the next comment on this level
+            Element replies = findReplies(c);
+            if (replies != null) {
+                Elements replyNodes = replies.children();
+                if (!replyNodes.isEmpty())
+                    levels.push(new CommentLevel(replyNodes, level.depth + 1));
+            }
+        }
+    }
+
+    /**
+     * @return the node containing all replies to a comment, if any
+     */
+    private static Element findReplies(Element commentNode) {
+        for (Element child : commentNode.children())
+            if (child.hasClass("comment__children"))
+                return child;
+        return null;
+    }
+
+    /**
+     * Comments on one level of the comment tree, which are yet to be loaded.
+     */
+    private static final class CommentLevel {
+        private final List<Element> comments;
+        private final int depth;
+        private int position = 0;
+
+        private CommentLevel(List<Element> comments, int depth) {
+            this.comments = comments;
+            this.depth = depth;
+        }
+
+        private boolean hasNext() {
+            return position < comments.size();
+        }
+
+        private Element next() {
+            return comments.get(position++);
         }
     }
 
@@ -80,26 +139,27 @@ public final class Utils {
     public static Comment loadComment(Element element, long commentId, int depth, boolean includeTradeScore, Comment.Type type) {
         // TODO Since we're not passing any session information to Steam Trades, we can't edit. This is NOT feature complete for both trading & normal use
 
+        Selectors.Comments selectors = Selectors.Comments.of(type);
+
         // Save the content of the edit state for a bit & remove the edit state from being rendered.
-        Element editState = type == Comment.Type.COMMENT ? element.select(".comment__edit-state.is-hidden textarea[name=description]").first() : null;
+        Element editState = type == Comment.Type.COMMENT ? Selectors.Comments.EDITABLE_CONTENT.first(element) : null;
         String editableContent = null;
         if (editState != null)
             editableContent = editState.text();
-        element.select(".comment__edit-state").html("");
+        Selectors.Comments.EDIT_STATE.select(element).html("");
 
-        Element authorNode = element.select(type == Comment.Type.COMMENT ? ".comment__username" : ".author_name").first();
+        Element authorNode = selectors.author.first(element);
         String author = authorNode.text();
         boolean isOp = authorNode.hasClass("comment__username--op");
 
         String avatar = null;
-        Element avatarNode = element.select(type == Comment.Type.COMMENT ? ".global__image-inner-wrap" : ".author_avatar").first();
+        Element avatarNode = selectors.avatar.first(element);
         if (avatarNode != null)
             avatar = extractAvatar(avatarNode.attr("style"));
 
-        Element timeCreated = element.select(type == Comment.Type.COMMENT ? ".comment__actions > div span" : ".action_list > span > span").first();
+        Element timeCreated = selectors.createdTime.first(element);
 
-        String actions = type == Comment.Type.COMMENT ? ".comment__actions" : ".action_list";
-        Uri permalinkUri = Uri.parse(element.select(actions + " a[href^=/go/]").first().attr("href"));
+        Uri permalinkUri = Uri.parse(selectors.permalink.first(element).attr("href"));
 
         Comment comment = includeTradeScore ? new TradeComment(commentId, author, depth, avatar, isOp, type) : new Comment(commentId, author, depth, avatar, isOp, type);
         comment.setPermalinkId(permalinkUri.getPathSegments().get(2));
@@ -107,31 +167,31 @@ public final class Utils {
         comment.setCreatedTime(Integer.valueOf(timeCreated.attr("data-timestamp")));
 
 
-        Element desc = element.select(type == Comment.Type.COMMENT ? ".comment__description" : ".review_description").first();
-        desc.select("blockquote").tagName("custom_quote");
+        Element desc = selectors.description.first(element);
+        Selectors.Markdown.QUOTES.select(desc).tagName("custom_quote");
         String content = loadAttachedImages(comment, desc);
         comment.setContent(content);
 
         // check if the comment is deleted
         if (type == Comment.Type.COMMENT) {
-            comment.setDeleted(element.select(".comment__summary").first().select(".comment__delete-state").size() == 1);
-            comment.setHighlighted(element.select(".comment__parent > .comment__envelope").size() != 0);
+            comment.setDeleted(Selectors.Comments.DELETE_STATE.select(Selectors.Comments.SUMMARY.first(element)).size() == 1);
+            comment.setHighlighted(Selectors.Comments.HIGHLIGHTED.exists(element));
 
-            Element roleName = element.select(".comment__role-name").first();
+            Element roleName = Selectors.Comments.ROLE_NAME.first(element);
             if (roleName != null)
                 comment.setAuthorRole(roleName.text().replace("(", "").replace(")", ""));
 
             // Do we have either a delete or undelete link?
-            comment.setDeletable(element.select(".comment__actions__button.js__comment-delete").size() + element.select(".comment__actions__button.js__comment-undelete").size() == 1);
+            comment.setDeletable(Selectors.Comments.DELETE_BUTTON.select(element).size() + Selectors.Comments.UNDELETE_BUTTON.select(element).size() == 1);
         }
 
         if (comment instanceof TradeComment && !comment.isDeleted()) {
             try {
-                ((TradeComment) comment).setTradeScorePositive(Utils.parseInt(element.select(".is_positive").first().text()));
-                ((TradeComment) comment).setTradeScoreNegative(-Utils.parseInt(element.select(".is_negative").first().text()));
-                ((TradeComment) comment).setSteamID64(Long.valueOf(Uri.parse(element.select(".author_name").attr("href")).getPathSegments().get(1)));
+                ((TradeComment) comment).setTradeScorePositive(Utils.parseInt(Selectors.Comments.TRADE_SCORE_POSITIVE.first(element).text()));
+                ((TradeComment) comment).setTradeScoreNegative(-Utils.parseInt(Selectors.Comments.TRADE_SCORE_NEGATIVE.first(element).text()));
+                ((TradeComment) comment).setSteamID64(Long.valueOf(Uri.parse(selectors.author.select(element).attr("href")).getPathSegments().get(1)));
             } catch (Exception e) {
-                Log.v(TAG, "Unable to parse feedback", e);
+                Logger.v(TAG, "Unable to parse feedback", e);
             }
         }
 
@@ -145,9 +205,9 @@ public final class Utils {
     /**
      * Load some details for the giveaway. Some items must be loaded outside of this.
      */
-    public static void loadGiveaway(Giveaway giveaway, Element element, String cssNode, String headerHintCssNode, Uri steamUri) {
+    public static void loadGiveaway(Giveaway giveaway, Element element, Selectors.GiveawaySummary selectors, Uri steamUri) {
         // Copies & Points. They do not have separate markup classes, it's basically "if one thin markup element exists, it's one copy only"
-        Elements hints = element.select("." + headerHintCssNode);
+        Elements hints = selectors.headerHints.select(element);
         if (!hints.isEmpty()) {
             String copiesT = hints.first().text();
             String pointsT = hints.last().text();
@@ -170,17 +230,18 @@ public final class Utils {
         }
 
         // Time remaining
-        Element end = element.select("." + cssNode + "__columns > div span").first();
+        Elements times = selectors.times.select(element);
+        Element end = times.first();
         giveaway.setEndTime(Integer.valueOf(end.attr("data-timestamp")), end.parent().text().trim());
-        giveaway.setCreatedTime(Integer.valueOf(element.select("." + cssNode + "__columns > div span").last().attr("data-timestamp")));
+        giveaway.setCreatedTime(Integer.valueOf(times.last().attr("data-timestamp")));
 
         // Flags
-        giveaway.setWhitelist(!element.select("." + cssNode + "__column--whitelist").isEmpty());
-        giveaway.setGroup(!element.select("." + cssNode + "__column--group").isEmpty());
-        giveaway.setPrivate(!element.select("." + cssNode + "__column--invite-only").isEmpty());
-        giveaway.setRegionRestricted(!element.select("." + cssNode + "__column--region-restricted").isEmpty());
+        giveaway.setWhitelist(selectors.whitelist.exists(element));
+        giveaway.setGroup(selectors.group.exists(element));
+        giveaway.setPrivate(selectors.inviteOnly.exists(element));
+        giveaway.setRegionRestricted(selectors.regionRestricted.exists(element));
 
-        Element level = element.select("." + cssNode + "__column--contributor-level").first();
+        Element level = selectors.contributorLevel.first(element);
         if (level != null)
             giveaway.setLevel(Integer.parseInt(level.text().replace("Level", "").replace("+", "").trim()));
 
@@ -200,12 +261,13 @@ public final class Utils {
      * @return list of giveaways
      */
     public static List<Giveaway> loadGiveawaysFromList(Document document) {
-        Elements giveaways = document.select(".giveaway__row-inner-wrap");
+        Elements giveaways = Selectors.GiveawayList.ROWS.select(document);
 
         List<Giveaway> giveawayList = new ArrayList<>();
         for (Element element : giveaways) {
             // Basic information
-            Element link = element.select("h2 a").first();
+            Elements icons = Selectors.GiveawayList.LINKS.select(element);
+            Element link = icons.first();
 
             Giveaway giveaway = null;
             if (link.hasAttr("href")) {
@@ -221,20 +283,19 @@ public final class Utils {
             }
 
             giveaway.setTitle(link.text());
-            giveaway.setCreator(element.select(".giveaway__username").text());
+            giveaway.setCreator(Selectors.GiveawayList.CREATOR.select(element).text());
 
             // Entries, would usually have comment count too... but we don't display that anywhere.
-            Elements links = element.select(".giveaway__links a span");
+            Elements links = Selectors.GiveawayList.ENTRIES.select(element);
             giveaway.setEntries(parseInt(links.first().text().split(" ")[0]));
 
             giveaway.setEntered(element.hasClass("is-faded"));
 
             // More details
-            Elements icons = element.select("h2 a");
             Element icon = icons.size() < 2 ? null : icons.get(icons.size() - 2);
             Uri uriIcon = icon == link || icon == null ? null : Uri.parse(icon.attr("href"));
 
-            Utils.loadGiveaway(giveaway, element, "giveaway", "giveaway__heading__thin", uriIcon);
+            Utils.loadGiveaway(giveaway, element, Selectors.GiveawaySummary.LIST, uriIcon);
             giveawayList.add(giveaway);
         }
 
@@ -259,7 +320,7 @@ public final class Utils {
      */
     public static String loadAttachedImages(IImageHolder imageHolder, Element description) {
         // find all "View attached image" segments
-        Elements images = description.select("div > a > img.is-hidden");
+        Elements images = Selectors.Markdown.ATTACHED_IMAGES.select(description);
         for (Element image : images) {
             // Extract the link.
             String src = image.attr("src");
@@ -284,58 +345,96 @@ public final class Utils {
         String foundXsrfToken = null;
 
         // If this isn't the user we're logged in as, we'd get some user id.
-        Element idElement = document.select("input[name=child_user_id]").first();
+        Element idElement = Selectors.UserProfile.CHILD_USER_ID.first(document);
         if (idElement != null) {
             user.setId(Integer.valueOf(idElement.attr("value")));
         } else {
-            Log.v(TAG, "No child_user_id");
+            Logger.v(TAG, "No child_user_id");
         }
 
-        user.setWhitelisted(!document.select(".sidebar__shortcut__whitelist.is-selected").isEmpty());
-        user.setBlacklisted(!document.select(".sidebar__shortcut__blacklist.is-selected").isEmpty());
+        user.setWhitelisted(Selectors.UserProfile.WHITELISTED.exists(document));
+        user.setBlacklisted(Selectors.UserProfile.BLACKLISTED.exists(document));
 
         // Fetch the xsrf token - this, again, is only present if we're on another user's page.
-        Element xsrfToken = document.select("input[name=xsrf_token]").first();
+        Element xsrfToken = Selectors.XSRF_TOKEN.first(document);
         if (xsrfToken != null)
             foundXsrfToken = xsrfToken.attr("value");
 
-        user.setName(document.select(".featured__heading__medium").first().text());
-        user.setAvatar(Utils.extractAvatar(document.select(".global__image-inner-wrap").first().attr("style")));
-        user.setUrl(document.select(".sidebar a[data-tooltip=\"Visit Steam Profile\"]").first().attr("href"));
+        user.setName(Selectors.UserProfile.NAME.first(document).text());
+        user.setAvatar(Utils.extractAvatar(Selectors.UserProfile.AVATAR.first(document).attr("style")));
+        user.setUrl(Selectors.UserProfile.STEAM_PROFILE.first(document).attr("href"));
 
-        Elements columns = document.select(".featured__table__column");
-        user.setRole(columns.first().select("a[href^=/roles/").text());
-        user.setComments(parseInt(columns.first().select(".featured__table__row__right").get(3).text()));
+        Elements columns = Selectors.UserProfile.TABLE_COLUMNS.select(document);
+        user.setRole(Selectors.UserProfile.ROLE.select(columns.first()).text());
+        user.setComments(parseInt(Selectors.UserProfile.TABLE_VALUES.select(columns.first()).get(3).text()));
 
-        Elements right = columns.last().select(".featured__table__row__right");
+        Elements right = Selectors.UserProfile.TABLE_VALUES.select(columns.last());
 
         // Both won and created have <a href="...">[amount won]</a> [value of won items],
         // so it's impossible to get the text for the amount directly.
         Element won = right.get(1);
-        user.setWon(parseInt(won.select("a").first().text()));
-        won.select("a").html("");
+        user.setWon(parseInt(Selectors.LINKS.first(won).text()));
+        Selectors.LINKS.select(won).html("");
         user.setWonAmount(won.text().trim());
 
         Element created = right.get(2);
-        user.setCreated(parseInt(created.select("a").first().text()));
-        created.select("a").html("");
+        user.setCreated(parseInt(Selectors.LINKS.first(created).text()));
+        Selectors.LINKS.select(created).html("");
         user.setCreatedAmount(created.text().trim());
 
         // Fetch user level from the JSON-ish tooltip
         try
         {
-            Log.d(TAG, right.get(3).select("span").first().attr("data-ui-tooltip"));
-            JSONObject levelObj = new JSONObject(right.get(3).select("span").first().attr("data-ui-tooltip").replace("&quot;", "\""));
+            String levelTooltip = Selectors.SPANS.first(right.get(3)).attr("data-ui-tooltip");
+            Logger.d(TAG, levelTooltip);
+            JSONObject levelObj = new JSONObject(levelTooltip.replace("&quot;", "\""));
             user.setLevel((int) levelObj.getJSONArray("rows").getJSONObject(0).getJSONArray("columns").getJSONObject(1).getDouble("name"));
         }
         catch (JSONException e)
         {
-            Log.e(TAG, "Unable to fetch user level", e);
+            Logger.e(TAG, "Unable to fetch user level", e);
             user.setLevel(0);
         }
         return foundXsrfToken;
     }
 
+    /**
+     * Loads the poll attached to a discussion.
+     *
+     * @param pollElement the poll's HTML element
+     * @return the poll
+     */
+    public static Poll loadPoll(Element pollElement) {
+        Poll poll = new Poll();
+
+        // Question and Description are actually both within the same element, which makes it a tad confusing.
+        // Fetch the question and description
+        Elements pollHeader = Selectors.Poll.HEADER.select(pollElement);
+
+        // Set the description only, and remove that from the question element
+        Elements description = Selectors.Poll.DESCRIPTION.select(pollHeader);
+        poll.setDescription(description.text());
+        description.html("");
+
+        // the remaining text is the question.
+        poll.setQuestion(pollHeader.text());
+
+        poll.setClosed(!Selectors.Poll.FORM.exists(pollElement));
+
+        Elements answerElements = Selectors.Poll.ANSWERS.select(pollElement);
+        for (Element thisAnswer : answerElements) {
+            Poll.Answer answer = new Poll.Answer();
+
+            answer.setId(Integer.valueOf(thisAnswer.attr("data-id")));
+            answer.setVoteCount(Integer.valueOf(thisAnswer.attr("data-votes")));
+            answer.setText(Selectors.Poll.ANSWER_TEXT.select(thisAnswer).text());
+
+            poll.addAnswer(answer, thisAnswer.hasClass("is-selected"));
+        }
+
+        return poll;
+    }
+
     /**
      * Returns an integer value from HTML for most display purposes.
      *